@@ -0,0 +1,86 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.repository.JournaledBookRepository;
+import org.training.service.BookExecutor;
+import org.training.service.BookService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the execution modes: every invocation issues {@code concurrency} blocking saves at once and waits for
+ * all of them. With a worker pool of {@code workerThreads}, throughput stops growing once the concurrency passes the
+ * pool size, on virtual threads it keeps scaling with the journal group commits.
+ * <p>
+ * Run on JDK 21 or later, the {@code virtual} mode fails its setup on older runtimes instead of silently measuring the
+ * worker pool. The score is in batches, multiply it by {@code concurrency} for saves.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+public class BookExecutionBenchmark {
+
+    @Param({"worker", "virtual"})
+    public String mode;
+
+    @Param({"20"})
+    public int workerThreads;
+
+    @Param({"16", "64", "256", "1024"})
+    public int concurrency;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private Path directory;
+    private JournaledBookRepository repository;
+    private BookService bookService;
+    private ExecutorService workerPool;
+    private BookExecutor bookExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("books-execution-benchmark");
+        this.repository = new JournaledBookRepository(this.directory, Long.MAX_VALUE);
+        this.bookService = new BookService(this.repository);
+        this.workerPool = Executors.newFixedThreadPool(this.workerThreads);
+        this.bookExecutor = BookExecutor.create(this.mode, this.workerPool, "short");
+        if ("virtual".equals(this.mode) && !this.bookExecutor.isVirtual())
+            throw new IllegalStateException("Virtual threads are not available on " + Runtime.version());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.bookExecutor.close();
+        this.workerPool.shutdown();
+        this.repository.close();
+        try (final var files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(it -> it.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void saveConcurrently() {
+        final var saves = new CompletableFuture<?>[this.concurrency];
+        for (int i = 0; i < this.concurrency; i++) {
+            final var book = BookFixtures.book("book-", this.sequence.getAndIncrement());
+            saves[i] = CompletableFuture.supplyAsync(() -> this.bookService.saveOne(book), this.bookExecutor);
+        }
+        CompletableFuture.allOf(saves).join();
+    }
+}
@@ -0,0 +1,30 @@
+package org.training.benchmark;
+
+import org.training.config.BeanConfiguration;
+import org.training.model.Book;
+import org.training.repository.IBookRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BookFixtures {
+
+    private BookFixtures() {
+    }
+
+    static IBookRepository repository(final String repositoryType) {
+        return new BeanConfiguration().bookRepository(repositoryType);
+    }
+
+    static Book book(final String prefix, final int index) {
+        return new Book(prefix + index, "Book " + index);
+    }
+
+    static List<Book> books(final String prefix, final int size) {
+        final var books = new ArrayList<Book>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(book(prefix, i));
+        }
+        return books;
+    }
+}
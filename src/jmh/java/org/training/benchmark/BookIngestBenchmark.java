@@ -0,0 +1,87 @@
+package org.training.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.service.BookIngestService;
+import org.training.service.BookService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports {@code catalogSize} books from one JSON document into an empty repository, through the materializing
+ * {@code saveAll} and through the streaming ingest. Run with {@code -prof gc}: the ingest allocates as much in total
+ * but never retains more than its chunks in flight.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BookIngestBenchmark {
+
+    @Param({"sharded", "concurrent"})
+    public String repositoryType;
+
+    @Param({"1000000"})
+    public int catalogSize;
+
+    @Param({"1000"})
+    public int chunkSize;
+
+    private ObjectMapper objectMapper;
+    private byte[] booksJson;
+    private BookService bookService;
+    private BookIngestService bookIngestService;
+
+    @Setup(Level.Trial)
+    public void setUpBooks() throws IOException {
+        this.objectMapper = new ObjectMapper().findAndRegisterModules();
+        this.booksJson = this.objectMapper.writeValueAsBytes(BookFixtures.books("book-", this.catalogSize));
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpService() {
+        final var parallelism = Runtime.getRuntime().availableProcessors();
+        this.bookService = new BookService(BookFixtures.repository(this.repositoryType));
+        this.bookIngestService = new BookIngestService(this.bookService, this.objectMapper, parallelism, this.chunkSize, 2 * parallelism);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        this.bookIngestService.close();
+    }
+
+    @Benchmark
+    public Collection<Book> saveAll() throws IOException {
+        final List<Book> books = this.objectMapper.readValue(
+                this.booksJson,
+                this.objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class)
+        );
+        this.bookService.deleteAll();
+        return this.bookService.saveAll(books).getSavedBooks();
+    }
+
+    @Benchmark
+    public BookIngestService.BooksIngestRecord ingest() throws IOException {
+        this.bookService.deleteAll();
+        return this.bookIngestService.ingest(new ByteArrayInputStream(this.booksJson));
+    }
+}
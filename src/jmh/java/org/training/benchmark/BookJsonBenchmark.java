@@ -0,0 +1,82 @@
+package org.training.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.config.BookJsonModule;
+import org.training.controller.BookController;
+import org.training.model.Book;
+import org.training.service.BookService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class BookJsonBenchmark {
+
+    @Param({"10", "1000"})
+    public int recordSize;
+
+    // reflective: properties discovered by Jackson, module: the hand-written BookJsonModule the application registers.
+    @Param({"reflective", "module"})
+    public String mapping;
+
+    private ObjectMapper objectMapper;
+    private Book book;
+    private byte[] bookJson;
+    private BookController.ViewBooksRecord viewBooksRecord;
+    private byte[] viewBooksRecordJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        this.objectMapper = new ObjectMapper().findAndRegisterModules();
+        if ("module".equals(this.mapping))
+            this.objectMapper.registerModule(new BookJsonModule());
+        this.book = BookFixtures.book("book-", 42);
+        this.bookJson = this.objectMapper.writeValueAsBytes(this.book);
+
+        final var savedBooks = BookFixtures.books("book-", this.recordSize);
+        final List<BookService.BooksRecord.UnsavedBooks> unsavedBooks =
+                BookFixtures.books("unsaved-", this.recordSize / 10)
+                        .stream()
+                        .map(it -> new BookService.BooksRecord.UnsavedBooks(
+                                it,
+                                new BookService.BookException.BookAlreadyExistException("Book already exist!")))
+                        .collect(Collectors.toUnmodifiableList());
+        this.viewBooksRecord =
+                BookController.ViewBooksRecord
+                        .fromBooksRecord2ViewBooksRecord(new BookService.BooksRecord(savedBooks, unsavedBooks));
+        this.viewBooksRecordJson = this.objectMapper.writeValueAsBytes(this.viewBooksRecord);
+    }
+
+    @Benchmark
+    public byte[] serializeBook() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.book);
+    }
+
+    @Benchmark
+    public Book deserializeBook() throws IOException {
+        return this.objectMapper.readValue(this.bookJson, Book.class);
+    }
+
+    @Benchmark
+    public byte[] serializeViewBooksRecord() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.viewBooksRecord);
+    }
+
+    @Benchmark
+    public BookController.ViewBooksRecord deserializeViewBooksRecord() throws IOException {
+        return this.objectMapper.readValue(this.viewBooksRecordJson, BookController.ViewBooksRecord.class);
+    }
+}
@@ -0,0 +1,66 @@
+package org.training.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.repository.MeteredBookRepository;
+import org.training.service.BookService;
+
+/**
+ * Cost of the instrumentation: the same service calls without meters and with the service and repository both
+ * recording into a Prometheus registry.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class BookMetricsBenchmark {
+
+    @Param({"none", "prometheus"})
+    public String metrics;
+
+    @Param({"in-memory", "concurrent"})
+    public String repositoryType;
+
+    private BookService bookService;
+    private Book book;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var repository = BookFixtures.repository(this.repositoryType);
+        repository.saveAll(BookFixtures.books("book-", 100_000));
+        if ("none".equals(this.metrics)) {
+            this.bookService = new BookService(repository);
+        } else {
+            final MeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            this.bookService = new BookService(new MeteredBookRepository(repository, meterRegistry), meterRegistry);
+        }
+        this.book = BookFixtures.book("book-", 42);
+    }
+
+    @Benchmark
+    public Object findOneById() {
+        return this.bookService.findOneById(this.book.getId());
+    }
+
+    @Benchmark
+    public Object findOneByIdMissing() {
+        return this.bookService.findOneById("missing");
+    }
+
+    @Benchmark
+    public Object updateOne() {
+        return this.bookService.updateOne(this.book);
+    }
+}
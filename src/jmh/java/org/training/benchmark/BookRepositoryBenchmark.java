@@ -0,0 +1,107 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.repository.IBookRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookRepositoryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"in-memory", "concurrent", "sharded", "off-heap"})
+        public String repositoryType;
+
+        @Param({"1000", "100000", "1000000", "10000000"})
+        public int catalogSize;
+
+        IBookRepository repository;
+        List<Book> books;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.repository = BookFixtures.repository(this.repositoryType);
+            this.books = BookFixtures.books("book-", this.catalogSize);
+            this.repository.saveAll(this.books);
+        }
+
+        Book randomBook() {
+            return this.books.get(ThreadLocalRandom.current().nextInt(this.catalogSize));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"in-memory", "concurrent", "sharded", "off-heap"})
+        public String repositoryType;
+
+        @Param({"1000", "100000", "1000000", "10000000"})
+        public int catalogSize;
+
+        IBookRepository repository;
+        List<Book> books;
+
+        @Setup(Level.Trial)
+        public void setUpBooks() {
+            this.books = BookFixtures.books("book-", this.catalogSize);
+        }
+
+        @Setup(Level.Invocation)
+        public void setUpRepository() {
+            this.repository = BookFixtures.repository(this.repositoryType);
+        }
+    }
+
+    @Benchmark
+    public Optional<Book> findOneById(final Catalog catalog) {
+        return catalog.repository.findOneById(catalog.randomBook().getId());
+    }
+
+    @Benchmark
+    public Optional<Book> findOneByIdMissing(final Catalog catalog) {
+        return catalog.repository.findOneById("missing");
+    }
+
+    /**
+     * Inserts an absent book and removes it again, so the catalog keeps its size across invocations.
+     */
+    @Benchmark
+    public Optional<Book> saveOne(final Catalog catalog) {
+        final var book = BookFixtures.book("new-", ThreadLocalRandom.current().nextInt());
+        catalog.repository.saveOne(book);
+        return catalog.repository.deleteOneById(book.getId());
+    }
+
+    /**
+     * Removes an existing book and puts it back, so the catalog keeps its size across invocations.
+     */
+    @Benchmark
+    public Book deleteOneById(final Catalog catalog) {
+        final var book = catalog.randomBook();
+        catalog.repository.deleteOneById(book.getId());
+        return catalog.repository.saveOne(book);
+    }
+
+    /**
+     * Bulk loads {@code catalogSize} books into an empty repository.
+     */
+    @Benchmark
+    public Collection<Book> saveAll(final Batch batch) {
+        return batch.repository.saveAll(batch.books);
+    }
+}
@@ -0,0 +1,70 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.repository.ConcurrentBookRepository;
+import org.training.repository.IBookRepository;
+import org.training.repository.IndexedBookRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the name index over catalogs whose names are drawn from a fixed vocabulary, so common words match
+ * a large share of the books the way they do in a real catalog.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BookSearchBenchmark {
+    private static final String[] WORDS = {
+            "java", "quarkus", "cookbook", "action", "reactive", "cloud", "native", "patterns", "kotlin", "spring",
+            "microservices", "kubernetes", "performance", "concurrency", "streams", "testing", "design", "modern",
+            "effective", "guide", "handbook", "essentials", "mastering", "practical", "advanced", "beginning",
+            "architecture", "security", "data", "systems"
+    };
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"quarkus", "quar", "java cook", "modern java concurrency"})
+    public String query;
+
+    private IBookRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var random = new SplittableRandom(42);
+        final List<Book> books = new ArrayList<>(this.catalogSize);
+        for (int i = 0; i < this.catalogSize; i++) {
+            final var name = new StringBuilder();
+            for (int word = 0; word < 3; word++) {
+                name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            books.add(new Book("book-" + i, name.append(i).toString()));
+        }
+        this.repository = new IndexedBookRepository(new ConcurrentBookRepository());
+        this.repository.saveAll(books);
+    }
+
+    @Benchmark
+    public List<Book> search() {
+        return this.repository.search(this.query, 20);
+    }
+}
@@ -0,0 +1,190 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.service.BookService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code saveAll} changes the catalog, so its benchmarks run a fixed number of calls per iteration, each on a batch of
+ * fresh ids, and remove what they saved once the iteration is over. The catalog grows by at most
+ * {@link #BATCHES_PER_ITERATION} batches and nothing but the calls themselves is timed.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookServiceBenchmark {
+    static final int BATCHES_PER_ITERATION = 10;
+
+    @State(Scope.Benchmark)
+    public static class MixedBatch {
+        @Param({"in-memory", "concurrent"})
+        public String repositoryType;
+
+        @Param({"1000", "100000", "1000000"})
+        public int catalogSize;
+
+        @Param({"1000"})
+        public int batchSize;
+
+        /**
+         * Percentage of the batch that fails validation: blank ids, blank names, null books and already saved ids.
+         */
+        @Param({"0", "10", "50"})
+        public int invalidPercentage;
+
+        BookService bookService;
+        List<List<Book>> batches;
+        List<String> validIds;
+        int nextBatch;
+        int iteration;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final var repository = BookFixtures.repository(this.repositoryType);
+            repository.saveAll(BookFixtures.books("book-", this.catalogSize));
+            this.bookService = new BookService(repository);
+        }
+
+        @Setup(Level.Iteration)
+        public void createBatches() {
+            this.batches = new ArrayList<>(BATCHES_PER_ITERATION);
+            this.validIds = new ArrayList<>(BATCHES_PER_ITERATION * this.batchSize);
+            for (int b = 0; b < BATCHES_PER_ITERATION; b++) {
+                final var prefix = "batch-" + this.iteration + "-" + b + "-";
+                final var batch = new ArrayList<Book>(this.batchSize);
+                for (int i = 0; i < this.batchSize; i++) {
+                    if (i * 100 < this.invalidPercentage * this.batchSize) {
+                        batch.add(invalidBook(prefix, i));
+                    } else {
+                        final var book = BookFixtures.book(prefix, i);
+                        batch.add(book);
+                        this.validIds.add(book.getId());
+                    }
+                }
+                this.batches.add(batch);
+            }
+            this.nextBatch = 0;
+            this.iteration++;
+        }
+
+        // One repository pass, instead of a copy of the in-memory catalog per id.
+        @TearDown(Level.Iteration)
+        public void removeSavedBooks() {
+            this.bookService.deleteAll(this.validIds);
+        }
+
+        List<Book> nextBatch() {
+            return this.batches.get(this.nextBatch++);
+        }
+
+        private static Book invalidBook(final String prefix, final int index) {
+            switch (index % 4) {
+                case 0:
+                    return new Book(" ", "Book " + index);
+                case 1:
+                    return new Book(prefix + index, "");
+                case 2:
+                    return null;
+                default:
+                    return BookFixtures.book("book-", 0);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ValidBatch {
+        static final int BATCH_SIZE = 1_000;
+
+        @Param({"in-memory", "concurrent"})
+        public String repositoryType;
+
+        BookService bookService;
+        List<List<Book>> batches;
+        int nextBatch;
+        int iteration;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.bookService = new BookService(BookFixtures.repository(this.repositoryType));
+        }
+
+        @Setup(Level.Iteration)
+        public void createBatches() {
+            this.batches = new ArrayList<>(BATCHES_PER_ITERATION);
+            for (int b = 0; b < BATCHES_PER_ITERATION; b++) {
+                this.batches.add(BookFixtures.books("batch-" + this.iteration + "-" + b + "-", BATCH_SIZE));
+            }
+            this.nextBatch = 0;
+            this.iteration++;
+        }
+
+        @TearDown(Level.Iteration)
+        public void removeSavedBooks() {
+            this.bookService.deleteAll();
+        }
+
+        List<Book> nextBatch() {
+            return this.batches.get(this.nextBatch++);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExistingBook {
+        @Param({"in-memory", "concurrent"})
+        public String repositoryType;
+
+        BookService bookService;
+        Book book;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.bookService = new BookService(BookFixtures.repository(this.repositoryType));
+            this.book = BookFixtures.book("book-", 0);
+            this.bookService.saveOne(this.book);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10, batchSize = BATCHES_PER_ITERATION)
+    @Measurement(iterations = 20, batchSize = BATCHES_PER_ITERATION)
+    public BookService.BooksRecord saveAll(final MixedBatch mixedBatch) {
+        return mixedBatch.bookService.saveAll(mixedBatch.nextBatch());
+    }
+
+    /**
+     * Reported per book, so {@code gc.alloc.rate.norm} is the allocation cost of one valid book including its insert.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10, batchSize = BATCHES_PER_ITERATION)
+    @Measurement(iterations = 20, batchSize = BATCHES_PER_ITERATION)
+    @OperationsPerInvocation(ValidBatch.BATCH_SIZE)
+    public BookService.BooksRecord saveAllValid(final ValidBatch validBatch) {
+        return validBatch.bookService.saveAll(validBatch.nextBatch());
+    }
+
+    @Benchmark
+    public Object updateOneValid(final ExistingBook existingBook) {
+        return existingBook.bookService.updateOne(existingBook.book);
+    }
+}
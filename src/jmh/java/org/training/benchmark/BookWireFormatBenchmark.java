@@ -0,0 +1,77 @@
+package org.training.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.config.BookJsonModule;
+import org.training.model.Book;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of encoding and decoding the catalog, as {@code GET /books} sends it, per wire format. The setup prints the
+ * bytes each combination puts on the wire.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class BookWireFormatBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    // identity: sent as encoded, gzip: what BookCompressionInterceptor sends past its threshold.
+    @Param({"identity", "gzip"})
+    public String compression;
+
+    @Param({"100", "10000"})
+    public int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private JavaType booksType;
+    private List<Book> books;
+    private byte[] encodedBooks;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.objectMapper = "smile".equals(this.format) ? new SmileMapper() : new ObjectMapper();
+        this.objectMapper.registerModule(new BookJsonModule());
+        this.booksType = this.objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class);
+        this.books = BookFixtures.books("book-", this.catalogSize);
+        this.encodedBooks = encode();
+        System.out.printf("%n%s/%s, %d books: %d bytes%n", this.format, this.compression, this.catalogSize, this.encodedBooks.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        try (final var output = "gzip".equals(this.compression) ? new GZIPOutputStream(bytes) : (OutputStream) bytes) {
+            this.objectMapper.writeValue(output, this.books);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Book> decode() throws IOException {
+        final var bytes = new ByteArrayInputStream(this.encodedBooks);
+        try (final var input = "gzip".equals(this.compression) ? new GZIPInputStream(bytes) : (InputStream) bytes) {
+            return this.objectMapper.readValue(input, this.booksType);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.repository.JournaledBookRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable write throughput on local disk, run with many writer threads so the journal can group their fsyncs.
+ */
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+public class JournaledBookRepositoryBenchmark {
+
+    @Param({"100000", "1000000"})
+    public long snapshotEvery;
+
+    private Path directory;
+    private JournaledBookRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("books-journal-benchmark");
+        this.repository = new JournaledBookRepository(this.directory, this.snapshotEvery);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.repository.close();
+        try (final var files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(it -> it.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Book saveOne() {
+        return this.repository.saveOne(BookFixtures.book("book-", ThreadLocalRandom.current().nextInt(1_000_000)));
+    }
+}
@@ -0,0 +1,89 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.repository.IBookRepository;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Heap footprint and collector cost of a large catalog kept on the heap or off it. Once loaded, the setup prints the
+ * heap used and the head of the class histogram. Run it with the GC profiler to compare the collection time the
+ * writes cause ({@code gc.time}, {@code gc.count}):
+ * <pre>
+ * ./mvnw compile exec:exec -Pjmh -Djmh.includes=OffHeapBookRepositoryBenchmark -Djmh.args="-prof gc"
+ * </pre>
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "-XX:MaxDirectMemorySize=4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class OffHeapBookRepositoryBenchmark {
+    private static final int HISTOGRAM_LINES = 10;
+
+    @Param({"concurrent", "off-heap"})
+    public String repositoryType;
+
+    @Param({"1000000", "10000000"})
+    public int catalogSize;
+
+    private IBookRepository repository;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JMException {
+        this.repository = BookFixtures.repository(this.repositoryType);
+        this.repository.saveAll(BookFixtures.books("book-", this.catalogSize));
+        // The loaded books are dropped, only what the repository keeps is left on the heap.
+        System.gc();
+        final var heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%n%s, %d books: %d MB of heap used%n", this.repositoryType, this.catalogSize, heapUsed >> 20);
+        System.out.println(classHistogram());
+
+        // Built after the histogram, the lookup keys are not part of what the repository costs.
+        this.books = BookFixtures.books("book-", this.catalogSize);
+    }
+
+    @Benchmark
+    public Optional<Book> findOneById() {
+        return this.repository.findOneById(randomBook().getId());
+    }
+
+    /**
+     * Replaces an existing book by a new instance, the replaced one becomes garbage on the heap or in an arena.
+     */
+    @Benchmark
+    public Book saveOne() {
+        final var book = randomBook();
+        return this.repository.saveOne(new Book(book.getId(), book.getName()));
+    }
+
+    private Book randomBook() {
+        return this.books.get(ThreadLocalRandom.current().nextInt(this.catalogSize));
+    }
+
+    private static String classHistogram() throws JMException {
+        final var histogram =
+                (String) ManagementFactory
+                        .getPlatformMBeanServer()
+                        .invoke(
+                                new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                                "gcClassHistogram",
+                                new Object[]{null},
+                                new String[]{String[].class.getName()});
+        return String.join(System.lineSeparator(), histogram.lines().limit(HISTOGRAM_LINES + 2).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,80 @@
+package org.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.model.Book;
+import org.training.repository.IBookRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contended reads and writes against one shared catalog. Run it once per thread count ({@code -t 1}, {@code -t 2},
+ * {@code -t 4}, ...) to see how throughput scales with cores: a single-lock repository flattens out early, the
+ * sharded one should grow close to linearly until it runs out of cores.
+ * <p>
+ * {@code mixed} pairs three readers with one writer per group, see {@code -tg} to change the ratio.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ShardedBookRepositoryBenchmark {
+
+    @Param({"in-memory", "concurrent", "sharded"})
+    public String repositoryType;
+
+    @Param({"1000000"})
+    public int catalogSize;
+
+    private IBookRepository repository;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.repository = BookFixtures.repository(this.repositoryType);
+        this.books = BookFixtures.books("book-", this.catalogSize);
+        this.repository.saveAll(this.books);
+    }
+
+    @Benchmark
+    public Optional<Book> findOneById() {
+        return this.repository.findOneById(randomBook().getId());
+    }
+
+    /**
+     * Overwrites an existing book with itself, so the catalog keeps its size while every call takes the write path.
+     */
+    @Benchmark
+    public Book saveOne() {
+        return this.repository.saveOne(randomBook());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Optional<Book> mixedRead() {
+        return findOneById();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Book mixedWrite() {
+        return saveOne();
+    }
+
+    private Book randomBook() {
+        return this.books.get(ThreadLocalRandom.current().nextInt(this.catalogSize));
+    }
+}
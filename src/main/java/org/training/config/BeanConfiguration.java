@@ -1,20 +1,253 @@
 package org.training.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.training.controller.BookChangeBroadcaster;
+import org.training.repository.CachingBookRepository;
+import org.training.repository.ConcurrentBookRepository;
 import org.training.repository.IBookRepository;
 import org.training.repository.InMemoryBookRepository;
+import org.training.repository.IndexedBookRepository;
+import org.training.repository.JournaledBookRepository;
+import org.training.repository.MappedCatalogBookRepository;
+import org.training.repository.MeteredBookRepository;
+import org.training.repository.OffHeapBookRepository;
+import org.training.repository.ReplicatedBookRepository;
+import org.training.repository.ShardedBookRepository;
+import org.training.service.BookChangeFeed;
+import org.training.service.BookExecutor;
+import org.training.service.BookIngestService;
 import org.training.service.BookService;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Disposes;
 import javax.inject.Singleton;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Optional;
 
 @ApplicationScoped
 public class BeanConfiguration {
+    private static final Logger LOGGER = Logger.getLogger(BeanConfiguration.class);
+
+    @ConfigProperty(name = "book.repository.journal.directory", defaultValue = "data/books")
+    Path journalDirectory;
+
+    @ConfigProperty(name = "book.repository.journal.snapshot-every", defaultValue = "100000")
+    long journalSnapshotEvery;
+
+    @ConfigProperty(name = "book.repository.catalog.path", defaultValue = "data/catalog.bin")
+    Path catalogPath;
+
+    // 0 picks one shard per available processor.
+    @ConfigProperty(name = "book.repository.shards", defaultValue = "0")
+    int shardCount;
+
+    @ConfigProperty(name = "book.replication.role", defaultValue = "leader")
+    String replicationRole;
+
+    @ConfigProperty(name = "book.replication.port", defaultValue = "7400")
+    int replicationPort;
+
+    // host:port of the leader, followers only.
+    @ConfigProperty(name = "book.replication.leader")
+    Optional<String> replicationLeader;
+
+    @ConfigProperty(name = "book.replication.log-capacity", defaultValue = "100000")
+    int replicationLogCapacity;
+
+    @ConfigProperty(name = "book.repository.search-index.enabled", defaultValue = "false")
+    boolean searchIndexEnabled;
+
+    @ConfigProperty(name = "book.repository.cache.enabled", defaultValue = "false")
+    boolean cacheEnabled;
+
+    @ConfigProperty(name = "book.repository.cache.maximum-size", defaultValue = "10000")
+    long cacheMaximumSize;
+
+    @ConfigProperty(name = "book.execution.trace-pinned-threads", defaultValue = "short")
+    String tracePinnedThreads;
+
+    // 0 picks one ingest thread per available processor.
+    @ConfigProperty(name = "book.ingest.parallelism", defaultValue = "0")
+    int ingestParallelism;
+
+    @ConfigProperty(name = "book.ingest.chunk-size", defaultValue = "1000")
+    int ingestChunkSize;
+
+    // 0 keeps two chunks per ingest thread in flight.
+    @ConfigProperty(name = "book.ingest.max-chunks-in-flight", defaultValue = "0")
+    int ingestMaxChunksInFlight;
+
+    // Off, every write would otherwise pay for a feed nobody may follow.
+    @ConfigProperty(name = "book.changes.enabled", defaultValue = "false")
+    boolean changesEnabled;
+
+    @ConfigProperty(name = "book.changes.capacity", defaultValue = "65536")
+    int changesCapacity;
+
+    @ConfigProperty(name = "book.changes.poll-interval-millis", defaultValue = "50")
+    long changesPollIntervalMillis;
+
+    @ConfigProperty(name = "book.changes.stall-timeout-millis", defaultValue = "30000")
+    long changesStallTimeoutMillis;
+
+    // 0 for one per available processor.
+    @ConfigProperty(name = "book.changes.sender-threads", defaultValue = "0")
+    int changesSenderThreads;
+
+    @Singleton
+    public IBookRepository bookRepository(
+            @ConfigProperty(name = "book.repository.type", defaultValue = "in-memory") final String repositoryType,
+            final MeterRegistry meterRegistry) {
+        final var backendBookRepository = bookRepository(repositoryType);
+        if (backendBookRepository instanceof MeterBinder)
+            ((MeterBinder) backendBookRepository).bindTo(meterRegistry);
+        // The cache sits outside the metered backend, so repository timings only count the lookups it missed.
+        final IBookRepository meteredBookRepository = new MeteredBookRepository(backendBookRepository, meterRegistry);
+        // A replica applies the leader's mutations to its own copy, behind the back of an index or a cache.
+        final var replicated = backendBookRepository instanceof ReplicatedBookRepository;
+        if (replicated && (this.searchIndexEnabled || this.cacheEnabled))
+            LOGGER.warn("The search index and the cache are disabled for the replicated book repository");
+        final var indexed = this.searchIndexEnabled && !replicated && isIndexable(backendBookRepository);
+        if (this.searchIndexEnabled && !replicated && !indexed)
+            LOGGER.warn("The search index is disabled for the " + repositoryType + " book repository");
+        final var bookRepository =
+                indexed
+                        ? new IndexedBookRepository(meteredBookRepository)
+                        : meteredBookRepository;
+        return this.cacheEnabled && !replicated
+                ? new CachingBookRepository(bookRepository, this.cacheMaximumSize, meterRegistry)
+                : bookRepository;
+    }
+
+    // The mapped catalog decodes a book per read, the index would decode the whole catalog to build and each candidate
+    // again to resolve it. The off-heap repository exists to keep per-book objects off the heap, the index adds them back.
+    // The in-memory list has no lookup by id, resolving the candidates would scan it like the search does without index.
+    private static boolean isIndexable(final IBookRepository backendBookRepository) {
+        return !(backendBookRepository instanceof MappedCatalogBookRepository)
+                && !(backendBookRepository instanceof OffHeapBookRepository)
+                && !(backendBookRepository instanceof InMemoryBookRepository);
+    }
+
+    public IBookRepository bookRepository(final String repositoryType) {
+        switch (repositoryType) {
+            case "in-memory":
+                return new InMemoryBookRepository();
+            case "concurrent":
+                return new ConcurrentBookRepository();
+            case "journaled":
+                return new JournaledBookRepository(this.journalDirectory, this.journalSnapshotEvery);
+            case "mapped-catalog":
+                return new MappedCatalogBookRepository(this.catalogPath);
+            case "sharded":
+                return this.shardCount > 0
+                        ? new ShardedBookRepository(this.shardCount)
+                        : new ShardedBookRepository();
+            case "replicated":
+                return replicatedBookRepository();
+            case "off-heap":
+                return new OffHeapBookRepository();
+            default:
+                throw new IllegalArgumentException("Unknown book repository type: " + repositoryType);
+        }
+    }
+
+    private ReplicatedBookRepository replicatedBookRepository() {
+        switch (this.replicationRole) {
+            case "leader":
+                return ReplicatedBookRepository.leader(this.replicationPort, this.replicationLogCapacity);
+            case "follower":
+                final var leader =
+                        this.replicationLeader
+                                .orElseThrow(() -> new IllegalArgumentException("book.replication.leader is required for a follower"));
+                final var separator = leader.lastIndexOf(':');
+                if (separator < 0)
+                    throw new IllegalArgumentException("Replication leader is not host:port: " + leader);
+                return
+                        ReplicatedBookRepository.follower(
+                                this.replicationPort,
+                                new InetSocketAddress(leader.substring(0, separator), Integer.parseInt(leader.substring(separator + 1))),
+                                this.replicationLogCapacity
+                        );
+            default:
+                throw new IllegalArgumentException("Unknown book replication role: " + this.replicationRole);
+        }
+    }
+
+    public void closeBookRepository(@Disposes final IBookRepository bookRepository) throws IOException {
+        if (bookRepository instanceof Closeable)
+            ((Closeable) bookRepository).close();
+    }
+
+    @Singleton
+    public BookExecutor bookExecutor(
+            @ConfigProperty(name = "book.execution.mode", defaultValue = "worker") final String executionMode) {
+        return BookExecutor.create(executionMode, Infrastructure.getDefaultWorkerPool(), this.tracePinnedThreads);
+    }
+
+    public void closeBookExecutor(@Disposes final BookExecutor bookExecutor) {
+        bookExecutor.close();
+    }
+
+    @Singleton
+    public BookIngestService bookIngestService(final BookService bookService, final ObjectMapper objectMapper) {
+        final var parallelism =
+                this.ingestParallelism > 0
+                        ? this.ingestParallelism
+                        : Runtime.getRuntime().availableProcessors();
+        return
+                new BookIngestService(
+                        bookService,
+                        objectMapper,
+                        parallelism,
+                        this.ingestChunkSize,
+                        this.ingestMaxChunksInFlight > 0 ? this.ingestMaxChunksInFlight : 2 * parallelism
+                );
+    }
+
+    public void closeBookIngestService(@Disposes final BookIngestService bookIngestService) {
+        bookIngestService.close();
+    }
+
     @Singleton
-    public IBookRepository inMemoryBookRepository(){
-        return new InMemoryBookRepository();
+    public BookChangeFeed bookChangeFeed() {
+        return
+                this.changesEnabled
+                        ? new BookChangeFeed(this.changesCapacity)
+                        : BookChangeFeed.disabled();
     }
+
+    @Singleton
+    public BookChangeBroadcaster bookChangeBroadcaster(
+            final BookChangeFeed bookChangeFeed,
+            final ObjectMapper objectMapper,
+            final MeterRegistry meterRegistry) {
+        return
+                new BookChangeBroadcaster(
+                        bookChangeFeed,
+                        objectMapper,
+                        meterRegistry,
+                        this.changesPollIntervalMillis,
+                        this.changesStallTimeoutMillis,
+                        this.changesSenderThreads > 0
+                                ? this.changesSenderThreads
+                                : Runtime.getRuntime().availableProcessors()
+                );
+    }
+
+    public void closeBookChangeBroadcaster(@Disposes final BookChangeBroadcaster bookChangeBroadcaster) {
+        bookChangeBroadcaster.close();
+    }
+
     @Singleton
-    public BookService bookService(IBookRepository bookRepository){
-        return new BookService(bookRepository) ;
+    public BookService bookService(IBookRepository bookRepository, MeterRegistry meterRegistry, BookChangeFeed bookChangeFeed){
+        return new BookService(bookRepository, meterRegistry, bookChangeFeed) ;
     }
 }
@@ -0,0 +1,68 @@
+package org.training.config;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.runtime.VertxHttpRecorder;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.util.Objects;
+
+/**
+ * Holds every request body but the streaming import's to {@code book.http.max-body-size} bytes.
+ * <p>
+ * Vert.x refuses bodies over {@code quarkus.http.limits.max-body-size} before a route is picked, so that limit is the
+ * one of the streaming import, which reads its body incrementally. This route runs right after that check, before
+ * RESTEasy reads anything, and rejects the other requests the same way: a declared length over the limit is answered
+ * 413 and the connection closed, so a client still sending is not left waiting, and a chunked body is cut off by the
+ * container once it has read past the limit.
+ */
+@ApplicationScoped
+public class BookBodyLimitRoute {
+    static final String STREAMING_IMPORT_PATH = "books/savebooks/stream";
+    // After the global limit check of Vert.x, which is order -2, before the RESTEasy route.
+    private static final int ORDER = -1;
+
+    @ConfigProperty(name = "book.http.max-body-size", defaultValue = "10240K")
+    MemorySize maxBodySize;
+
+    void limitBodies(@Observes final Router router) {
+        final long limit = this.maxBodySize.asLongValue();
+        router.route().order(ORDER).handler(context -> limit(context, limit));
+    }
+
+    private static void limit(final RoutingContext context, final long limit) {
+        if (isStreamingImport(context.normalizedPath())) {
+            context.next();
+            return;
+        }
+
+        final var length = context.request().getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (Objects.isNull(length)) {
+            context.put(VertxHttpRecorder.MAX_REQUEST_SIZE_KEY, limit);
+            context.next();
+        } else if (Long.parseLong(length) > limit) {
+            final var response = context.response();
+            response.headers().add(HttpHeaders.CONNECTION, HttpHeaders.CLOSE);
+            response.headers().add("error", "Request body exceeds " + limit + " bytes");
+            response.setStatusCode(413);
+            response.endHandler(it -> context.request().connection().close());
+            response.end();
+        } else {
+            context.next();
+        }
+    }
+
+    static boolean isStreamingImport(final String path) {
+        var start = 0;
+        var end = path.length();
+        while (start < end && path.charAt(start) == '/')
+            start++;
+        while (end > start && path.charAt(end - 1) == '/')
+            end--;
+        return path.substring(start, end).equals(STREAMING_IMPORT_PATH);
+    }
+}
@@ -0,0 +1,166 @@
+package org.training.config;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import javax.inject.Singleton;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips the responses whose body outgrows {@code book.http.compression.threshold} bytes, for clients accepting it.
+ * <p>
+ * The body is held back until it reaches the threshold, smaller ones go out as they are. Past it the
+ * {@code Content-Encoding} header is set before the first byte is sent and the rest is compressed as it is written,
+ * so streamed bodies stay streamed.
+ */
+@Provider
+@Singleton
+public class BookCompressionInterceptor implements WriterInterceptor {
+    private static final String GZIP = "gzip";
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+    private final boolean enabled;
+    private final int threshold;
+
+    @Context
+    HttpHeaders requestHeaders;
+
+    // Read once here, a @ConfigProperty field of a JAX-RS provider may be injected after the provider is in use.
+    public BookCompressionInterceptor() {
+        final var config = ConfigProvider.getConfig();
+        this.enabled = config.getOptionalValue("book.http.compression.enabled", Boolean.class).orElse(true);
+        this.threshold = config.getOptionalValue("book.http.compression.threshold", Integer.class).orElse(1024);
+    }
+
+    @Override
+    public void aroundWriteTo(final WriterInterceptorContext context) throws IOException {
+        // Each server-sent event is written on its own, compressing them one by one would only add the gzip overhead.
+        if (!this.enabled
+                || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                || MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(context.getMediaType())) {
+            context.proceed();
+            return;
+        }
+
+        context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(this.requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            context.proceed();
+            return;
+        }
+
+        final var output = new ThresholdGzipOutputStream(context.getOutputStream(), context.getHeaders(), this.threshold);
+        context.setOutputStream(output);
+        context.proceed();
+        output.finish();
+    }
+
+    // An explicit gzip entry wins over the * wildcard, a zero quality refuses the coding.
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (Objects.isNull(acceptEncoding))
+            return false;
+
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (final var coding : acceptEncoding.split(",")) {
+            final var parameters = coding.split(";");
+            final var name = parameters[0].trim();
+            var quality = 1.0;
+            for (int i = 1; i < parameters.length; i++) {
+                final var parameter = parameters[i].trim();
+                if (parameter.startsWith("q="))
+                    quality = parseQuality(parameter.substring(2));
+            }
+            if (GZIP.equalsIgnoreCase(name))
+                gzipQuality = quality;
+            else if ("*".equals(name))
+                wildcardQuality = quality;
+        }
+        final var quality = Objects.nonNull(gzipQuality) ? gzipQuality : wildcardQuality;
+        return Objects.nonNull(quality) && quality > 0;
+    }
+
+    private static double parseQuality(final String quality) {
+        try {
+            return Double.parseDouble(quality);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class ThresholdGzipOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private final int threshold;
+        // Holds the body until it passes the threshold, dropped once compressing.
+        private ByteArrayOutputStream pending;
+        private GZIPOutputStream gzip;
+        private boolean finished;
+
+        private ThresholdGzipOutputStream(final OutputStream target, final MultivaluedMap<String, Object> headers, final int threshold) {
+            this.target = target;
+            this.headers = headers;
+            this.threshold = threshold;
+            this.pending = new ByteArrayOutputStream(Math.max(1, Math.min(threshold + 1, GZIP_BUFFER_SIZE)));
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (Objects.nonNull(this.gzip)) {
+                this.gzip.write(bytes, offset, length);
+                return;
+            }
+            this.pending.write(bytes, offset, length);
+            if (this.pending.size() <= this.threshold)
+                return;
+
+            // Nothing reached the client yet, the headers can still change.
+            this.headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+            // Sync flush, so a streamed body flushed by its writer reaches the client instead of waiting in the deflater.
+            this.gzip = new GZIPOutputStream(this.target, GZIP_BUFFER_SIZE, true);
+            this.pending.writeTo(this.gzip);
+            this.pending = null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Below the threshold the body is held back, flushing would commit the headers.
+            if (Objects.nonNull(this.gzip))
+                this.gzip.flush();
+        }
+
+        // Writers closing their stream, like a Jackson generator does, end the body as they would without compression:
+        // a chunked response is only terminated once the target is closed.
+        @Override
+        public void close() throws IOException {
+            finish();
+            this.target.close();
+        }
+
+        private void finish() throws IOException {
+            if (this.finished)
+                return;
+            this.finished = true;
+            if (Objects.nonNull(this.gzip))
+                this.gzip.finish();
+            else
+                this.pending.writeTo(this.target);
+            this.target.flush();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package org.training.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.training.controller.BookController;
+import org.training.model.Book;
+import org.training.service.BookChange;
+import org.training.service.BookService;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Hand-written JSON mapping of the book payloads, producing the same documents as the Lombok getters did.
+ * <p>
+ * Jackson otherwise discovers the properties of every type through reflection on first use, which costs startup and
+ * first-request time, and in a native image it only works for the classes registered for reflection.
+ */
+public final class BookJsonModule extends SimpleModule {
+
+    public BookJsonModule() {
+        super("BookJsonModule");
+        addSerializer(Book.class, new BookSerializer());
+        addDeserializer(Book.class, new BookDeserializer());
+        addSerializer(BookService.BooksPage.class, new BooksPageSerializer());
+        addSerializer(BookService.BooksRecord.class, new BooksRecordSerializer());
+        addSerializer(BookController.ViewBooksRecord.class, new ViewBooksRecordSerializer());
+        addSerializer(BookController.ViewBooksIngestRecord.class, new ViewBooksIngestRecordSerializer());
+        addSerializer(BookController.ViewBooksLookupRecord.class, new ViewBooksLookupRecordSerializer());
+        addSerializer(BookController.ViewBooksDeletionRecord.class, new ViewBooksDeletionRecordSerializer());
+        addSerializer(BookChange.class, new BookChangeSerializer());
+    }
+
+    private static void writeBook(final JsonGenerator generator, final Book book) throws IOException {
+        if (Objects.isNull(book)) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("id", book.getId());
+        generator.writeStringField("name", book.getName());
+        generator.writeEndObject();
+    }
+
+    private static void writeBooks(final JsonGenerator generator, final String field, final Collection<Book> books) throws IOException {
+        generator.writeFieldName(field);
+        if (Objects.isNull(books)) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (final var book : books) {
+            writeBook(generator, book);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeUnsavedBooks(final JsonGenerator generator, final Collection<BookController.ViewBooksRecord.UnsavedBooks> unsavedBooks)
+            throws IOException {
+        generator.writeFieldName("unsavedBooks");
+        if (Objects.isNull(unsavedBooks)) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (final var unsavedBook : unsavedBooks) {
+            generator.writeStartObject();
+            generator.writeFieldName("book");
+            writeBook(generator, unsavedBook.getBook());
+            generator.writeStringField("reason", unsavedBook.getReason());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeUnfoundBooks(
+            final JsonGenerator generator,
+            final String field,
+            final Collection<BookController.ViewBooksLookupRecord.UnfoundBooks> unfoundBooks) throws IOException {
+        generator.writeFieldName(field);
+        if (Objects.isNull(unfoundBooks)) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (final var unfoundBook : unfoundBooks) {
+            generator.writeStartObject();
+            generator.writeStringField("id", unfoundBook.getId());
+            generator.writeStringField("reason", unfoundBook.getReason());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static final class BookSerializer extends StdSerializer<Book> {
+        private BookSerializer() {
+            super(Book.class);
+        }
+
+        @Override
+        public void serialize(final Book book, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+            writeBook(generator, book);
+        }
+    }
+
+    private static final class BookDeserializer extends StdDeserializer<Book> {
+        private BookDeserializer() {
+            super(Book.class);
+        }
+
+        @Override
+        public Book deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            var token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT)
+                token = parser.nextToken();
+            if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT)
+                return (Book) context.handleUnexpectedToken(Book.class, parser);
+
+            String id = null;
+            String name = null;
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                final var field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id":
+                        id = readString(parser, context);
+                        break;
+                    case "name":
+                        name = readString(parser, context);
+                        break;
+                    default:
+                        // Unknown properties are ignored, like the default Quarkus ObjectMapper does.
+                        parser.skipChildren();
+                }
+            }
+            return new Book(id, name);
+        }
+
+        private static String readString(final JsonParser parser, final DeserializationContext context) throws IOException {
+            final var token = parser.currentToken();
+            if (token == JsonToken.VALUE_NULL)
+                return null;
+            if (token.isScalarValue())
+                return parser.getValueAsString();
+            return (String) context.handleUnexpectedToken(String.class, parser);
+        }
+    }
+
+    private static final class BooksPageSerializer extends StdSerializer<BookService.BooksPage> {
+        private BooksPageSerializer() {
+            super(BookService.BooksPage.class);
+        }
+
+        @Override
+        public void serialize(final BookService.BooksPage booksPage, final JsonGenerator generator, final SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            writeBooks(generator, "books", booksPage.getBooks());
+            generator.writeStringField("nextCursor", booksPage.getNextCursor());
+            generator.writeEndObject();
+        }
+    }
+
+    // The reason is written as its message, the exception itself carries nothing a client can use.
+    private static final class BooksRecordSerializer extends StdSerializer<BookService.BooksRecord> {
+        private BooksRecordSerializer() {
+            super(BookService.BooksRecord.class);
+        }
+
+        @Override
+        public void serialize(final BookService.BooksRecord booksRecord, final JsonGenerator generator, final SerializerProvider provider)
+                throws IOException {
+            final var viewBooksRecord = BookController.ViewBooksRecord.fromBooksRecord2ViewBooksRecord(booksRecord);
+            generator.writeStartObject();
+            writeBooks(generator, "savedBooks", viewBooksRecord.getSavedBooks());
+            writeUnsavedBooks(generator, viewBooksRecord.getUnsavedBooks());
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class ViewBooksRecordSerializer extends StdSerializer<BookController.ViewBooksRecord> {
+        private ViewBooksRecordSerializer() {
+            super(BookController.ViewBooksRecord.class);
+        }
+
+        @Override
+        public void serialize(final BookController.ViewBooksRecord viewBooksRecord, final JsonGenerator generator, final SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            writeBooks(generator, "savedBooks", viewBooksRecord.getSavedBooks());
+            writeUnsavedBooks(generator, viewBooksRecord.getUnsavedBooks());
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class ViewBooksIngestRecordSerializer extends StdSerializer<BookController.ViewBooksIngestRecord> {
+        private ViewBooksIngestRecordSerializer() {
+            super(BookController.ViewBooksIngestRecord.class);
+        }
+
+        @Override
+        public void serialize(
+                final BookController.ViewBooksIngestRecord viewBooksIngestRecord,
+                final JsonGenerator generator,
+                final SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("savedCount", viewBooksIngestRecord.getSavedCount());
+            generator.writeNumberField("unsavedCount", viewBooksIngestRecord.getUnsavedCount());
+            writeUnsavedBooks(generator, viewBooksIngestRecord.getUnsavedBooks());
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class ViewBooksLookupRecordSerializer extends StdSerializer<BookController.ViewBooksLookupRecord> {
+        private ViewBooksLookupRecordSerializer() {
+            super(BookController.ViewBooksLookupRecord.class);
+        }
+
+        @Override
+        public void serialize(
+                final BookController.ViewBooksLookupRecord viewBooksLookupRecord,
+                final JsonGenerator generator,
+                final SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            writeBooks(generator, "foundBooks", viewBooksLookupRecord.getFoundBooks());
+            writeUnfoundBooks(generator, "unfoundBooks", viewBooksLookupRecord.getUnfoundBooks());
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class ViewBooksDeletionRecordSerializer extends StdSerializer<BookController.ViewBooksDeletionRecord> {
+        private ViewBooksDeletionRecordSerializer() {
+            super(BookController.ViewBooksDeletionRecord.class);
+        }
+
+        @Override
+        public void serialize(
+                final BookController.ViewBooksDeletionRecord viewBooksDeletionRecord,
+                final JsonGenerator generator,
+                final SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            writeBooks(generator, "deletedBooks", viewBooksDeletionRecord.getDeletedBooks());
+            writeUnfoundBooks(generator, "undeletedBooks", viewBooksDeletionRecord.getUndeletedBooks());
+            generator.writeEndObject();
+        }
+    }
+
+    // Written on every event of /books/changes, once per subscriber.
+    private static final class BookChangeSerializer extends StdSerializer<BookChange> {
+        private BookChangeSerializer() {
+            super(BookChange.class);
+        }
+
+        @Override
+        public void serialize(final BookChange bookChange, final JsonGenerator generator, final SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("sequence", bookChange.getSequence());
+            generator.writeFieldName("mutation");
+            final var mutation = bookChange.getMutation();
+            if (Objects.isNull(mutation)) {
+                generator.writeNull();
+            } else {
+                generator.writeStartObject();
+                generator.writeStringField("type", Objects.isNull(mutation.getType()) ? null : mutation.getType().name());
+                generator.writeStringField("id", mutation.getId());
+                generator.writeStringField("name", mutation.getName());
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.training.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+
+import javax.inject.Singleton;
+
+@Singleton
+public class BookObjectMapperCustomizer implements ObjectMapperCustomizer {
+
+    @Override
+    public void customize(final ObjectMapper objectMapper) {
+        objectMapper.registerModule(new BookJsonModule());
+    }
+}
@@ -0,0 +1,89 @@
+package org.training.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import org.training.controller.BookController;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Singleton;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes {@value BookController#APPLICATION_SMILE}, the binary encoding of the JSON data model.
+ * <p>
+ * The mapper is set up by the same customizers as the JSON one, so both encode the same documents and
+ * {@link BookJsonModule} serves both formats.
+ */
+@Provider
+@Singleton
+@Consumes(BookController.APPLICATION_SMILE)
+@Produces(BookController.APPLICATION_SMILE)
+public class BookSmileProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    private final ObjectMapper smileMapper;
+
+    public BookSmileProvider(final Instance<ObjectMapperCustomizer> objectMapperCustomizers) {
+        this.smileMapper = new SmileMapper();
+        // Same default as the Quarkus JSON mapper.
+        this.smileMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapperCustomizers.forEach(it -> it.customize(this.smileMapper));
+        // The entity streams belong to the container.
+        this.smileMapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+        this.smileMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    }
+
+    @Override
+    public boolean isReadable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return !InputStream.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object readFrom(
+            final Class<Object> type,
+            final Type genericType,
+            final Annotation[] annotations,
+            final MediaType mediaType,
+            final MultivaluedMap<String, String> httpHeaders,
+            final InputStream entityStream) throws IOException {
+        try {
+            return this.smileMapper.readValue(entityStream, this.smileMapper.constructType(genericType));
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST).header("error", e.getOriginalMessage()).build(), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return !StreamingOutput.class.isAssignableFrom(type) && !InputStream.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(
+            final Object value,
+            final Class<?> type,
+            final Type genericType,
+            final Annotation[] annotations,
+            final MediaType mediaType,
+            final MultivaluedMap<String, Object> httpHeaders,
+            final OutputStream entityStream) throws IOException {
+        this.smileMapper.writeValue(entityStream, value);
+    }
+}
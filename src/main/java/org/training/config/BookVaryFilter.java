@@ -0,0 +1,48 @@
+package org.training.config;
+
+import javax.inject.Singleton;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * Adds {@code Vary: Accept} to the responses of resource methods producing several media types, so a cache never
+ * answers a Smile client with the JSON body it stored for another one.
+ */
+@Provider
+@Singleton
+public class BookVaryFilter implements ContainerResponseFilter {
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final var method = this.resourceInfo.getResourceMethod();
+        if (Objects.nonNull(method) && isNegotiated(method))
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    // A method's own @Produces replaces the one of its class.
+    static boolean isNegotiated(final Method method) {
+        final var produces =
+                method.isAnnotationPresent(Produces.class)
+                        ? method.getAnnotation(Produces.class)
+                        : method.getDeclaringClass().getAnnotation(Produces.class);
+        if (Objects.isNull(produces))
+            return false;
+
+        var mediaTypes = 0;
+        for (final var value : produces.value()) {
+            mediaTypes += value.split(",").length;
+        }
+        return mediaTypes > 1;
+    }
+}
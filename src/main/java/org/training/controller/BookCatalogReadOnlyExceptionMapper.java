@@ -0,0 +1,23 @@
+package org.training.controller;
+
+import org.training.repository.BookCatalogReadOnlyException;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Answers a write refused by a read-only repository with 409 Conflict, the request is valid but the catalog cannot
+ * take it, and names the replication leader in a {@code leader} header when there is one.
+ */
+@Provider
+public class BookCatalogReadOnlyExceptionMapper implements ExceptionMapper<BookCatalogReadOnlyException> {
+    public static final String LEADER_HEADER = "leader";
+
+    @Override
+    public Response toResponse(final BookCatalogReadOnlyException exception) {
+        final var response = Response.status(Response.Status.CONFLICT).header("error", exception.getMessage());
+        exception.leaderAddress().ifPresent(it -> response.header(LEADER_HEADER, it));
+        return response.build();
+    }
+}
@@ -0,0 +1,283 @@
+package org.training.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jboss.logging.Logger;
+import org.training.service.BookChange;
+import org.training.service.BookChangeFeed;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the {@link BookChangeFeed} to the server-sent event subscribers of {@code /books/changes}.
+ * <p>
+ * One thread polls the feed and hands each subscriber with new changes to a bounded pool of sender threads, which
+ * issue the writes without waiting for them and advance the subscriber's cursor as they complete. A subscriber is
+ * given its next batch only once the previous one is written, so a slow connection holds back its own cursor and
+ * nobody else's, and the feed is the only buffer. A subscriber whose cursor falls out of the feed is sent a
+ * {@code reset} event and disconnected, one whose write stays pending past the stall timeout is disconnected, both
+ * reload the catalog before following it again.
+ */
+public final class BookChangeBroadcaster implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(BookChangeBroadcaster.class);
+    private static final int MAX_BATCH = 256;
+    // Idle connections are sent a comment this often, so proxies keep them open and dead ones are noticed.
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final BookChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+    private final long stallTimeoutNanos;
+    private final Set<Subscriber> subscribers;
+    private final ScheduledExecutorService poller;
+    // Reads the feed and issues the writes, a congested connection leaves its write pending rather than a thread blocked.
+    private final ThreadPoolExecutor senders;
+    private final Counter overrunEvictions;
+    private final Counter stallEvictions;
+
+    public BookChangeBroadcaster(
+            final BookChangeFeed changeFeed,
+            final ObjectMapper objectMapper,
+            final MeterRegistry meterRegistry,
+            final long pollIntervalMillis,
+            final long stallTimeoutMillis,
+            final int senderThreads) {
+        if (senderThreads <= 0)
+            throw new IllegalArgumentException("Sender threads must be positive: " + senderThreads);
+
+        this.changeFeed = changeFeed;
+        this.objectMapper = objectMapper;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+        this.subscribers = ConcurrentHashMap.newKeySet();
+        this.poller = Executors.newSingleThreadScheduledExecutor(it -> daemon(it, "book-changes-poller"));
+        this.senders =
+                new ThreadPoolExecutor(
+                        senderThreads,
+                        senderThreads,
+                        1,
+                        TimeUnit.MINUTES,
+                        // Holds at most one task per subscriber, a subscriber is never dispatched twice.
+                        new LinkedBlockingQueue<>(),
+                        it -> daemon(it, "book-changes-sender")
+                );
+        this.senders.allowCoreThreadTimeOut(true);
+        Gauge
+                .builder("book.changes.subscribers", this.subscribers, Set::size)
+                .description("Subscribers following the change feed")
+                .register(meterRegistry);
+        this.overrunEvictions = evictions(meterRegistry, "overrun");
+        this.stallEvictions = evictions(meterRegistry, "stalled");
+        // A disabled feed never has anything to send.
+        if (changeFeed.isEnabled())
+            this.poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Follows the changes published after {@code sequence}.
+     */
+    public void subscribe(final SseEventSink sink, final Sse sse, final long sequence) {
+        final var subscriber = new Subscriber(sink, sse, sequence);
+        this.subscribers.add(subscriber);
+        // Sent right away, so the client sees the connection open before the first change.
+        dispatch(subscriber, System.nanoTime());
+    }
+
+    @Override
+    public void close() {
+        this.poller.shutdownNow();
+        this.senders.shutdownNow();
+        for (final var subscriber : this.subscribers) {
+            subscriber.sink.close();
+        }
+        this.subscribers.clear();
+    }
+
+    private void poll() {
+        try {
+            final var lastSequence = this.changeFeed.lastSequence();
+            final var now = System.nanoTime();
+            for (final var subscriber : this.subscribers) {
+                if (subscriber.sink.isClosed()) {
+                    this.subscribers.remove(subscriber);
+                } else if (subscriber.sending.get()) {
+                    if (now - subscriber.sendingSince > this.stallTimeoutNanos)
+                        evict(subscriber, this.stallEvictions);
+                } else if (subscriber.sequence.get() < lastSequence || now - subscriber.sentAt > HEARTBEAT_NANOS) {
+                    dispatch(subscriber, now);
+                }
+            }
+        } catch (RuntimeException e) {
+            // A failure escaping would cancel the schedule and silence the feed for everyone.
+            LOGGER.error("Unable to poll the book change feed", e);
+        }
+    }
+
+    private void dispatch(final Subscriber subscriber, final long now) {
+        if (!subscriber.sending.compareAndSet(false, true))
+            return;
+        subscriber.sendingSince = now;
+        sendNext(subscriber);
+    }
+
+    private void sendNext(final Subscriber subscriber) {
+        try {
+            this.senders.execute(() -> {
+                try {
+                    send(subscriber);
+                } catch (RuntimeException e) {
+                    // The client went away, or the connection broke mid-write.
+                    drop(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closing, the subscriber is closed with the others.
+            subscriber.sending.set(false);
+        }
+    }
+
+    /**
+     * Writes the next batch, each event once the one before it is written. The batch written hands the subscriber back
+     * to a sender for the next one, so a subscriber that has fallen behind catches up at connection speed.
+     */
+    private void send(final Subscriber subscriber) {
+        final var changes = this.changeFeed.changesAfter(subscriber.sequence.get(), MAX_BATCH);
+        if (Objects.isNull(changes)) {
+            reset(subscriber);
+            return;
+        }
+        if (changes.isEmpty()) {
+            if (!subscriber.opened || System.nanoTime() - subscriber.sentAt > HEARTBEAT_NANOS)
+                whenWritten(subscriber, write(subscriber, subscriber.sse.newEventBuilder().comment("").build()), () -> subscriber.sending.set(false));
+            else
+                subscriber.sending.set(false);
+            return;
+        }
+
+        CompletionStage<?> written = CompletableFuture.completedFuture(null);
+        for (final var change : changes) {
+            final var event = event(subscriber.sse, change);
+            // Issued from a sender, never from the container thread that completed the previous write.
+            written = written
+                    .thenComposeAsync(it -> write(subscriber, event), this.senders)
+                    .thenRun(() -> subscriber.sequence.set(change.getSequence()));
+        }
+        whenWritten(subscriber, written, () -> sendNext(subscriber));
+    }
+
+    private void reset(final Subscriber subscriber) {
+        this.overrunEvictions.increment();
+        this.subscribers.remove(subscriber);
+        write(subscriber, subscriber.sse.newEventBuilder().name("reset").data(Long.toString(this.changeFeed.lastSequence())).build())
+                .whenComplete((it, failure) -> subscriber.sink.close());
+    }
+
+    // A write that completes counts as progress, only one that stays pending makes the subscriber stalled.
+    private static CompletionStage<?> write(final Subscriber subscriber, final OutboundSseEvent event) {
+        return
+                subscriber
+                        .sink
+                        .send(event)
+                        .thenRun(() -> {
+                            subscriber.opened = true;
+                            subscriber.sentAt = System.nanoTime();
+                            subscriber.sendingSince = subscriber.sentAt;
+                        });
+    }
+
+    // Completions run on whichever thread finished the write, the rest goes back to a sender.
+    private void whenWritten(final Subscriber subscriber, final CompletionStage<?> written, final Runnable next) {
+        written.whenComplete((it, failure) -> {
+            if (Objects.isNull(failure))
+                next.run();
+            else
+                dropLater(subscriber);
+        });
+    }
+
+    private void dropLater(final Subscriber subscriber) {
+        try {
+            this.senders.execute(() -> drop(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Closing, the subscriber is closed with the others.
+        }
+    }
+
+    private void drop(final Subscriber subscriber) {
+        this.subscribers.remove(subscriber);
+        subscriber.sink.close();
+        subscriber.sending.set(false);
+    }
+
+    private OutboundSseEvent event(final Sse sse, final BookChange change) {
+        try {
+            return
+                    sse
+                            .newEventBuilder()
+                            .id(Long.toString(change.getSequence()))
+                            .name("change")
+                            .data(this.objectMapper.writeValueAsString(change))
+                            .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Closed on a sender, the pending write fails once the container closes the connection.
+    private void evict(final Subscriber subscriber, final Counter evictions) {
+        if (!this.subscribers.remove(subscriber))
+            return;
+        evictions.increment();
+        dropLater(subscriber);
+    }
+
+    private static Counter evictions(final MeterRegistry meterRegistry, final String reason) {
+        return
+                Counter
+                        .builder("book.changes.evictions")
+                        .description("Subscribers disconnected for falling behind the change feed")
+                        .tag("reason", reason)
+                        .register(meterRegistry);
+    }
+
+    private static Thread daemon(final Runnable runnable, final String name) {
+        final var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Subscriber {
+        private final SseEventSink sink;
+        private final Sse sse;
+        // Last sequence written to the client.
+        private final AtomicLong sequence;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long sendingSince;
+        private volatile boolean opened;
+        private volatile long sentAt;
+
+        private Subscriber(final SseEventSink sink, final Sse sse, final long sequence) {
+            this.sink = sink;
+            this.sse = sse;
+            this.sequence = new AtomicLong(sequence);
+        }
+    }
+}
@@ -1,109 +1,413 @@
 package org.training.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import org.training.model.Book;
+import org.training.service.BookChangeFeed;
+import org.training.service.BookExecutor;
+import org.training.service.BookIngestService;
 import org.training.service.BookService;
 
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
 @Path("/books")
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BookController.APPLICATION_SMILE})
 public class BookController {
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    // Binary JSON for service-to-service calls, negotiated through Accept and Content-Type.
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    private static final SerializedString NDJSON_SEPARATOR = new SerializedString("\n");
+    private static final List<Variant> VARIANTS =
+            Variant
+                    .mediaTypes(MediaType.APPLICATION_JSON_TYPE, MediaType.valueOf(APPLICATION_SMILE))
+                    .build();
+
     private final BookService bookService;
+    private final BookIngestService bookIngestService;
+    private final ObjectMapper objectMapper;
+    private final BookChangeFeed bookChangeFeed;
+    private final BookChangeBroadcaster bookChangeBroadcaster;
+    private final BookExecutor bookExecutor;
 
-    public BookController(BookService bookService) {
+    // The request/response calls run through the executor, on a virtual thread of their own in virtual mode.
+    public BookController(
+            BookService bookService,
+            BookIngestService bookIngestService,
+            ObjectMapper objectMapper,
+            BookChangeFeed bookChangeFeed,
+            BookChangeBroadcaster bookChangeBroadcaster,
+            BookExecutor bookExecutor) {
         this.bookService = bookService;
+        this.bookIngestService = bookIngestService;
+        this.objectMapper = objectMapper;
+        this.bookChangeFeed = bookChangeFeed;
+        this.bookChangeBroadcaster = bookChangeBroadcaster;
+        this.bookExecutor = bookExecutor;
     }
 
     @GET()
     @Path("/{id}")
-    public Response getBook(@PathParam("id") final String id) {
+    public CompletionStage<Response> getBook(@PathParam("id") final String id, @Context final Request request) {
+        return
+                bookExecutor.call(() ->
+                        bookService
+                                .findOneById(id)
+                                .fold(
+                                        it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
+                                        it -> {
+                                            final var mediaType = mediaTypeOf(request);
+                                            final var entityTag = entityTagOf(hashOf(it), mediaType);
+                                            return
+                                                    notModified(request, entityTag)
+                                                            .orElseGet(() -> Response.ok(it, mediaType).tag(entityTag).build());
+                                        }
+                                )
+                );
+    }
+
+    public CompletionStage<Response> getBook(final String id) {
+        return getBook(id, null);
+    }
+
+    @GET
+    public CompletionStage<Response> getBooks(@QueryParam("limit") final Integer limit, @QueryParam("cursor") final String cursor, @Context final Request request) {
+        return bookExecutor.call(() -> findBooks(limit, cursor, request));
+    }
+
+    public CompletionStage<Response> getBooks() {
+        return getBooks(null, null, null);
+    }
+
+    private Response findBooks(final Integer limit, final String cursor, final Request request) {
+        // Read before the books, so the tag is never newer than the content it is sent with.
+        final var catalogVersion = bookService.catalogVersion();
+        final var mediaType = mediaTypeOf(request);
+        final var entityTag = entityTagOf(catalogVersion.tag(), mediaType);
+        final var lastModified = new Date(catalogVersion.getLastModified());
+        if (Objects.isNull(limit))
+            return
+                    notModified(request, entityTag)
+                            .orElseGet(() ->
+                                    Response
+                                            .ok(
+                                                    bookService
+                                                            .findAll(),
+                                                    mediaType
+                                            )
+                                            .tag(entityTag)
+                                            .lastModified(lastModified)
+                                            .build()
+                            );
+
         return
                 bookService
-                        .findOneById(id)
+                        .findPage(cursor, limit)
                         .fold(
                                 it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
-                                it -> Response.ok(it).build()
+                                it ->
+                                        notModified(request, entityTag)
+                                                .orElseGet(() -> Response.ok(it, mediaType).tag(entityTag).lastModified(lastModified).build())
                         );
     }
 
     @GET
-    public Response getBooks() {
+    @Path("/search")
+    public CompletionStage<Response> searchBooks(@QueryParam("q") final String query, @QueryParam("limit") @DefaultValue("20") final int limit) {
+        return
+                bookExecutor.call(() ->
+                        bookService
+                                .search(query, limit)
+                                .fold(
+                                        it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
+                                        it -> Response.ok(it).build()
+                                )
+                );
+    }
+
+    @GET
+    @Path("/stream")
+    @Produces(APPLICATION_NDJSON)
+    public Response streamBooks() {
+        final StreamingOutput books = output -> {
+            try (final var generator = this.objectMapper.getFactory().createGenerator(output)) {
+                generator.setRootValueSeparator(NDJSON_SEPARATOR);
+                // One snapshot: every findPage call scans the whole catalog again, so paging through it is quadratic.
+                for (final var book : bookService.findAll()) {
+                    generator.writeObject(book);
+                }
+                generator.writeRaw('\n');
+            }
+        };
         return
                 Response
-                        .ok(
-                                bookService
-                                        .findAll()
-                        )
+                        .ok(books)
                         .build();
     }
 
+    /**
+     * Server-sent events of the catalog changes published after the {@code since} sequence, or after the
+     * {@code Last-Event-ID} of a reconnecting client, from now on without either. Each {@code change} event carries its
+     * sequence as id, a {@code reset} event means the changes asked for are gone and the catalog has to be reloaded.
+     * Answers 404 when the feed is disabled.
+     */
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamChanges(
+            @QueryParam("since") final Long since,
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) final String lastEventId,
+            @Context final SseEventSink sseEventSink,
+            @Context final Sse sse) {
+        if (!bookChangeFeed.isEnabled())
+            throw new NotFoundException(
+                    Response.status(Response.Status.NOT_FOUND).header("error", "Change feed is disabled").build()
+            );
+
+        final long sequence =
+                Optional
+                        .ofNullable(since)
+                        .or(() -> sequenceOf(lastEventId))
+                        .orElseGet(bookChangeFeed::lastSequence);
+        bookChangeBroadcaster.subscribe(sseEventSink, sse, sequence);
+    }
+
+    // A malformed id resumes from before every sequence, the client is sent a reset instead of silently missing changes.
+    static Optional<Long> sequenceOf(final String lastEventId) {
+        if (Objects.isNull(lastEventId))
+            return Optional.empty();
+        try {
+            return Optional.of(Long.parseLong(lastEventId.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.of(Long.MIN_VALUE);
+        }
+    }
+
     @POST
     @Path("/save")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response saveBook(final Book book) {
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_SMILE})
+    public CompletionStage<Response> saveBook(final Book book) {
         return
-                bookService
-                        .saveOne(book)
-                        .fold(
-                                it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
-                                it -> Response.ok(it).build()
-                        );
+                bookExecutor.call(() ->
+                        bookService
+                                .saveOne(book)
+                                .fold(
+                                        it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
+                                        it -> Response.ok(it).build()
+                                )
+                );
     }
 
     @POST
     @Path("savebooks")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response saveBooks(final Collection<Book> books) {
-        final var savedBooks =
-                ViewBooksRecord
-                        .fromBooksRecord2ViewBooksRecord(
-                                bookService.saveAll(books)
-                        );
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_SMILE})
+    public CompletionStage<Response> saveBooks(final Collection<Book> books) {
         return
-                Response
-                        .ok(savedBooks)
-                        .build();
+                bookExecutor.call(() ->
+                        Response
+                                .ok(
+                                        ViewBooksRecord
+                                                .fromBooksRecord2ViewBooksRecord(
+                                                        bookService.saveAll(books)
+                                                )
+                                )
+                                .build()
+                );
+    }
 
+    /**
+     * Books for a JSON array of ids, fetched in one repository lookup. Ids that are blank or unknown are answered with
+     * their reason instead of failing the whole request.
+     */
+    @POST
+    @Path("/batch-get")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_SMILE})
+    public CompletionStage<Response> getBooksByIds(final Collection<String> ids) {
+        return
+                bookExecutor.call(() ->
+                        Response
+                                .ok(
+                                        ViewBooksLookupRecord
+                                                .fromBooksLookupRecord2ViewBooksLookupRecord(
+                                                        bookService.findAllByIds(ids)
+                                                )
+                                )
+                                .build()
+                );
+    }
+
+    /**
+     * Same books as {@link #saveBooks}, as a JSON array or newline-delimited, read and saved in chunks instead of
+     * being materialized first. Answers counts and the first rejected books, not every saved one.
+     */
+    @POST
+    @Path("savebooks/stream")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    public Response saveBooksStreaming(final InputStream books) {
+        try {
+            return
+                    Response
+                            .ok(
+                                    ViewBooksIngestRecord
+                                            .fromBooksIngestRecord2ViewBooksIngestRecord(
+                                                    bookIngestService.ingest(books)
+                                            )
+                            )
+                            .build();
+        } catch (JsonProcessingException e) {
+            return Response.status(Response.Status.BAD_REQUEST).header("error", e.getOriginalMessage()).build();
+        } catch (IOException e) {
+            return Response.status(Response.Status.BAD_REQUEST).header("error", e.getMessage()).build();
+        }
     }
 
     @POST
     @Path("/update")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response updateBook(final Book book) {
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_SMILE})
+    public CompletionStage<Response> updateBook(final Book book) {
         return
-                bookService
-                        .updateOne(book)
-                        .fold(
-                                it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
-                                it -> Response.ok(it).build()
-                        );
+                bookExecutor.call(() ->
+                        bookService
+                                .updateOne(book)
+                                .fold(
+                                        it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
+                                        it -> Response.ok(it).build()
+                                )
+                );
+    }
+
+    /**
+     * Updates the books of a JSON array in one repository pass, answering the rejected ones like {@link #saveBooks}.
+     */
+    @POST
+    @Path("updatebooks")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_SMILE})
+    public CompletionStage<Response> updateBooks(final Collection<Book> books) {
+        return
+                bookExecutor.call(() ->
+                        Response
+                                .ok(
+                                        ViewBooksRecord
+                                                .fromBooksRecord2ViewBooksRecord(
+                                                        bookService.updateAll(books)
+                                                )
+                                )
+                                .build()
+                );
     }
 
     @DELETE
     @Path("/delete/{id}")
-    public Response deleteBook(@PathParam("id") final String id) {
+    public CompletionStage<Response> deleteBook(@PathParam("id") final String id) {
         return
-                bookService
-                        .deleteOneById(id)
-                        .fold(
-                                it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
-                                it -> Response.ok(it).build()
-                        );
+                bookExecutor.call(() ->
+                        bookService
+                                .deleteOneById(id)
+                                .fold(
+                                        it -> Response.status(Response.Status.BAD_REQUEST).header("error", it.getMessage()).build(),
+                                        it -> Response.ok(it).build()
+                                )
+                );
     }
 
     @DELETE
     @Path("/delete")
-    public Response deleteBooks() {
-        bookService.deleteAll();
+    public CompletionStage<Response> deleteBooks() {
         return
-                Response
-                        .ok("All the Books are successfully deleted!")
-                        .build();
+                bookExecutor.call(() -> {
+                    bookService.deleteAll();
+                    return
+                            Response
+                                    .ok("All the Books are successfully deleted!")
+                                    .build();
+                });
+    }
+
+    /**
+     * Deletes the books of a JSON array of ids in one repository pass, answering the blank and unknown ids with their
+     * reason.
+     */
+    @POST
+    @Path("deletebooks")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_SMILE})
+    public CompletionStage<Response> deleteBooksByIds(final Collection<String> ids) {
+        return
+                bookExecutor.call(() ->
+                        Response
+                                .ok(
+                                        ViewBooksDeletionRecord
+                                                .fromBooksDeletionRecord2ViewBooksDeletionRecord(
+                                                        bookService.deleteAll(ids)
+                                                )
+                                )
+                                .build()
+                );
+    }
+
+    /**
+     * Answers 304 when {@code If-None-Match} holds the current tag. {@code If-Modified-Since} is not honoured, its one
+     * second resolution would hide changes made within the second a representation was served.
+     */
+    private static Optional<Response> notModified(final Request request, final EntityTag entityTag) {
+        return
+                Objects.isNull(request)
+                        ? Optional.empty()
+                        : Optional
+                                .ofNullable(request.evaluatePreconditions(entityTag))
+                                .map(it -> it.tag(entityTag).build());
+    }
+
+    // The media type the response is written in, picked from Accept the way the container does it.
+    // An Accept header RESTEasy does not parse, like the "q=.2" of HttpURLConnection, is answered with JSON.
+    private static MediaType mediaTypeOf(final Request request) {
+        Variant variant;
+        try {
+            variant = Objects.isNull(request) ? null : request.selectVariant(VARIANTS);
+        } catch (IllegalArgumentException | BadRequestException e) {
+            variant = null;
+        }
+        return
+                Objects.isNull(variant)
+                        ? MediaType.APPLICATION_JSON_TYPE
+                        : variant.getMediaType();
+    }
+
+    /**
+     * One tag per media type, so a cache holding both the JSON and the Smile response can tell which one a 304 is
+     * about. Weak, as the gzipped and the plain body of one media type are the same representation to a client.
+     */
+    static EntityTag entityTagOf(final String version, final MediaType mediaType) {
+        return new EntityTag(version + '-' + mediaType.getSubtype(), true);
+    }
+
+    // FNV-1a over the fields, it changes with the content without serializing the book.
+    static String hashOf(final Book book) {
+        var hash = 0xcbf29ce484222325L;
+        final var content = book.getId() + '\u0000' + book.getName();
+        for (int i = 0; i < content.length(); i++) {
+            hash = (hash ^ content.charAt(i)) * 0x100000001b3L;
+        }
+        return Long.toHexString(hash);
     }
 
     @Data
@@ -130,4 +434,69 @@ public class BookController {
         }
 
     }
+
+    @Data
+    public static final class ViewBooksLookupRecord {
+        private final Collection<Book> foundBooks;
+        private final Collection<UnfoundBooks> unfoundBooks;
+
+        @Data
+        public static final class UnfoundBooks {
+            private final String id;
+            private final String reason;
+        }
+
+        public static ViewBooksLookupRecord fromBooksLookupRecord2ViewBooksLookupRecord(
+                final BookService.BooksLookupRecord booksLookupRecord) {
+            return
+                    new ViewBooksLookupRecord
+                            (
+                                    booksLookupRecord.getFoundBooks(),
+                                    booksLookupRecord.getUnfoundBooks()
+                                            .stream()
+                                            .map(it -> new UnfoundBooks(it.getId(), it.getReason().getMessage()))
+                                            .collect(Collectors.toUnmodifiableList())
+                            );
+        }
+    }
+
+    @Data
+    public static final class ViewBooksDeletionRecord {
+        private final Collection<Book> deletedBooks;
+        private final Collection<ViewBooksLookupRecord.UnfoundBooks> undeletedBooks;
+
+        public static ViewBooksDeletionRecord fromBooksDeletionRecord2ViewBooksDeletionRecord(
+                final BookService.BooksDeletionRecord booksDeletionRecord) {
+            return
+                    new ViewBooksDeletionRecord
+                            (
+                                    booksDeletionRecord.getDeletedBooks(),
+                                    booksDeletionRecord.getUndeletedBooks()
+                                            .stream()
+                                            .map(it -> new ViewBooksLookupRecord.UnfoundBooks(it.getId(), it.getReason().getMessage()))
+                                            .collect(Collectors.toUnmodifiableList())
+                            );
+        }
+    }
+
+    @Data
+    public static final class ViewBooksIngestRecord {
+        private final long savedCount;
+        private final long unsavedCount;
+        private final Collection<ViewBooksRecord.UnsavedBooks> unsavedBooks;
+
+        public static ViewBooksIngestRecord fromBooksIngestRecord2ViewBooksIngestRecord(
+                final BookIngestService.BooksIngestRecord booksIngestRecord) {
+            return
+                    new ViewBooksIngestRecord
+                            (
+                                    booksIngestRecord.getSavedCount(),
+                                    booksIngestRecord.getUnsavedCount(),
+                                    booksIngestRecord.getUnsavedBooks()
+                                            .stream()
+                                            .map(it -> new ViewBooksRecord.UnsavedBooks(it.getBook(), it.getReason().getMessage()))
+                                            .collect(Collectors.toUnmodifiableList())
+                            );
+        }
+    }
 }
@@ -0,0 +1,258 @@
+package org.training.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.MultiSubscriber;
+import io.vavr.control.Either;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.reactivestreams.Subscription;
+import org.training.model.Book;
+import org.training.service.BookExecutor;
+import org.training.service.BookService;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Event-loop variant of the {@link BookController} endpoints under {@code /reactive/books}.
+ * <p>
+ * The routes are registered on the Vert.x router, so unlike the RESTEasy resources they are dispatched on the event
+ * loop. Calls on a non-blocking repository complete there; calls on a blocking one (see
+ * {@link BookService#isBlocking()}) are subscribed on the {@link BookExecutor} and their result is written back from
+ * the event loop of the request.
+ */
+@Singleton
+public class ReactiveBookRoutes {
+    static final String PATH = "/reactive/books";
+    private static final TypeReference<List<Book>> BOOKS = new TypeReference<>() {
+    };
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+    private final BookExecutor bookExecutor;
+    private final long maxBodySize;
+
+    public ReactiveBookRoutes(
+            BookService bookService,
+            ObjectMapper objectMapper,
+            BookExecutor bookExecutor,
+            @ConfigProperty(name = "book.http.max-body-size", defaultValue = "10240K") MemorySize maxBodySize) {
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+        this.bookExecutor = bookExecutor;
+        this.maxBodySize = maxBodySize.asLongValue();
+    }
+
+    void routes(@Observes final Router router) {
+        router.post(PATH + "/*").handler(BodyHandler.create(false).setBodyLimit(maxBodySize));
+
+        router.get(PATH).handler(this::getBooks);
+        router.get(PATH + "/stream").handler(this::streamBooks);
+        router.get(PATH + "/:id").handler(context ->
+                respond(context, () -> bookService.findOneById(context.pathParam("id")))
+        );
+        router.post(PATH + "/save").handler(context ->
+                withBody(context, Book.class, book -> respond(context, () -> bookService.saveOne(book)))
+        );
+        router.post(PATH + "/savebooks").handler(context ->
+                withBody(context, BOOKS, books ->
+                        respond(context, () ->
+                                Either.right(
+                                        BookController.ViewBooksRecord
+                                                .fromBooksRecord2ViewBooksRecord(
+                                                        bookService.saveAll(books)
+                                                )
+                                )
+                        )
+                )
+        );
+        router.post(PATH + "/update").handler(context ->
+                withBody(context, Book.class, book -> respond(context, () -> bookService.updateOne(book)))
+        );
+        router.delete(PATH + "/delete/:id").handler(context ->
+                respond(context, () -> bookService.deleteOneById(context.pathParam("id")))
+        );
+        router.delete(PATH + "/delete").handler(context ->
+                call(() -> {
+                    bookService.deleteAll();
+                    return "All the Books are successfully deleted!";
+                })
+                        .subscribe()
+                        .with(it -> context.response().end(it), context::fail)
+        );
+    }
+
+    private void getBooks(final RoutingContext context) {
+        final var limit = context.queryParams().get("limit");
+        final var cursor = context.queryParams().get("cursor");
+        if (Objects.isNull(limit)) {
+            respond(context, () -> Either.right(bookService.findAll()));
+            return;
+        }
+
+        final int pageSize;
+        try {
+            pageSize = Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            badRequest(context, "Limit must be a number");
+            return;
+        }
+        respond(context, () -> bookService.findPage(cursor, pageSize));
+    }
+
+    // One snapshot of the catalog, written as newline-delimited JSON no faster than the client reads it.
+    private void streamBooks(final RoutingContext context) {
+        final var books = Multi.createFrom().<Book>items(() -> bookService.findAll().stream());
+        (bookService.isBlocking() ? books.runSubscriptionOn(bookExecutor) : books)
+                .emitOn(eventLoop())
+                .subscribe()
+                .withSubscriber(new NdjsonWriter(context, objectMapper));
+    }
+
+    private void respond(final RoutingContext context, final Supplier<Either<? extends BookService.BookException, ?>> operation) {
+        call(operation)
+                .subscribe()
+                .with(
+                        result -> result.fold(
+                                it -> badRequest(context, it.getMessage()),
+                                it -> ok(context, it)
+                        ),
+                        context::fail
+                );
+    }
+
+    private <T> Uni<T> call(final Supplier<T> operation) {
+        final var result = Uni.createFrom().item(operation);
+        return bookService.isBlocking()
+                ? result.runSubscriptionOn(bookExecutor).emitOn(eventLoop())
+                : result;
+    }
+
+    private <T> void withBody(final RoutingContext context, final Class<T> type, final Consumer<T> handler) {
+        withBody(context, it -> objectMapper.readValue(it, type), handler);
+    }
+
+    private <T> void withBody(final RoutingContext context, final TypeReference<T> type, final Consumer<T> handler) {
+        withBody(context, it -> objectMapper.readValue(it, type), handler);
+    }
+
+    private <T> void withBody(final RoutingContext context, final BodyReader<T> reader, final Consumer<T> handler) {
+        final T body;
+        try {
+            body = reader.read(context.getBody().getBytes());
+        } catch (IOException e) {
+            badRequest(context, "Malformed request body");
+            return;
+        }
+        handler.accept(body);
+    }
+
+    private Void ok(final RoutingContext context, final Object entity) {
+        final Buffer body;
+        try {
+            body = Buffer.buffer(objectMapper.writeValueAsBytes(entity));
+        } catch (JsonProcessingException e) {
+            context.fail(e);
+            return null;
+        }
+        context
+                .response()
+                .putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .end(body);
+        return null;
+    }
+
+    private static Void badRequest(final RoutingContext context, final String error) {
+        context
+                .response()
+                .setStatusCode(400)
+                .putHeader("error", error)
+                .end();
+        return null;
+    }
+
+    // Called from a route handler, on the event loop of the request.
+    private static Executor eventLoop() {
+        final Context eventLoop = Vertx.currentContext();
+        return command -> eventLoop.runOnContext(it -> command.run());
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(byte[] body) throws IOException;
+    }
+
+    // Requests one book at a time, and the next only once the connection has drained what was written.
+    private static final class NdjsonWriter implements MultiSubscriber<Book> {
+        private final RoutingContext context;
+        private final ObjectMapper objectMapper;
+        private Subscription subscription;
+
+        private NdjsonWriter(final RoutingContext context, final ObjectMapper objectMapper) {
+            this.context = context;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+            context
+                    .response()
+                    .setChunked(true)
+                    .putHeader(HttpHeaders.CONTENT_TYPE, BookController.APPLICATION_NDJSON)
+                    .closeHandler(it -> subscription.cancel());
+            subscription.request(1);
+        }
+
+        @Override
+        public void onItem(final Book book) {
+            final var response = context.response();
+            try {
+                response.write(Buffer.buffer(objectMapper.writeValueAsBytes(book)).appendByte((byte) '\n'));
+            } catch (JsonProcessingException e) {
+                subscription.cancel();
+                onFailure(e);
+                return;
+            }
+            if (response.writeQueueFull())
+                response.drainHandler(it -> {
+                    response.drainHandler(null);
+                    subscription.request(1);
+                });
+            else
+                subscription.request(1);
+        }
+
+        @Override
+        public void onFailure(final Throwable failure) {
+            // Once a book is written the status is sent, so all the client can be told is that the stream broke.
+            if (context.response().headWritten())
+                context.request().connection().close();
+            else
+                context.fail(failure);
+        }
+
+        @Override
+        public void onCompletion() {
+            context.response().end();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.training.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.training.model.Book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Builds the binary catalog read by {@link MappedCatalogBookRepository}.
+ * <p>
+ * Layout, all integers big-endian:
+ * <pre>
+ * header        magic, version, book count, hash table size
+ * hash table    table size x record offset (0 = empty slot), open addressing with linear probing on the id hash
+ * sorted index  book count x record offset, in id order
+ * records       [id length][id utf-8][name length][name utf-8], in id order
+ * </pre>
+ * Usage: {@code java -cp <classpath> org.training.repository.BookCatalogBuilder books.json catalog.bin}, where the
+ * input is either a JSON array of books (the {@code /books/savebooks} body) or NDJSON (the {@code /books/stream} body).
+ */
+public final class BookCatalogBuilder {
+    static final int MAGIC = 0x424B4331;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = Integer.BYTES * 4;
+
+    private BookCatalogBuilder() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BookCatalogBuilder <books.json|books.ndjson> <catalog.bin>");
+            System.exit(1);
+        }
+
+        final var books = new ArrayList<Book>();
+        try (final var iterator = new ObjectMapper().findAndRegisterModules().readerFor(Book.class).<Book>readValues(Path.of(args[0]).toFile())) {
+            iterator.forEachRemaining(books::add);
+        }
+        final var count = build(books, Path.of(args[1]));
+        System.out.println("Wrote " + count + " books to " + args[1]);
+    }
+
+    /**
+     * Writes the catalog, the first book wins when several share an id.
+     *
+     * @return the number of books written
+     */
+    public static int build(final Collection<Book> books, final Path catalog) throws IOException {
+        final var sortedBooks = new ArrayList<>(books);
+        sortedBooks.sort(Comparator.comparing(Book::getId));
+        final var uniqueBooks = new ArrayList<Book>(sortedBooks.size());
+        for (final var book : sortedBooks) {
+            if (uniqueBooks.isEmpty() || !uniqueBooks.get(uniqueBooks.size() - 1).getId().equals(book.getId()))
+                uniqueBooks.add(book);
+        }
+
+        final var count = uniqueBooks.size();
+        final var tableSize = tableSize(count);
+        final var recordsOffset = (long) HEADER_SIZE + (long) Integer.BYTES * tableSize + (long) Integer.BYTES * count;
+
+        final var table = new int[tableSize];
+        final var offsets = new int[count];
+        final var encodedBooks = new ArrayList<byte[][]>(count);
+        var offset = recordsOffset;
+        for (int i = 0; i < count; i++) {
+            final var book = uniqueBooks.get(i);
+            final var id = book.getId().getBytes(StandardCharsets.UTF_8);
+            final var name = book.getName().getBytes(StandardCharsets.UTF_8);
+            offsets[i] = (int) offset;
+            var slot = MappedCatalogBookRepository.slotOf(book.getId(), tableSize);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            table[slot] = (int) offset;
+            encodedBooks.add(new byte[][]{id, name});
+            offset += Integer.BYTES * 2L + id.length + name.length;
+            if (offset > Integer.MAX_VALUE)
+                throw new IOException("Catalog exceeds the 2GB limit of a single mapping");
+        }
+
+        final var temporary = catalog.resolveSibling(catalog.getFileName() + ".tmp");
+        try (final var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(count);
+            output.writeInt(tableSize);
+            for (final var entry : table) {
+                output.writeInt(entry);
+            }
+            for (final var entry : offsets) {
+                output.writeInt(entry);
+            }
+            for (final var encodedBook : encodedBooks) {
+                output.writeInt(encodedBook[0].length);
+                output.write(encodedBook[0]);
+                output.writeInt(encodedBook[1].length);
+                output.write(encodedBook[1]);
+            }
+        }
+        Files.move(temporary, catalog, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    // Power of two with a load factor of at most 0.5, so probe sequences stay short.
+    private static int tableSize(final int count) {
+        var size = 16;
+        while (size < count * 2L) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,28 @@
+package org.training.repository;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Thrown by a repository refusing writes, a read-only catalog or a replication follower. The follower names the leader
+ * the write should be sent to.
+ */
+public class BookCatalogReadOnlyException extends RuntimeException {
+    private final String leaderAddress;
+
+    public BookCatalogReadOnlyException(final String message) {
+        this(message, null);
+    }
+
+    public BookCatalogReadOnlyException(final String message, final String leaderAddress) {
+        super(message, null, false, false);
+        this.leaderAddress = leaderAddress;
+    }
+
+    public Optional<String> leaderAddress() {
+        return
+                Objects.isNull(this.leaderAddress)
+                        ? Optional.empty()
+                        : Optional.of(this.leaderAddress);
+    }
+}
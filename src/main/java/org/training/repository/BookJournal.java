@@ -0,0 +1,262 @@
+package org.training.repository;
+
+import org.training.model.Book;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of {@link BookMutation}s.
+ * <p>
+ * Every record is framed as {@code [length][crc32][payload]} so a torn write at the tail is detected and cut off on
+ * replay. Appends are queued and written by a single thread which fsyncs once per drained batch (group commit).
+ * <p>
+ * A batch failing to be written or forced is cut off again, so no record of a failed append is replayed. If even that
+ * fails, every later append fails too: records appended after it could not be told apart from the failed ones.
+ */
+final class BookJournal implements Closeable {
+    private static final int MAX_BATCH = 4_096;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final PendingMutation CLOSE = new PendingMutation(BookMutation.deleteAll());
+
+    private final BlockingQueue<PendingMutation> pending;
+    private final Thread writer;
+    private volatile FileChannel channel;
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    BookJournal(final Path path) throws IOException {
+        this(open(path));
+    }
+
+    BookJournal(final FileChannel channel) {
+        this.pending = new LinkedBlockingQueue<>();
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "book-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    CompletableFuture<Void> append(final BookMutation mutation) {
+        final var pendingMutation = new PendingMutation(mutation);
+        if (this.closed) {
+            pendingMutation.completion.completeExceptionally(new IllegalStateException("Journal is closed"));
+            return pendingMutation.completion;
+        }
+        if (Objects.nonNull(this.failure)) {
+            pendingMutation.completion.completeExceptionally(unusable());
+            return pendingMutation.completion;
+        }
+        this.pending.add(pendingMutation);
+        return pendingMutation.completion;
+    }
+
+    // Only called while no append is in flight, the writer thread picks the new channel up on its next batch.
+    void rotate(final Path path) throws IOException {
+        final var previous = this.channel;
+        this.channel = open(path);
+        previous.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.pending.add(CLOSE);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+    }
+
+    private void writeLoop() {
+        final var batch = new ArrayList<PendingMutation>(MAX_BATCH);
+        final var buffer = new ByteArrayOutputStream();
+        final var crc = new CRC32();
+        var running = true;
+        while (running) {
+            try {
+                batch.add(this.pending.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            this.pending.drainTo(batch, MAX_BATCH - 1);
+            running = !batch.remove(CLOSE);
+            if (!batch.isEmpty())
+                flush(batch, buffer, crc);
+            batch.clear();
+        }
+        this.pending.forEach(it -> it.completion.completeExceptionally(new IllegalStateException("Journal is closed")));
+    }
+
+    private void flush(final List<PendingMutation> batch, final ByteArrayOutputStream buffer, final CRC32 crc) {
+        if (Objects.nonNull(this.failure)) {
+            batch.forEach(it -> it.completion.completeExceptionally(unusable()));
+            return;
+        }
+
+        final var target = this.channel;
+        var start = -1L;
+        try {
+            buffer.reset();
+            for (final var pendingMutation : batch) {
+                writeRecord(buffer, crc, pendingMutation.mutation);
+            }
+            final var bytes = ByteBuffer.wrap(buffer.toByteArray());
+            start = target.position();
+            while (bytes.hasRemaining()) {
+                target.write(bytes);
+            }
+            target.force(false);
+            batch.forEach(it -> it.completion.complete(null));
+        } catch (IOException | RuntimeException e) {
+            if (start >= 0)
+                rollBack(target, start, e);
+            batch.forEach(it -> it.completion.completeExceptionally(e));
+        }
+    }
+
+    // Cuts a failed batch off, part of it may already be on disk and would otherwise be replayed.
+    private void rollBack(final FileChannel target, final long start, final Exception cause) {
+        try {
+            target.truncate(start);
+            target.position(start);
+            target.force(false);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+            this.failure = cause;
+        }
+    }
+
+    private IllegalStateException unusable() {
+        return new IllegalStateException("Journal could not be rolled back after a failed write", this.failure);
+    }
+
+    static void replay(final Path path, final Consumer<BookMutation> consumer) throws IOException {
+        if (Files.notExists(path))
+            return;
+
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var header = ByteBuffer.allocate(HEADER_SIZE);
+            final var crc = new CRC32();
+            long position = 0;
+            while (true) {
+                header.clear();
+                if (readFully(channel, header, position) < HEADER_SIZE)
+                    break;
+                header.flip();
+                final var length = header.getInt();
+                final var checksum = header.getInt();
+                if (length < 0 || position + HEADER_SIZE + length > channel.size())
+                    break;
+
+                final var payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, position + HEADER_SIZE);
+                crc.reset();
+                crc.update(payload.array(), 0, length);
+                if ((int) crc.getValue() != checksum)
+                    break;
+
+                consumer.accept(BookMutation.readFrom(new DataInputStream(new ByteArrayInputStream(payload.array()))));
+                position += HEADER_SIZE + length;
+            }
+            // Cut off a torn or corrupted tail so new records are appended right after the last valid one.
+            channel.truncate(position);
+            channel.force(true);
+        }
+    }
+
+    static void writeSnapshot(final Path path, final Collection<Book> books) throws IOException {
+        final var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(books.size());
+            for (final var book : books) {
+                BookMutation.writeString(output, book.getId());
+                BookMutation.writeString(output, book.getName());
+            }
+        }
+        try (final var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static List<Book> readSnapshot(final Path path) throws IOException {
+        try (final var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            final var size = input.readInt();
+            final var books = new ArrayList<Book>(size);
+            for (int i = 0; i < size; i++) {
+                books.add(new Book(BookMutation.readString(input), BookMutation.readString(input)));
+            }
+            return books;
+        }
+    }
+
+    private static FileChannel open(final Path path) throws IOException {
+        final var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static void writeRecord(final ByteArrayOutputStream buffer, final CRC32 crc, final BookMutation mutation) {
+        try {
+            final var payload = new ByteArrayOutputStream();
+            mutation.writeTo(new DataOutputStream(payload));
+            final var bytes = payload.toByteArray();
+            crc.reset();
+            crc.update(bytes, 0, bytes.length);
+
+            final var output = new DataOutputStream(buffer);
+            output.writeInt(bytes.length);
+            output.writeInt((int) crc.getValue());
+            output.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            final var count = channel.read(buffer, position + read);
+            if (count < 0)
+                break;
+            read += count;
+        }
+        return read;
+    }
+
+    private static final class PendingMutation {
+        private final BookMutation mutation;
+        private final CompletableFuture<Void> completion;
+
+        private PendingMutation(final BookMutation mutation) {
+            this.mutation = mutation;
+            this.completion = new CompletableFuture<>();
+        }
+    }
+}
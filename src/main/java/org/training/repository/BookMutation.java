@@ -0,0 +1,95 @@
+package org.training.repository;
+
+import lombok.Data;
+import org.training.model.Book;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+@Data
+public final class BookMutation {
+    private static final BookMutation DELETE_ALL = new BookMutation(Type.DELETE_ALL, null, null);
+
+    private final Type type;
+    private final String id;
+    private final String name;
+
+    public enum Type {
+        SAVE, DELETE, DELETE_ALL
+    }
+
+    public static BookMutation save(final Book book) {
+        return new BookMutation(Type.SAVE, book.getId(), book.getName());
+    }
+
+    public static BookMutation delete(final String id) {
+        return new BookMutation(Type.DELETE, id, null);
+    }
+
+    public static BookMutation deleteAll() {
+        return DELETE_ALL;
+    }
+
+    public Book book() {
+        return new Book(this.id, this.name);
+    }
+
+    // Replays the mutation as an upsert/delete, so applying the same log twice converges to the same state.
+    public void applyTo(final IBookRepository bookRepository) {
+        switch (this.type) {
+            case SAVE:
+                bookRepository.saveOne(book());
+                break;
+            case DELETE:
+                bookRepository.deleteOneById(this.id);
+                break;
+            case DELETE_ALL:
+                bookRepository.deleteAll();
+                break;
+            default:
+                throw new IllegalStateException("Unknown mutation type: " + this.type);
+        }
+    }
+
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeByte(this.type.ordinal());
+        writeString(output, this.id);
+        writeString(output, this.name);
+    }
+
+    public static BookMutation readFrom(final DataInput input) throws IOException {
+        final var types = Type.values();
+        final var ordinal = input.readUnsignedByte();
+        if (ordinal >= types.length)
+            throw new IOException("Unknown mutation type: " + ordinal);
+
+        final var type = types[ordinal];
+        final var id = readString(input);
+        final var name = readString(input);
+        return type == Type.DELETE_ALL
+                ? DELETE_ALL
+                : new BookMutation(type, id, name);
+    }
+
+    static void writeString(final DataOutput output, final String value) throws IOException {
+        if (Objects.isNull(value)) {
+            output.writeInt(-1);
+            return;
+        }
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(final DataInput input) throws IOException {
+        final var length = input.readInt();
+        if (length < 0)
+            return null;
+        final var bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,238 @@
+package org.training.repository;
+
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted index of the tokens of {@link Book#getName()}, holding book ids only.
+ * <p>
+ * Tokens are kept in a sorted map, so a prefix is the key range from {@code prefix} to {@code prefix} followed by
+ * {@link Character#MAX_VALUE} and is answered like a trie walk without storing one node per character. A query
+ * matches books holding every term, the last term being a prefix; results are ranked by whether that last term
+ * matched a whole token, then by how short the name is. The candidate ids are resolved through the repository and
+ * ranked against the names it returns, so a posting left behind by a racing write never yields a wrong match.
+ * <p>
+ * Writes for one id must not run concurrently, {@link IndexedBookRepository} serializes them and passes the name the
+ * id had before. Reads are lock-free.
+ */
+final class BookNameIndex {
+    // Upper bound of books resolved and ranked for one query, keeps "a" or "the book" from reading the whole catalog.
+    static final int MAX_PREFIX_CANDIDATES = 10_000;
+    private static final int TOKEN_STRIPES = 64;
+
+    private static final Comparator<Match> RANKING =
+            Comparator
+                    .comparingInt((Match it) -> -it.score)
+                    .thenComparingInt(it -> it.tokenCount)
+                    .thenComparing(it -> it.book.getId());
+
+    private final NavigableMap<String, Set<String>> postings;
+    // Adding to a token and dropping its emptied set run under the stripe of the token, ids of one token never race.
+    private final ReentrantLock[] tokenStripes;
+
+    BookNameIndex() {
+        this.postings = new ConcurrentSkipListMap<>();
+        this.tokenStripes = new ReentrantLock[TOKEN_STRIPES];
+        for (int i = 0; i < TOKEN_STRIPES; i++) {
+            this.tokenStripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param previousName the name the id had, null when it was absent
+     */
+    void put(final String id, final String previousName, final String name) {
+        final var tokens = tokenize(name);
+        for (final var token : tokenize(previousName)) {
+            if (!tokens.contains(token))
+                removePosting(token, id);
+        }
+        for (final var token : tokens) {
+            addPosting(token, id);
+        }
+    }
+
+    void remove(final String id, final String previousName) {
+        for (final var token : tokenize(previousName)) {
+            removePosting(token, id);
+        }
+    }
+
+    void clear() {
+        this.postings.clear();
+    }
+
+    List<Book> search(final String query, final int limit, final IBookRepository bookRepository) {
+        final var terms = tokenize(query);
+        if (terms.isEmpty())
+            return List.of();
+
+        final var exactTerms = List.copyOf(terms).subList(0, terms.size() - 1);
+        if (exactTerms.isEmpty())
+            return rank(bookRepository.findAllByIds(prefixCandidates(last(terms))).values(), terms, limit);
+
+        // Every exact term is required, so the rarest one bounds the candidates.
+        final var termIds = new ArrayList<Set<String>>(exactTerms.size());
+        for (final var term : exactTerms) {
+            final var ids = this.postings.get(term);
+            if (Objects.isNull(ids) || ids.isEmpty())
+                return List.of();
+            termIds.add(ids);
+        }
+        termIds.sort(Comparator.comparingInt(Set::size));
+        return rank(bookRepository.findAllByIds(exactCandidates(termIds)).values(), terms, limit);
+    }
+
+    // Ids holding every exact term, the rarest term first, so only books that can still match are resolved.
+    private static Collection<String> exactCandidates(final List<Set<String>> termIds) {
+        final var candidates = new ArrayList<String>();
+        final var others = termIds.subList(1, termIds.size());
+        for (final var id : termIds.get(0)) {
+            if (others.stream().allMatch(it -> it.contains(id)))
+                candidates.add(id);
+            if (candidates.size() >= MAX_PREFIX_CANDIDATES)
+                break;
+        }
+        return candidates;
+    }
+
+    private Collection<String> prefixCandidates(final String prefix) {
+        final var candidates = new LinkedHashSet<String>();
+        for (final var ids : this.postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            for (final var id : ids) {
+                candidates.add(id);
+                if (candidates.size() >= MAX_PREFIX_CANDIDATES)
+                    return candidates;
+            }
+        }
+        return candidates;
+    }
+
+    private void addPosting(final String token, final String id) {
+        final var stripe = tokenStripe(token);
+        stripe.lock();
+        try {
+            this.postings.computeIfAbsent(token, it -> ConcurrentHashMap.newKeySet()).add(id);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void removePosting(final String token, final String id) {
+        final var stripe = tokenStripe(token);
+        stripe.lock();
+        try {
+            final var ids = this.postings.get(token);
+            if (Objects.nonNull(ids) && ids.remove(id) && ids.isEmpty())
+                this.postings.remove(token);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private ReentrantLock tokenStripe(final String token) {
+        return this.tokenStripes[Math.floorMod(token.hashCode(), TOKEN_STRIPES)];
+    }
+
+    /**
+     * Ranks any books against a query, used on the candidates of the index and as the full scan of repositories
+     * without one.
+     */
+    static List<Book> rank(final Iterable<Book> books, final Set<String> terms, final int limit) {
+        if (terms.isEmpty() || limit <= 0)
+            return List.of();
+
+        final var prefix = last(terms);
+        final var best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (final var book : books) {
+            final var tokens = tokenize(book.getName());
+            final var score = score(tokens, terms, prefix);
+            if (score == 0)
+                continue;
+            best.add(new Match(book, score, tokens.size()));
+            if (best.size() > limit)
+                best.poll();
+        }
+
+        final var ranked = new ArrayList<Match>(best);
+        ranked.sort(RANKING);
+        final var result = new ArrayList<Book>(ranked.size());
+        for (final var match : ranked) {
+            result.add(match.book);
+        }
+        return result;
+    }
+
+    static List<Book> rank(final Iterable<Book> books, final String query, final int limit) {
+        return rank(books, tokenize(query), limit);
+    }
+
+    // 0 when a term is missing, 2 when the last term is a whole token, 1 when it is only a prefix of one.
+    private static int score(final Set<String> tokens, final Set<String> terms, final String prefix) {
+        for (final var term : terms) {
+            if (!term.equals(prefix) && !tokens.contains(term))
+                return 0;
+        }
+        if (tokens.contains(prefix))
+            return 2;
+        for (final var token : tokens) {
+            if (token.startsWith(prefix))
+                return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Lower-cased runs of letters and digits, in order of first appearance.
+     */
+    static Set<String> tokenize(final String text) {
+        final var tokens = new LinkedHashSet<String>();
+        if (Objects.isNull(text))
+            return tokens;
+
+        var start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final var inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String last(final Set<String> terms) {
+        String last = null;
+        for (final var term : terms) {
+            last = term;
+        }
+        return last;
+    }
+
+    private static final class Match {
+        private final Book book;
+        private final int score;
+        private final int tokenCount;
+
+        private Match(final Book book, final int score, final int tokenCount) {
+            this.book = book;
+            this.score = score;
+            this.tokenCount = tokenCount;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.training.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of single-book lookups in front of a slower repository.
+ * <p>
+ * Caffeine bounds the entries with W-TinyLFU, which keeps a skewed set of hot books resident while one-off lookups
+ * get evicted first. Missing books are cached as {@link Optional#empty()}, so repeated lookups of an unknown id do
+ * not reach the backend either. Every mutation is applied to the backend first and the affected ids are invalidated
+ * afterwards; Caffeine serializes an invalidation with an in-flight load of the same id, so a stale load can not
+ * outlive the write. Bulk loads are not serialized that way, see {@link #findAllByIds}.
+ */
+public class CachingBookRepository implements IBookRepository, Closeable {
+    private final IBookRepository bookRepository;
+    private final Cache<String, Optional<Book>> books;
+    // Advanced by every write between changing the backend and invalidating, see findAllByIds.
+    private final AtomicLong writes;
+
+    public CachingBookRepository(final IBookRepository bookRepository, final long maximumSize, final MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.books =
+                Caffeine
+                        .newBuilder()
+                        .maximumSize(maximumSize)
+                        .recordStats()
+                        .build();
+        this.writes = new AtomicLong();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.books, "books");
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        final var savedBook = this.bookRepository.saveOne(book);
+        invalidate(book.getId());
+        return savedBook;
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        return invalidateAll(this.bookRepository.saveAll(books));
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return Objects.isNull(id)
+                ? Optional.empty()
+                : this.books.get(id, this.bookRepository::findOneById);
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return this.bookRepository.findAll();
+    }
+
+    @Override
+    public long size() {
+        return this.bookRepository.size();
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        return this.bookRepository.findPage(cursor, limit);
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return invalidateIfPresent(book.getId(), this.bookRepository.updateOne(book));
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        return invalidateIfPresent(book.getId(), this.bookRepository.saveIfAbsent(book));
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return invalidateIfPresent(book.getId(), this.bookRepository.replaceIfPresent(book));
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        return invalidateIfPresent(id, this.bookRepository.deleteOneById(id));
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        return invalidateAll(this.bookRepository.saveAllIfAbsent(books));
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        return invalidateAll(this.bookRepository.updateAll(books));
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        return invalidateAll(this.bookRepository.deleteAllByIds(ids));
+    }
+
+    @Override
+    public void deleteAll() {
+        this.bookRepository.deleteAll();
+        this.writes.incrementAndGet();
+        this.books.invalidateAll();
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return findOneById(id).isPresent();
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return this.bookRepository.existing(ids);
+    }
+
+    /**
+     * Misses reach the backend in one call, the ids it does not know are cached as empty like findOneById does.
+     * <p>
+     * Unlike a single-id load, the bulk load is not serialized with invalidations. A write landing during the load may
+     * have been read before it was applied and invalidated before the load was cached, so when any write happened
+     * meanwhile the entries the load added are removed again.
+     */
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        final var writes = this.writes.get();
+        final var books = new HashMap<String, Book>();
+        final var cachedBooks = this.books.getAllPresent(ids);
+        cachedBooks.forEach((id, book) -> book.ifPresent(it -> books.put(id, it)));
+        final var missingIds = new ArrayList<String>();
+        for (final var id : ids) {
+            if (!cachedBooks.containsKey(id))
+                missingIds.add(id);
+        }
+        if (missingIds.isEmpty())
+            return books;
+
+        final var loadedBooks = this.bookRepository.findAllByIds(missingIds);
+        final var cache = this.books.asMap();
+        final var insertedBooks = new HashMap<String, Optional<Book>>();
+        for (final var id : missingIds) {
+            final var book = Optional.ofNullable(loadedBooks.get(id));
+            book.ifPresent(it -> books.put(id, it));
+            if (Objects.isNull(cache.putIfAbsent(id, book)))
+                insertedBooks.put(id, book);
+        }
+        if (this.writes.get() != writes)
+            insertedBooks.forEach(cache::remove);
+        return books;
+    }
+
+    @Override
+    public List<Book> search(final String query, final int limit) {
+        return this.bookRepository.search(query, limit);
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.bookRepository.catalogVersion();
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return this.bookRepository.isBlocking();
+    }
+
+    /**
+     * Hits, misses (negative lookups included) and size-based evictions since startup.
+     */
+    public CacheStats stats() {
+        return this.books.stats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.bookRepository instanceof Closeable)
+            ((Closeable) this.bookRepository).close();
+    }
+
+    private void invalidate(final String id) {
+        this.writes.incrementAndGet();
+        this.books.invalidate(id);
+    }
+
+    // Only the books the backend changed, the ids it ignored keep their cached entry.
+    private Collection<Book> invalidateAll(final Collection<Book> changedBooks) {
+        if (!changedBooks.isEmpty()) {
+            this.writes.incrementAndGet();
+            this.books.invalidateAll(
+                    changedBooks
+                            .stream()
+                            .map(Book::getId)
+                            .collect(Collectors.toUnmodifiableList())
+            );
+        }
+        return changedBooks;
+    }
+
+    // An empty result means the backend did not change, so the cached entry is still accurate.
+    private Optional<Book> invalidateIfPresent(final String id, final Optional<Book> result) {
+        if (result.isPresent())
+            invalidate(id);
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package org.training.repository;
+
+import lombok.Data;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version of a whole book catalog, advanced by the repository after every mutation that changed it.
+ * <p>
+ * The counter restarts with the repository, so it is paired with an id picked per repository instance: a tag handed
+ * out before a restart never matches a catalog that merely reached the same count afterwards.
+ */
+@Data
+public final class CatalogVersion {
+    private final long instance;
+    private final long version;
+    private final long lastModified;
+
+    public static CatalogVersion initial() {
+        return new CatalogVersion(ThreadLocalRandom.current().nextLong(), 0, System.currentTimeMillis());
+    }
+
+    public CatalogVersion next() {
+        return new CatalogVersion(this.instance, this.version + 1, System.currentTimeMillis());
+    }
+
+    public String tag() {
+        return Long.toHexString(this.instance) + '-' + Long.toHexString(this.version);
+    }
+}
@@ -0,0 +1,206 @@
+package org.training.repository;
+
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+public class ConcurrentBookRepository implements IBookRepository {
+
+    private final ConcurrentMap<String, Book> books;
+    // Ordered view of the ids for cursor pagination, only mutated inside the per-key compute of books.
+    private final NavigableSet<String> ids;
+    // Advanced after each mutation is visible, so a reader that sees a version also sees the books it stands for.
+    private final AtomicReference<CatalogVersion> catalogVersion;
+
+    public ConcurrentBookRepository() {
+        this.books = new ConcurrentHashMap<>();
+        this.ids = new ConcurrentSkipListSet<>();
+        this.catalogVersion = new AtomicReference<>(CatalogVersion.initial());
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        this.books.compute(book.getId(), (id, it) -> {
+            this.ids.add(id);
+            return book;
+        });
+        this.catalogVersion.updateAndGet(CatalogVersion::next);
+        return book;
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        books.forEach(this::saveOne);
+        return books;
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return Objects.isNull(id)
+                ? Optional.empty()
+                : Optional.ofNullable(this.books.get(id));
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return Collections.unmodifiableCollection(this.books.values());
+    }
+
+    @Override
+    public long size() {
+        return this.books.size();
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        final var tail =
+                Objects.isNull(cursor)
+                        ? this.ids
+                        : this.ids.tailSet(cursor, false);
+        return tail
+                .stream()
+                .map(this.books::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return replaceIfPresent(book);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        final var saved = new AtomicReference<Book>();
+        this.books.computeIfAbsent(book.getId(), id -> {
+            this.ids.add(id);
+            saved.set(book);
+            return book;
+        });
+        return advanceIfPresent(Optional.ofNullable(saved.get()));
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return advanceIfPresent(Optional.ofNullable(
+                this.books.computeIfPresent(book.getId(), (id, it) -> book)
+        ));
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        if (Objects.isNull(id))
+            return Optional.empty();
+
+        final var deleted = new AtomicReference<Book>();
+        this.books.computeIfPresent(id, (key, it) -> {
+            this.ids.remove(key);
+            deleted.set(it);
+            return null;
+        });
+        return advanceIfPresent(Optional.ofNullable(deleted.get()));
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        final var savedBooks = new ArrayList<Book>(books.size());
+        for (final var book : books) {
+            this.books.computeIfAbsent(book.getId(), id -> {
+                this.ids.add(id);
+                savedBooks.add(book);
+                return book;
+            });
+        }
+        return advanceIfChanged(savedBooks);
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        final var updatedBooks = new ArrayList<Book>(books.size());
+        for (final var book : books) {
+            if (Objects.nonNull(this.books.computeIfPresent(book.getId(), (id, it) -> book)))
+                updatedBooks.add(book);
+        }
+        return advanceIfChanged(updatedBooks);
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        final var deletedBooks = new ArrayList<Book>(ids.size());
+        for (final var id : ids) {
+            this.books.computeIfPresent(id, (key, it) -> {
+                this.ids.remove(key);
+                deletedBooks.add(it);
+                return null;
+            });
+        }
+        return advanceIfChanged(deletedBooks);
+    }
+
+    @Override
+    public void deleteAll() {
+        // Ids first: a save racing the clear may leave an id without its book, which findPage skips, never a book
+        // without its id.
+        this.ids.clear();
+        this.books.clear();
+        this.catalogVersion.updateAndGet(CatalogVersion::next);
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return Objects.nonNull(id) && this.books.containsKey(id);
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return ids
+                .stream()
+                .filter(this::isExist)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        final var books = new HashMap<String, Book>();
+        for (final var id : ids) {
+            final var book = this.books.get(id);
+            if (Objects.nonNull(book))
+                books.put(id, book);
+        }
+        return books;
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.catalogVersion.get();
+    }
+
+    // A batch advances the version once, however many books it changed.
+    private Collection<Book> advanceIfChanged(final List<Book> changed) {
+        if (changed.isEmpty())
+            return List.of();
+        this.catalogVersion.updateAndGet(CatalogVersion::next);
+        return Collections.unmodifiableList(changed);
+    }
+
+    private Optional<Book> advanceIfPresent(final Optional<Book> changed) {
+        if (changed.isPresent())
+            this.catalogVersion.updateAndGet(CatalogVersion::next);
+        return changed;
+    }
+}
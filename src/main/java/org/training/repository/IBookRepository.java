@@ -3,15 +3,43 @@ package org.training.repository;
 import org.training.model.Book;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface IBookRepository {
     Book saveOne(final Book book);
     Collection<Book> saveAll(final Collection<Book> books);
     Optional<Book> findOneById(final String id);
     Collection<Book> findAll();
+    // Books stored, answered without copying or scanning them.
+    long size();
+    List<Book> findPage(final String cursor, final int limit);
     Optional<Book> updateOne(final Book book);
+    Optional<Book> saveIfAbsent(final Book book);
+    Optional<Book> replaceIfPresent(final Book book);
     Optional<Book> deleteOneById(final String id);
+    // Saves the books whose id is absent and returns them, a present book is never overwritten. The ids must be distinct.
+    Collection<Book> saveAllIfAbsent(final Collection<Book> books);
+    // Replaces the present books in one pass and returns them, the others are ignored. The ids must be distinct.
+    Collection<Book> updateAll(final Collection<Book> books);
+    // Deletes the books with these ids in one pass and returns them. The ids must not be null.
+    Collection<Book> deleteAllByIds(final Collection<String> ids);
     void deleteAll();
     boolean isExist(final String id);
+    Set<String> existing(final Collection<String> ids);
+    // Books found among the ids, keyed by id, looked up in one pass. The ids must not be null.
+    Map<String, Book> findAllByIds(final Collection<String> ids);
+    CatalogVersion catalogVersion();
+
+    // Ranked name search, repositories without an index scan every book.
+    default List<Book> search(final String query, final int limit) {
+        return BookNameIndex.rank(findAll(), query, limit);
+    }
+
+    // Whether calls may block the caller on I/O, callers on an event loop have to offload them.
+    default boolean isBlocking() {
+        return false;
+    }
 }
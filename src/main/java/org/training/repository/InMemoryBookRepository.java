@@ -1,81 +1,252 @@
 package org.training.repository;
 
+import io.vavr.collection.Vector;
 import org.training.model.Book;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class InMemoryBookRepository implements IBookRepository {
+    private static final Comparator<Book> BY_ID = Comparator.comparing(Book::getId);
 
-    private Collection<Book> books;
+    // Persistent vector swapped atomically on every write, readers always see a complete immutable snapshot.
+    private final AtomicReference<Vector<Book>> books;
+    // Advanced after the books are swapped, so a reader that sees a version also sees the books it stands for.
+    private final AtomicReference<CatalogVersion> catalogVersion;
 
     public InMemoryBookRepository() {
-        this.books = new ArrayList<Book>();
+        this.books = new AtomicReference<>(Vector.empty());
+        this.catalogVersion = new AtomicReference<>(CatalogVersion.initial());
     }
 
     @Override
     public Book saveOne(final Book book) {
-        this.books.add(book);
+        this.books.updateAndGet(it -> it.append(book));
+        this.catalogVersion.updateAndGet(CatalogVersion::next);
         return book;
     }
 
     @Override
     public Collection<Book> saveAll(final Collection<Book> books) {
-        this.books.addAll(books);
+        this.books.updateAndGet(it -> it.appendAll(books));
+        this.catalogVersion.updateAndGet(CatalogVersion::next);
         return books;
     }
 
     @Override
     public Optional<Book> findOneById(final String id) {
         return this.books
-                .stream()
-                .filter(it -> it.getId().equals(id))
-                .findFirst();
+                .get()
+                .find(it -> it.getId().equals(id))
+                .toJavaOptional();
     }
 
     @Override
     public Collection<Book> findAll() {
-        return this.books;
+        return this.books
+                .get()
+                .asJava();
+    }
+
+    @Override
+    public long size() {
+        return this.books
+                .get()
+                .size();
+    }
+
+    // One scan keeping the limit smallest ids past the cursor, a page neither sorts nor copies the whole catalog.
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        if (limit <= 0)
+            return List.of();
+
+        final var snapshot = this.books.get();
+        final var smallest = new PriorityQueue<>(Math.max(1, Math.min(limit, snapshot.size())), BY_ID.reversed());
+        for (final var book : snapshot) {
+            if (Objects.nonNull(cursor) && book.getId().compareTo(cursor) <= 0)
+                continue;
+            if (smallest.size() < limit) {
+                smallest.add(book);
+            } else if (BY_ID.compare(book, smallest.peek()) < 0) {
+                smallest.poll();
+                smallest.add(book);
+            }
+        }
+        final var page = new ArrayList<>(smallest);
+        page.sort(BY_ID);
+        return Collections.unmodifiableList(page);
     }
 
     @Override
     public Optional<Book> updateOne(final Book book) {
-        final var bookToBeUpdated = deleteOneById(book.getId());
+        return replaceIfPresent(book);
+    }
 
-        if (bookToBeUpdated.isPresent()) {
-            this.books.add(book);
-            return Optional.ofNullable(book);
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        while (true) {
+            final var snapshot = this.books.get();
+            if (snapshot.exists(it -> it.getId().equals(book.getId())))
+                return Optional.empty();
+            if (this.books.compareAndSet(snapshot, snapshot.append(book))) {
+                this.catalogVersion.updateAndGet(CatalogVersion::next);
+                return Optional.of(book);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        while (true) {
+            final var snapshot = this.books.get();
+            final var index = snapshot.indexWhere(it -> it.getId().equals(book.getId()));
+            if (index < 0)
+                return Optional.empty();
+            if (this.books.compareAndSet(snapshot, snapshot.update(index, book))) {
+                this.catalogVersion.updateAndGet(CatalogVersion::next);
+                return Optional.of(book);
+            }
         }
-        return Optional.empty();
     }
 
     @Override
     public Optional<Book> deleteOneById(final String id) {
-        final var bookToBeDeleted = findOneById(id);
-
-        if (bookToBeDeleted.isPresent()) {
-            this.books =
-                    this.books
-                            .stream()
-                            .filter(Predicate.not(it -> it.getId().equals(id)))
-                            .collect(Collectors.toList());
+        while (true) {
+            final var snapshot = this.books.get();
+            final var index = snapshot.indexWhere(it -> it.getId().equals(id));
+            if (index < 0)
+                return Optional.empty();
+            if (this.books.compareAndSet(snapshot, snapshot.removeAt(index))) {
+                this.catalogVersion.updateAndGet(CatalogVersion::next);
+                return Optional.of(snapshot.get(index));
+            }
+        }
+    }
+
+    // The absent books are appended in one snapshot swap, in batch order.
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        final var requestedBooks = new LinkedHashMap<String, Book>(Math.max(16, books.size() * 4 / 3 + 1));
+        for (final var book : books) {
+            requestedBooks.put(book.getId(), book);
+        }
+        while (true) {
+            final var snapshot = this.books.get();
+            final var absentBooks = new LinkedHashMap<>(requestedBooks);
+            for (final var book : snapshot) {
+                absentBooks.remove(book.getId());
+            }
+            if (absentBooks.isEmpty())
+                return List.of();
+            final var savedBooks = List.copyOf(absentBooks.values());
+            if (this.books.compareAndSet(snapshot, snapshot.appendAll(savedBooks))) {
+                this.catalogVersion.updateAndGet(CatalogVersion::next);
+                return savedBooks;
+            }
         }
+    }
+
+    // Like updateOne, only the first book of an id is replaced, the whole batch lands in one snapshot swap.
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        final var replacements = new HashMap<String, Book>(Math.max(16, books.size() * 4 / 3 + 1));
+        for (final var book : books) {
+            replacements.put(book.getId(), book);
+        }
+        while (true) {
+            final var snapshot = this.books.get();
+            final var pending = new HashMap<>(replacements);
+            final var updatedBooks = new ArrayList<Book>(replacements.size());
+            final var updated = snapshot.map(it -> {
+                final var replacement = pending.remove(it.getId());
+                if (Objects.isNull(replacement))
+                    return it;
+                updatedBooks.add(replacement);
+                return replacement;
+            });
+            if (updatedBooks.isEmpty())
+                return List.of();
+            if (this.books.compareAndSet(snapshot, updated)) {
+                this.catalogVersion.updateAndGet(CatalogVersion::next);
+                return Collections.unmodifiableList(updatedBooks);
+            }
+        }
+    }
 
-        return bookToBeDeleted;
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        final var requestedIds = new HashSet<>(ids);
+        while (true) {
+            final var snapshot = this.books.get();
+            final var pending = new HashSet<>(requestedIds);
+            final var deletedBooks = new ArrayList<Book>(requestedIds.size());
+            final var remaining = snapshot.filter(it -> {
+                if (!pending.remove(it.getId()))
+                    return true;
+                deletedBooks.add(it);
+                return false;
+            });
+            if (deletedBooks.isEmpty())
+                return List.of();
+            if (this.books.compareAndSet(snapshot, remaining)) {
+                this.catalogVersion.updateAndGet(CatalogVersion::next);
+                return Collections.unmodifiableList(deletedBooks);
+            }
+        }
     }
 
     @Override
     public void deleteAll() {
-        this.books = new ArrayList<Book>();
+        this.books.set(Vector.empty());
+        this.catalogVersion.updateAndGet(CatalogVersion::next);
     }
 
     @Override
     public boolean isExist(final String id) {
         return this.books
-                .stream()
-                .anyMatch(it -> it.getId().equals(id));
+                .get()
+                .exists(it -> it.getId().equals(id));
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        final var requestedIds = new HashSet<>(ids);
+        return this.books
+                .get()
+                .map(Book::getId)
+                .filter(requestedIds::contains)
+                .toJavaSet();
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        final var requestedIds = new HashSet<>(ids);
+        final var books = new HashMap<String, Book>();
+        // The first book of an id wins, like findOneById.
+        for (final var book : this.books.get()) {
+            if (requestedIds.contains(book.getId()))
+                books.putIfAbsent(book.getId(), book);
+            if (books.size() == requestedIds.size())
+                break;
+        }
+        return books;
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.catalogVersion.get();
     }
 }
@@ -0,0 +1,311 @@
+package org.training.repository;
+
+import org.jboss.logging.Logger;
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a {@link BookNameIndex} in step with the wrapped repository and answers {@link #search} from it.
+ * <p>
+ * A mutation and its index update run under the stripe lock of the id, so concurrent writes to one id reach the
+ * index in the order they reached the repository. Batch writes lock every stripe they touch, in stripe order.
+ * <p>
+ * The books already stored are indexed by a background thread, searches scan the repository until it is done. The
+ * index holds ids only, the name an id had before a write is read back from the repository under its stripe lock.
+ */
+public class IndexedBookRepository implements IBookRepository, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(IndexedBookRepository.class);
+    private static final int STRIPES = 64;
+    private static final boolean[] ALL_STRIPES = new boolean[STRIPES];
+
+    static {
+        Arrays.fill(ALL_STRIPES, true);
+    }
+
+    private final IBookRepository bookRepository;
+    private final BookNameIndex index;
+    private final ReentrantLock[] stripes;
+    private volatile boolean built;
+    private volatile boolean closed;
+
+    public IndexedBookRepository(final IBookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+        this.index = new BookNameIndex();
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        final var builder = new Thread(this::build, "book-name-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        return write(book.getId(), () -> {
+            final var previousName = nameOf(this.bookRepository.findOneById(book.getId()));
+            final var savedBook = this.bookRepository.saveOne(book);
+            this.index.put(book.getId(), previousName, book.getName());
+            return savedBook;
+        });
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        final var touched = touchedStripes(books, Book::getId);
+        lockStripes(touched);
+        try {
+            final var previousNames = previousNamesOf(books);
+            final var savedBooks = this.bookRepository.saveAll(books);
+            books.forEach(it -> index(previousNames, it));
+            return savedBooks;
+        } finally {
+            unlockStripes(touched);
+        }
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return this.bookRepository.findOneById(id);
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return this.bookRepository.findAll();
+    }
+
+    @Override
+    public long size() {
+        return this.bookRepository.size();
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        return this.bookRepository.findPage(cursor, limit);
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return replace(book, this.bookRepository::updateOne);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        return write(book.getId(), () -> {
+            final var savedBook = this.bookRepository.saveIfAbsent(book);
+            savedBook.ifPresent(it -> this.index.put(it.getId(), null, it.getName()));
+            return savedBook;
+        });
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return replace(book, this.bookRepository::replaceIfPresent);
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        return write(id, () -> {
+            final var deletedBook = this.bookRepository.deleteOneById(id);
+            deletedBook.ifPresent(it -> this.index.remove(id, it.getName()));
+            return deletedBook;
+        });
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        final var touched = touchedStripes(books, Book::getId);
+        lockStripes(touched);
+        try {
+            final var savedBooks = this.bookRepository.saveAllIfAbsent(books);
+            savedBooks.forEach(it -> this.index.put(it.getId(), null, it.getName()));
+            return savedBooks;
+        } finally {
+            unlockStripes(touched);
+        }
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        final var touched = touchedStripes(books, Book::getId);
+        lockStripes(touched);
+        try {
+            final var previousNames = previousNamesOf(books);
+            final var updatedBooks = this.bookRepository.updateAll(books);
+            updatedBooks.forEach(it -> index(previousNames, it));
+            return updatedBooks;
+        } finally {
+            unlockStripes(touched);
+        }
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        final var touched = touchedStripes(ids, Function.identity());
+        lockStripes(touched);
+        try {
+            final var deletedBooks = this.bookRepository.deleteAllByIds(ids);
+            deletedBooks.forEach(it -> this.index.remove(it.getId(), it.getName()));
+            return deletedBooks;
+        } finally {
+            unlockStripes(touched);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        lockStripes(ALL_STRIPES);
+        try {
+            this.bookRepository.deleteAll();
+            this.index.clear();
+        } finally {
+            unlockStripes(ALL_STRIPES);
+        }
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return this.bookRepository.isExist(id);
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return this.bookRepository.existing(ids);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        return this.bookRepository.findAllByIds(ids);
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.bookRepository.catalogVersion();
+    }
+
+    @Override
+    public List<Book> search(final String query, final int limit) {
+        return this.built
+                ? this.index.search(query, limit, this.bookRepository)
+                : this.bookRepository.search(query, limit);
+    }
+
+    boolean isBuilt() {
+        return this.built;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return this.bookRepository.isBlocking();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        if (this.bookRepository instanceof Closeable)
+            ((Closeable) this.bookRepository).close();
+    }
+
+    /**
+     * Indexes the books stored before the index existed. Each one is read back under its stripe lock, so a book
+     * written or deleted meanwhile is indexed by its latest write rather than by the copy listed here.
+     */
+    private void build() {
+        try {
+            for (final var book : this.bookRepository.findAll()) {
+                if (this.closed)
+                    return;
+                write(book.getId(), () -> {
+                    this.bookRepository
+                            .findOneById(book.getId())
+                            .ifPresent(it -> this.index.put(it.getId(), null, it.getName()));
+                    return null;
+                });
+            }
+            this.built = true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to build the book name index, searches keep scanning the repository", e);
+        }
+    }
+
+    private Optional<Book> replace(final Book book, final Function<Book, Optional<Book>> operation) {
+        return write(book.getId(), () -> {
+            final var previousName = nameOf(this.bookRepository.findOneById(book.getId()));
+            final var replacedBook = operation.apply(book);
+            replacedBook.ifPresent(it -> this.index.put(it.getId(), previousName, it.getName()));
+            return replacedBook;
+        });
+    }
+
+    private Map<String, String> previousNamesOf(final Collection<Book> books) {
+        final var previousNames = new HashMap<String, String>();
+        this.bookRepository
+                .findAllByIds(
+                        books
+                                .stream()
+                                .map(Book::getId)
+                                .collect(Collectors.toUnmodifiableSet())
+                )
+                .forEach((id, book) -> previousNames.put(id, book.getName()));
+        return previousNames;
+    }
+
+    // The names are advanced as the batch is indexed, a book repeated in the batch replaces the one before it.
+    private void index(final Map<String, String> previousNames, final Book book) {
+        this.index.put(book.getId(), previousNames.put(book.getId(), book.getName()), book.getName());
+    }
+
+    private static String nameOf(final Optional<Book> book) {
+        return book.map(Book::getName).orElse(null);
+    }
+
+    private <T> T write(final String id, final Supplier<T> operation) {
+        final var stripe = this.stripes[stripeOf(id)];
+        stripe.lock();
+        try {
+            return operation.get();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private static <T> boolean[] touchedStripes(final Collection<T> items, final Function<T, String> idOf) {
+        final var touched = new boolean[STRIPES];
+        for (final var item : items) {
+            touched[stripeOf(idOf.apply(item))] = true;
+        }
+        return touched;
+    }
+
+    private static int stripeOf(final String id) {
+        return Math.floorMod(Objects.hashCode(id), STRIPES);
+    }
+
+    private void lockStripes(final boolean[] stripes) {
+        for (int i = 0; i < STRIPES; i++) {
+            if (stripes[i])
+                this.stripes[i].lock();
+        }
+    }
+
+    private void unlockStripes(final boolean[] stripes) {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            if (stripes[i])
+                this.stripes[i].unlock();
+        }
+    }
+}
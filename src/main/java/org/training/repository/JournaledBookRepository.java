@@ -0,0 +1,422 @@
+package org.training.repository;
+
+import org.jboss.logging.Logger;
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Durable repository: reads are served by an in-memory {@link ConcurrentBookRepository}, every mutation is appended
+ * to a {@link BookJournal} and acknowledged once fsynced.
+ * <p>
+ * A mutation reaches the in-memory books only once its record is durable, so a failed append changes nothing a reader
+ * could see. The stripe lock of the id is held from checking the current book to applying the change, writers to
+ * other stripes share the fsyncs meanwhile.
+ * <p>
+ * The state on disk is {@code snapshot-<generation>.bin} plus {@code journal-<generation>.log} files. A snapshot of
+ * generation G holds everything written before {@code journal-G} was opened, so recovery loads the newest snapshot
+ * and replays the journals from its generation on.
+ */
+public class JournaledBookRepository implements IBookRepository, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(JournaledBookRepository.class);
+    private static final Pattern FILE_PATTERN = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+    private static final int STRIPES = 64;
+
+    private final Path directory;
+    private final long snapshotEvery;
+    private final ConcurrentBookRepository books;
+    // Mutations share the read lock, snapshots and deleteAll take the write lock to see a quiescent journal.
+    private final ReentrantReadWriteLock lock;
+    // Keeps the index and the journal in the same order for concurrent mutations of one id.
+    private final ReentrantLock[] stripes;
+    private final AtomicLong mutationsSinceSnapshot;
+    private final AtomicBoolean snapshotRunning;
+    private final ExecutorService snapshotExecutor;
+    private final BookJournal journal;
+    private long generation;
+
+    public JournaledBookRepository(final Path directory, final long snapshotEvery) {
+        this.directory = directory;
+        this.snapshotEvery = snapshotEvery;
+        this.books = new ConcurrentBookRepository();
+        this.lock = new ReentrantReadWriteLock();
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mutationsSinceSnapshot = new AtomicLong();
+        this.snapshotRunning = new AtomicBoolean();
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(it -> {
+            final var thread = new Thread(it, "book-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(directory);
+            this.generation = recover();
+            this.journal = new BookJournal(journalPath(this.generation));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        return write(book.getId(), it -> BookMutation.save(book), it -> it.saveOne(book));
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        writeAll(books, Book::getId, (it, book) -> BookMutation.save(book), (it, book) -> Optional.of(it.saveOne(book)));
+        return books;
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return this.books.findOneById(id);
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return this.books.findAll();
+    }
+
+    @Override
+    public long size() {
+        return this.books.size();
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        return this.books.findPage(cursor, limit);
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return replaceIfPresent(book);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        return write(
+                book.getId(),
+                it -> it.isExist(book.getId()) ? null : BookMutation.save(book),
+                it -> it.saveIfAbsent(book));
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return write(
+                book.getId(),
+                it -> it.isExist(book.getId()) ? BookMutation.save(book) : null,
+                it -> it.replaceIfPresent(book));
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        if (Objects.isNull(id))
+            return Optional.empty();
+
+        return write(
+                id,
+                it -> it.isExist(id) ? BookMutation.delete(id) : null,
+                it -> it.deleteOneById(id));
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        // Only the first book of an id can be saved, a later one would be journaled as absent as well.
+        final var firstById = new LinkedHashMap<String, Book>();
+        for (final var book : books) {
+            firstById.putIfAbsent(book.getId(), book);
+        }
+        return writeAll(
+                firstById.values(),
+                Book::getId,
+                (it, book) -> it.isExist(book.getId()) ? null : BookMutation.save(book),
+                IBookRepository::saveIfAbsent);
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        return writeAll(
+                books,
+                Book::getId,
+                (it, book) -> it.isExist(book.getId()) ? BookMutation.save(book) : null,
+                IBookRepository::replaceIfPresent);
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        return writeAll(
+                ids,
+                Function.identity(),
+                (it, id) -> it.isExist(id) ? BookMutation.delete(id) : null,
+                IBookRepository::deleteOneById);
+    }
+
+    @Override
+    public void deleteAll() {
+        this.lock.writeLock().lock();
+        try {
+            this.journal.append(BookMutation.deleteAll()).join();
+            this.books.deleteAll();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        afterMutations(1);
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return this.books.isExist(id);
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return this.books.existing(ids);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        return this.books.findAllByIds(ids);
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.books.catalogVersion();
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    /**
+     * Writes a compacted snapshot of the current books and drops the journals it makes redundant.
+     */
+    public void snapshot() {
+        final List<Book> books;
+        final long snapshotGeneration;
+        this.lock.writeLock().lock();
+        try {
+            books = List.copyOf(this.books.findAll());
+            snapshotGeneration = this.generation + 1;
+            this.journal.rotate(journalPath(snapshotGeneration));
+            this.generation = snapshotGeneration;
+            this.mutationsSinceSnapshot.set(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        try {
+            BookJournal.writeSnapshot(snapshotPath(snapshotGeneration), books);
+            try (final var files = Files.list(this.directory)) {
+                final var obsoleteFiles =
+                        files
+                                .filter(it -> generationOf(it) >= 0 && generationOf(it) < snapshotGeneration)
+                                .collect(Collectors.toUnmodifiableList());
+                for (final var obsoleteFile : obsoleteFiles) {
+                    Files.deleteIfExists(obsoleteFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A running snapshot is waited for, it would otherwise rotate a closed journal.
+    @Override
+    public void close() throws IOException {
+        this.snapshotExecutor.shutdown();
+        try {
+            while (!this.snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Waiting for the book journal snapshot in " + this.directory + " before closing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the book journal snapshot");
+        }
+        this.lock.writeLock().lock();
+        try {
+            this.journal.close();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Journals the mutation {@code mutationOf} derives from the current books, null when the write changes nothing,
+     * and applies the operation once the record is durable.
+     */
+    private <T> T write(final String id, final Function<IBookRepository, BookMutation> mutationOf, final Function<IBookRepository, T> operation) {
+        final T result;
+        this.lock.readLock().lock();
+        try {
+            final var stripe = stripe(id);
+            stripe.lock();
+            try {
+                final var mutation = mutationOf.apply(this.books);
+                if (Objects.isNull(mutation))
+                    return operation.apply(this.books);
+                this.journal.append(mutation).join();
+                result = operation.apply(this.books);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        afterMutations(1);
+        return result;
+    }
+
+    // Like write, for a batch: its stripes are locked in stripe order and it waits for the journal once, on its last record.
+    private <T> Collection<Book> writeAll(
+            final Collection<T> items,
+            final Function<T, String> idOf,
+            final BiFunction<IBookRepository, T, BookMutation> mutationOf,
+            final BiFunction<IBookRepository, T, Optional<Book>> operation) {
+        final var touched = new boolean[STRIPES];
+        for (final var item : items) {
+            touched[stripeOf(idOf.apply(item))] = true;
+        }
+        final var changedBooks = new ArrayList<Book>(items.size());
+        this.lock.readLock().lock();
+        lockStripes(touched);
+        try {
+            final var journaledItems = new ArrayList<T>(items.size());
+            CompletableFuture<Void> appended = CompletableFuture.completedFuture(null);
+            for (final var item : items) {
+                final var mutation = mutationOf.apply(this.books, item);
+                if (Objects.nonNull(mutation)) {
+                    journaledItems.add(item);
+                    appended = this.journal.append(mutation);
+                }
+            }
+            // The journal is written in order by a single thread, so the last record being durable covers the batch.
+            appended.join();
+            for (final var item : journaledItems) {
+                operation.apply(this.books, item).ifPresent(changedBooks::add);
+            }
+        } finally {
+            unlockStripes(touched);
+            this.lock.readLock().unlock();
+        }
+        if (!changedBooks.isEmpty())
+            afterMutations(changedBooks.size());
+        return Collections.unmodifiableList(changedBooks);
+    }
+
+    private void afterMutations(final int count) {
+        if (this.mutationsSinceSnapshot.addAndGet(count) < this.snapshotEvery
+                || this.snapshotExecutor.isShutdown()
+                || !this.snapshotRunning.compareAndSet(false, true))
+            return;
+
+        this.snapshotExecutor.execute(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to snapshot the book journal in " + this.directory, e);
+            } finally {
+                this.snapshotRunning.set(false);
+            }
+        });
+    }
+
+    private long recover() throws IOException {
+        final List<Path> files;
+        try (final var listing = Files.list(this.directory)) {
+            files = listing
+                    .filter(it -> generationOf(it) >= 0)
+                    .sorted((left, right) -> Long.compare(generationOf(left), generationOf(right)))
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        final var snapshotGeneration =
+                files
+                        .stream()
+                        .filter(it -> it.getFileName().toString().startsWith("snapshot-"))
+                        .mapToLong(JournaledBookRepository::generationOf)
+                        .max()
+                        .orElse(0);
+        if (snapshotGeneration > 0)
+            this.books.saveAll(BookJournal.readSnapshot(snapshotPath(snapshotGeneration)));
+
+        var lastGeneration = snapshotGeneration;
+        for (final var file : files) {
+            final var fileGeneration = generationOf(file);
+            if (file.getFileName().toString().startsWith("journal-") && fileGeneration >= snapshotGeneration) {
+                BookJournal.replay(file, it -> it.applyTo(this.books));
+                lastGeneration = Math.max(lastGeneration, fileGeneration);
+            }
+        }
+        return lastGeneration;
+    }
+
+    private ReentrantLock stripe(final String id) {
+        return this.stripes[stripeOf(id)];
+    }
+
+    private static int stripeOf(final String id) {
+        return Math.floorMod(Objects.hashCode(id), STRIPES);
+    }
+
+    private void lockStripes(final boolean[] touched) {
+        for (int i = 0; i < STRIPES; i++) {
+            if (touched[i])
+                this.stripes[i].lock();
+        }
+    }
+
+    private void unlockStripes(final boolean[] touched) {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            if (touched[i])
+                this.stripes[i].unlock();
+        }
+    }
+
+    private Path snapshotPath(final long generation) {
+        return this.directory.resolve(String.format("snapshot-%012d.bin", generation));
+    }
+
+    private Path journalPath(final long generation) {
+        return this.directory.resolve(String.format("journal-%012d.log", generation));
+    }
+
+    private static long generationOf(final Path path) {
+        final var matcher = FILE_PATTERN.matcher(path.getFileName().toString());
+        return matcher.matches()
+                ? Long.parseLong(matcher.group(2))
+                : -1;
+    }
+}
@@ -0,0 +1,239 @@
+package org.training.repository;
+
+import org.training.model.Book;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only repository over a catalog file written by {@link BookCatalogBuilder}.
+ * <p>
+ * The file is memory-mapped, so opening it costs the same whatever the catalog size and the books stay in the page
+ * cache instead of the heap. Lookups probe the on-disk hash table, {@link Book}s are only materialized when read.
+ */
+public class MappedCatalogBookRepository implements IBookRepository {
+    private static final String READ_ONLY = "The mapped book catalog is read-only";
+
+    private final MappedByteBuffer catalog;
+    private final int count;
+    private final int tableSize;
+    private final int sortedIndexOffset;
+    private final List<Book> books;
+    private final CatalogVersion catalogVersion;
+
+    public MappedCatalogBookRepository(final Path path) {
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Catalog exceeds the 2GB limit of a single mapping: " + path);
+            this.catalog = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // The catalog never changes once mapped, the file timestamp keeps tags stable across restarts.
+            final var lastModified = Files.getLastModifiedTime(path).toMillis();
+            this.catalogVersion = new CatalogVersion(lastModified ^ channel.size(), 0, lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (this.catalog.getInt(0) != BookCatalogBuilder.MAGIC || this.catalog.getInt(Integer.BYTES) != BookCatalogBuilder.VERSION)
+            throw new IllegalArgumentException("Not a book catalog: " + path);
+
+        this.count = this.catalog.getInt(Integer.BYTES * 2);
+        this.tableSize = this.catalog.getInt(Integer.BYTES * 3);
+        this.sortedIndexOffset = BookCatalogBuilder.HEADER_SIZE + Integer.BYTES * this.tableSize;
+        this.books = new CatalogView();
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        final var offset = offsetOf(id);
+        return offset == 0
+                ? Optional.empty()
+                : Optional.of(readBook(offset));
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return this.books;
+    }
+
+    @Override
+    public long size() {
+        return this.count;
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        final var from = Objects.isNull(cursor) ? 0 : firstIndexAfter(cursor);
+        return this.books.subList(from, Math.min(this.count, from + limit));
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public void deleteAll() {
+        throw new BookCatalogReadOnlyException(READ_ONLY);
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return offsetOf(id) != 0;
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return ids
+                .stream()
+                .filter(this::isExist)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        final var books = new HashMap<String, Book>();
+        for (final var id : ids) {
+            final var offset = offsetOf(id);
+            if (offset != 0)
+                books.put(id, readBook(offset));
+        }
+        return books;
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.catalogVersion;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    static int slotOf(final String id, final int tableSize) {
+        final var hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (tableSize - 1);
+    }
+
+    private int offsetOf(final String id) {
+        if (Objects.isNull(id))
+            return 0;
+
+        final var idBytes = id.getBytes(StandardCharsets.UTF_8);
+        var slot = slotOf(id, this.tableSize);
+        while (true) {
+            final var offset = this.catalog.getInt(BookCatalogBuilder.HEADER_SIZE + Integer.BYTES * slot);
+            if (offset == 0 || idEquals(offset, idBytes))
+                return offset;
+            slot = (slot + 1) & (this.tableSize - 1);
+        }
+    }
+
+    private boolean idEquals(final int offset, final byte[] idBytes) {
+        if (this.catalog.getInt(offset) != idBytes.length)
+            return false;
+        for (int i = 0; i < idBytes.length; i++) {
+            if (this.catalog.get(offset + Integer.BYTES + i) != idBytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    // Binary search on the sorted index, ids are compared as strings to match the order the builder sorted them in.
+    private int firstIndexAfter(final String cursor) {
+        var low = 0;
+        var high = this.count;
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+            if (readString(sortedOffset(middle)).compareTo(cursor) <= 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private int sortedOffset(final int index) {
+        return this.catalog.getInt(this.sortedIndexOffset + Integer.BYTES * index);
+    }
+
+    private Book readBook(final int offset) {
+        final var id = readString(offset);
+        final var nameOffset = offset + Integer.BYTES + this.catalog.getInt(offset);
+        return new Book(id, readString(nameOffset));
+    }
+
+    private String readString(final int offset) {
+        final var bytes = new byte[this.catalog.getInt(offset)];
+        // Absolute reads on a duplicate keep the shared buffer position untouched for concurrent readers.
+        this.catalog.duplicate().position(offset + Integer.BYTES).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private final class CatalogView extends AbstractList<Book> {
+        @Override
+        public Book get(final int index) {
+            Objects.checkIndex(index, count);
+            return readBook(sortedOffset(index));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.training.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency and throughput of every call to the wrapped repository, tagged with its implementation, and
+ * publishes the catalog size.
+ */
+public class MeteredBookRepository implements IBookRepository, Closeable {
+    private final IBookRepository bookRepository;
+    private final Timer saveOne;
+    private final Timer saveAll;
+    private final Timer findOneById;
+    private final Timer findAll;
+    private final Timer findPage;
+    private final Timer updateOne;
+    private final Timer saveIfAbsent;
+    private final Timer replaceIfPresent;
+    private final Timer deleteOneById;
+    private final Timer saveAllIfAbsent;
+    private final Timer updateAll;
+    private final Timer deleteAllByIds;
+    private final Timer deleteAll;
+    private final Timer isExist;
+    private final Timer existing;
+    private final Timer findAllByIds;
+    private final Timer search;
+
+    public MeteredBookRepository(final IBookRepository bookRepository, final MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        final var repository = bookRepository.getClass().getSimpleName();
+        this.saveOne = timer(meterRegistry, repository, "saveOne");
+        this.saveAll = timer(meterRegistry, repository, "saveAll");
+        this.findOneById = timer(meterRegistry, repository, "findOneById");
+        this.findAll = timer(meterRegistry, repository, "findAll");
+        this.findPage = timer(meterRegistry, repository, "findPage");
+        this.updateOne = timer(meterRegistry, repository, "updateOne");
+        this.saveIfAbsent = timer(meterRegistry, repository, "saveIfAbsent");
+        this.replaceIfPresent = timer(meterRegistry, repository, "replaceIfPresent");
+        this.deleteOneById = timer(meterRegistry, repository, "deleteOneById");
+        this.saveAllIfAbsent = timer(meterRegistry, repository, "saveAllIfAbsent");
+        this.updateAll = timer(meterRegistry, repository, "updateAll");
+        this.deleteAllByIds = timer(meterRegistry, repository, "deleteAllByIds");
+        this.deleteAll = timer(meterRegistry, repository, "deleteAll");
+        this.isExist = timer(meterRegistry, repository, "isExist");
+        this.existing = timer(meterRegistry, repository, "existing");
+        this.findAllByIds = timer(meterRegistry, repository, "findAllByIds");
+        this.search = timer(meterRegistry, repository, "search");
+        Gauge
+                .builder("book.catalog.size", bookRepository, IBookRepository::size)
+                .description("Books currently stored")
+                .tag("repository", repository)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        return this.saveOne.record(() -> this.bookRepository.saveOne(book));
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        return this.saveAll.record(() -> this.bookRepository.saveAll(books));
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return this.findOneById.record(() -> this.bookRepository.findOneById(id));
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return this.findAll.record(this.bookRepository::findAll);
+    }
+
+    // Not timed, it is read by the catalog size gauge on every scrape.
+    @Override
+    public long size() {
+        return this.bookRepository.size();
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        return this.findPage.record(() -> this.bookRepository.findPage(cursor, limit));
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return this.updateOne.record(() -> this.bookRepository.updateOne(book));
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        return this.saveIfAbsent.record(() -> this.bookRepository.saveIfAbsent(book));
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return this.replaceIfPresent.record(() -> this.bookRepository.replaceIfPresent(book));
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        return this.deleteOneById.record(() -> this.bookRepository.deleteOneById(id));
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        return this.saveAllIfAbsent.record(() -> this.bookRepository.saveAllIfAbsent(books));
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        return this.updateAll.record(() -> this.bookRepository.updateAll(books));
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        return this.deleteAllByIds.record(() -> this.bookRepository.deleteAllByIds(ids));
+    }
+
+    @Override
+    public void deleteAll() {
+        this.deleteAll.record(this.bookRepository::deleteAll);
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        // Timed by hand to keep the hottest read free of boxing.
+        final var start = System.nanoTime();
+        try {
+            return this.bookRepository.isExist(id);
+        } finally {
+            this.isExist.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return this.existing.record(() -> this.bookRepository.existing(ids));
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        return this.findAllByIds.record(() -> this.bookRepository.findAllByIds(ids));
+    }
+
+    @Override
+    public List<Book> search(final String query, final int limit) {
+        return this.search.record(() -> this.bookRepository.search(query, limit));
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.bookRepository.catalogVersion();
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return this.bookRepository.isBlocking();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.bookRepository instanceof Closeable)
+            ((Closeable) this.bookRepository).close();
+    }
+
+    private static Timer timer(final MeterRegistry meterRegistry, final String repository, final String operation) {
+        return
+                Timer
+                        .builder("book.repository.calls")
+                        .description("Repository call latency, the count is the throughput")
+                        .tag("repository", repository)
+                        .tag("operation", operation)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+    }
+}
@@ -0,0 +1,671 @@
+package org.training.repository;
+
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the books outside the heap: ids and names are UTF-8 encoded into direct {@link ByteBuffer} arenas and found
+ * through an open-addressing table of primitive record addresses, {@link Book}s are only created when read.
+ * <p>
+ * Whatever the catalog size, the heap only holds two primitive arrays the collector never has to trace. Records are
+ * never modified once written: a replaced or deleted book leaves garbage behind, and once the garbage outgrows the
+ * live records they are compacted into fresh arenas. {@link #findAll()} is a view over a snapshot of the addresses,
+ * {@link #findPage} scans the table and only keeps the next {@code limit} ids.
+ */
+public class OffHeapBookRepository implements IBookRepository, Closeable {
+    public static final int DEFAULT_ARENA_SIZE = 64 * 1024 * 1024;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+    private static final int ABSENT = -1;
+    private static final int NULL_NAME = -1;
+
+    private final int arenaSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Replaced rather than grown in place, so a findAll view keeps exactly the arenas its addresses point into.
+    private ByteBuffer[] arenas;
+    // Next free byte of the last arena.
+    private int position;
+    // Record address per slot, arena index + 1 in the high half and offset in the low half, or EMPTY or DELETED.
+    private long[] addresses;
+    private int[] hashes;
+    private int size;
+    private int deleted;
+    private long liveBytes;
+    private long garbageBytes;
+    // Advanced under the write lock once a change is applied, read without it.
+    private volatile CatalogVersion catalogVersion;
+
+    public OffHeapBookRepository(final int arenaSize) {
+        if (arenaSize <= 0)
+            throw new IllegalArgumentException("Arena size must be positive: " + arenaSize);
+
+        this.arenaSize = arenaSize;
+        this.catalogVersion = CatalogVersion.initial();
+        reset();
+    }
+
+    public OffHeapBookRepository() {
+        this(DEFAULT_ARENA_SIZE);
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        this.lock.writeLock().lock();
+        try {
+            put(book);
+            advance();
+            return book;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        if (books.isEmpty())
+            return books;
+
+        requireEncodable(books);
+        this.lock.writeLock().lock();
+        try {
+            for (final var book : books) {
+                put(book);
+            }
+            advance();
+            return books;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        if (Objects.isNull(id))
+            return Optional.empty();
+
+        final var idBytes = encode(id);
+        final var hash = hash(id);
+        this.lock.readLock().lock();
+        try {
+            final var slot = slotOf(idBytes, hash);
+            return slot == ABSENT
+                    ? Optional.empty()
+                    : Optional.of(readBook(this.arenas, this.addresses[slot]));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        this.lock.readLock().lock();
+        try {
+            final var addresses = new long[this.size];
+            var count = 0;
+            for (final var address : this.addresses) {
+                if (isLive(address))
+                    addresses[count++] = address;
+            }
+            return new BooksView(this.arenas, addresses);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        this.lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        if (limit <= 0)
+            return List.of();
+
+        final var cursorId = Objects.isNull(cursor) ? null : idRecord(encode(cursor));
+        this.lock.readLock().lock();
+        try {
+            // A sorted index would cost the heap a reference per book, a scan keeping the limit smallest ids does not.
+            final var arenas = this.arenas;
+            final Comparator<Long> byId = (left, right) -> compareIds(arenas, left, right);
+            final var smallest = new PriorityQueue<>(Math.max(1, Math.min(limit, this.size)), byId.reversed());
+            for (final var address : this.addresses) {
+                if (!isLive(address))
+                    continue;
+                if (Objects.nonNull(cursorId) && compareIds(arenas[arenaIndex(address)], offset(address), cursorId, 0) <= 0)
+                    continue;
+                if (smallest.size() < limit) {
+                    smallest.add(address);
+                } else if (byId.compare(address, smallest.peek()) < 0) {
+                    smallest.poll();
+                    smallest.add(address);
+                }
+            }
+            final var page = new ArrayList<>(smallest);
+            page.sort(byId);
+            return page
+                    .stream()
+                    .map(it -> readBook(arenas, it))
+                    .collect(Collectors.toUnmodifiableList());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return replaceIfPresent(book);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        final var idBytes = encode(book.getId());
+        final var hash = hash(book.getId());
+        this.lock.writeLock().lock();
+        try {
+            if (slotOf(idBytes, hash) != ABSENT)
+                return Optional.empty();
+            ensureCapacity();
+            insert(hash, write(idBytes, book.getName()));
+            advance();
+            return Optional.of(book);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        final var idBytes = encode(book.getId());
+        final var hash = hash(book.getId());
+        this.lock.writeLock().lock();
+        try {
+            if (!replace(idBytes, hash, book.getName()))
+                return Optional.empty();
+            advance();
+            compactIfWasteful();
+            return Optional.of(book);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        if (Objects.isNull(id))
+            return Optional.empty();
+
+        final var idBytes = encode(id);
+        final var hash = hash(id);
+        this.lock.writeLock().lock();
+        try {
+            final var deletedBook = remove(idBytes, hash);
+            if (Objects.isNull(deletedBook))
+                return Optional.empty();
+            advance();
+            compactIfWasteful();
+            return Optional.of(deletedBook);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        requireEncodable(books);
+        final var savedBooks = new ArrayList<Book>(books.size());
+        this.lock.writeLock().lock();
+        try {
+            for (final var book : books) {
+                final var idBytes = encode(book.getId());
+                final var hash = hash(book.getId());
+                if (slotOf(idBytes, hash) != ABSENT)
+                    continue;
+                ensureCapacity();
+                insert(hash, write(idBytes, book.getName()));
+                savedBooks.add(book);
+            }
+            if (savedBooks.isEmpty())
+                return List.of();
+            advance();
+            return Collections.unmodifiableList(savedBooks);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    // The batch takes the write lock once and compacts at most once, after its last write.
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        requireEncodable(books);
+        final var updatedBooks = new ArrayList<Book>(books.size());
+        this.lock.writeLock().lock();
+        try {
+            for (final var book : books) {
+                if (replace(encode(book.getId()), hash(book.getId()), book.getName()))
+                    updatedBooks.add(book);
+            }
+            if (updatedBooks.isEmpty())
+                return List.of();
+            advance();
+            compactIfWasteful();
+            return Collections.unmodifiableList(updatedBooks);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        final var deletedBooks = new ArrayList<Book>(ids.size());
+        this.lock.writeLock().lock();
+        try {
+            for (final var id : ids) {
+                final var deletedBook = remove(encode(id), hash(id));
+                if (Objects.nonNull(deletedBook))
+                    deletedBooks.add(deletedBook);
+            }
+            if (deletedBooks.isEmpty())
+                return List.of();
+            advance();
+            compactIfWasteful();
+            return Collections.unmodifiableList(deletedBooks);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        this.lock.writeLock().lock();
+        try {
+            final var changed = this.size > 0;
+            reset();
+            if (changed)
+                advance();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        if (Objects.isNull(id))
+            return false;
+
+        final var idBytes = encode(id);
+        final var hash = hash(id);
+        this.lock.readLock().lock();
+        try {
+            return slotOf(idBytes, hash) != ABSENT;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return ids
+                .stream()
+                .filter(this::isExist)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        final var books = new HashMap<String, Book>();
+        this.lock.readLock().lock();
+        try {
+            for (final var id : ids) {
+                final var slot = slotOf(encode(id), hash(id));
+                if (slot != ABSENT)
+                    books.put(id, readBook(this.arenas, this.addresses[slot]));
+            }
+            return books;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.catalogVersion;
+    }
+
+    // Direct buffers have no explicit release, their memory goes back to the OS once the collector reclaims them.
+    @Override
+    public void close() {
+        this.lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    long allocatedBytes() {
+        this.lock.readLock().lock();
+        try {
+            return Arrays
+                    .stream(this.arenas)
+                    .mapToLong(ByteBuffer::capacity)
+                    .sum();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void put(final Book book) {
+        final var idBytes = encode(book.getId());
+        final var hash = hash(book.getId());
+        final var slot = slotOf(idBytes, hash);
+        final var address = write(idBytes, book.getName());
+        if (slot == ABSENT) {
+            ensureCapacity();
+            insert(hash, address);
+            return;
+        }
+        final var replaced = this.addresses[slot];
+        this.addresses[slot] = address;
+        release(replaced);
+        compactIfWasteful();
+    }
+
+    private boolean replace(final byte[] idBytes, final int hash, final String name) {
+        final var slot = slotOf(idBytes, hash);
+        if (slot == ABSENT)
+            return false;
+        final var replaced = this.addresses[slot];
+        this.addresses[slot] = write(idBytes, name);
+        release(replaced);
+        return true;
+    }
+
+    private Book remove(final byte[] idBytes, final int hash) {
+        final var slot = slotOf(idBytes, hash);
+        if (slot == ABSENT)
+            return null;
+        final var address = this.addresses[slot];
+        final var removedBook = readBook(this.arenas, address);
+        this.addresses[slot] = DELETED;
+        this.size--;
+        this.deleted++;
+        release(address);
+        return removedBook;
+    }
+
+    private int slotOf(final byte[] idBytes, final int hash) {
+        final var mask = this.addresses.length - 1;
+        for (var slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final var address = this.addresses[slot];
+            if (address == EMPTY)
+                return ABSENT;
+            if (address != DELETED && this.hashes[slot] == hash && idEquals(address, idBytes))
+                return slot;
+        }
+    }
+
+    private void insert(final int hash, final long address) {
+        final var mask = this.addresses.length - 1;
+        var slot = hash & mask;
+        while (isLive(this.addresses[slot])) {
+            slot = (slot + 1) & mask;
+        }
+        if (this.addresses[slot] == DELETED)
+            this.deleted--;
+        this.addresses[slot] = address;
+        this.hashes[slot] = hash;
+        this.size++;
+    }
+
+    // Keeps a quarter of the slots empty, so probes stay short and always end. The rehash drops the tombstones and
+    // sizes the table for the live books only, so it shrinks again after mass deletes.
+    private void ensureCapacity() {
+        if ((this.size + this.deleted + 1) * 4L <= this.addresses.length * 3L)
+            return;
+
+        var capacity = INITIAL_CAPACITY;
+        while ((this.size + 1) * 2L > capacity) {
+            capacity <<= 1;
+        }
+        final var addresses = this.addresses;
+        final var hashes = this.hashes;
+        this.addresses = new long[capacity];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.deleted = 0;
+        for (int i = 0; i < addresses.length; i++) {
+            if (isLive(addresses[i]))
+                insert(hashes[i], addresses[i]);
+        }
+    }
+
+    private long write(final byte[] idBytes, final String name) {
+        final var nameBytes = Objects.isNull(name) ? null : encode(name);
+        final var recordSize = Integer.BYTES * 2 + idBytes.length + (Objects.isNull(nameBytes) ? 0 : nameBytes.length);
+        final var address = allocate(recordSize);
+        final var record = this.arenas[arenaIndex(address)].duplicate().position(offset(address));
+        record.putInt(idBytes.length).put(idBytes);
+        if (Objects.isNull(nameBytes))
+            record.putInt(NULL_NAME);
+        else
+            record.putInt(nameBytes.length).put(nameBytes);
+        return address;
+    }
+
+    private long allocate(final int recordSize) {
+        final var last = this.arenas.length - 1;
+        if (last < 0 || this.arenas[last].capacity() - this.position < recordSize) {
+            final var arenas = Arrays.copyOf(this.arenas, this.arenas.length + 1);
+            arenas[arenas.length - 1] = ByteBuffer.allocateDirect(Math.max(this.arenaSize, recordSize));
+            this.arenas = arenas;
+            this.position = 0;
+        }
+        final var address = ((long) this.arenas.length << 32) | this.position;
+        this.position += recordSize;
+        this.liveBytes += recordSize;
+        return address;
+    }
+
+    private void release(final long address) {
+        final var recordSize = recordSize(this.arenas[arenaIndex(address)], offset(address));
+        this.liveBytes -= recordSize;
+        this.garbageBytes += recordSize;
+    }
+
+    // Rewrites the live records into fresh arenas once the replaced and deleted ones take more room than they do.
+    private void compactIfWasteful() {
+        if (this.garbageBytes < this.arenaSize || this.garbageBytes < this.liveBytes)
+            return;
+
+        final var arenas = this.arenas;
+        this.arenas = new ByteBuffer[0];
+        this.position = 0;
+        this.liveBytes = 0;
+        this.garbageBytes = 0;
+        for (int i = 0; i < this.addresses.length; i++) {
+            final var address = this.addresses[i];
+            if (!isLive(address))
+                continue;
+            final var source = arenas[arenaIndex(address)];
+            final var offset = offset(address);
+            final var recordSize = recordSize(source, offset);
+            final var copied = allocate(recordSize);
+            this.arenas[arenaIndex(copied)]
+                    .duplicate()
+                    .position(offset(copied))
+                    .put(source.duplicate().position(offset).limit(offset + recordSize));
+            this.addresses[i] = copied;
+        }
+    }
+
+    private boolean idEquals(final long address, final byte[] idBytes) {
+        final var arena = this.arenas[arenaIndex(address)];
+        final var offset = offset(address);
+        if (arena.getInt(offset) != idBytes.length)
+            return false;
+        for (int i = 0; i < idBytes.length; i++) {
+            if (arena.get(offset + Integer.BYTES + i) != idBytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    private void reset() {
+        this.arenas = new ByteBuffer[0];
+        this.position = 0;
+        this.addresses = new long[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.deleted = 0;
+        this.liveBytes = 0;
+        this.garbageBytes = 0;
+    }
+
+    private void advance() {
+        this.catalogVersion = this.catalogVersion.next();
+    }
+
+    private static boolean isLive(final long address) {
+        return address != EMPTY && address != DELETED;
+    }
+
+    private static int arenaIndex(final long address) {
+        return (int) (address >>> 32) - 1;
+    }
+
+    private static int offset(final long address) {
+        return (int) address;
+    }
+
+    private static int hash(final String id) {
+        final var hash = id.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    // getBytes would replace an unpaired surrogate with '?', storing another text than the one given and letting two
+    // ids collide, so such a text is rejected instead.
+    private static byte[] encode(final String text) {
+        requireEncodable(text);
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Checked before a batch takes the lock, so a rejected book leaves none of the batch written.
+    private static void requireEncodable(final Collection<Book> books) {
+        for (final var book : books) {
+            requireEncodable(book.getId());
+            if (Objects.nonNull(book.getName()))
+                requireEncodable(book.getName());
+        }
+    }
+
+    private static void requireEncodable(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final var c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)))
+                i++;
+            else if (Character.isSurrogate(c))
+                throw new IllegalArgumentException("Unpaired surrogate at index " + i + ", not encodable as UTF-8");
+        }
+    }
+
+    // Lays out a cursor like the id of a record, so it compares with the same code.
+    private static ByteBuffer idRecord(final byte[] idBytes) {
+        return ByteBuffer
+                .allocate(Integer.BYTES + idBytes.length)
+                .putInt(idBytes.length)
+                .put(idBytes);
+    }
+
+    private static int recordSize(final ByteBuffer arena, final int offset) {
+        final var idLength = arena.getInt(offset);
+        final var nameLength = arena.getInt(offset + Integer.BYTES + idLength);
+        return Integer.BYTES * 2 + idLength + Math.max(0, nameLength);
+    }
+
+    private static int compareIds(final ByteBuffer[] arenas, final long left, final long right) {
+        return compareIds(arenas[arenaIndex(left)], offset(left), arenas[arenaIndex(right)], offset(right));
+    }
+
+    // Orders ids like String.compareTo without decoding them. UTF-8 bytes sort by code point, UTF-16 differs only in
+    // putting U+E000..U+FFFF (lead bytes 0xEE, 0xEF) after the supplementary characters (lead bytes 0xF0..0xF4).
+    private static int compareIds(final ByteBuffer left, final int leftOffset, final ByteBuffer right, final int rightOffset) {
+        final var leftLength = left.getInt(leftOffset);
+        final var rightLength = right.getInt(rightOffset);
+        final var length = Math.min(leftLength, rightLength);
+        for (int i = 0; i < length; i++) {
+            final var leftByte = left.get(leftOffset + Integer.BYTES + i) & 0xFF;
+            final var rightByte = right.get(rightOffset + Integer.BYTES + i) & 0xFF;
+            if (leftByte != rightByte)
+                return utf16Order(leftByte) - utf16Order(rightByte);
+        }
+        return leftLength - rightLength;
+    }
+
+    private static int utf16Order(final int utf8Byte) {
+        return utf8Byte == 0xEE || utf8Byte == 0xEF
+                ? utf8Byte + 0x10
+                : utf8Byte;
+    }
+
+    private static Book readBook(final ByteBuffer[] arenas, final long address) {
+        // Relative reads on a duplicate keep the shared arena position untouched for concurrent readers.
+        final var record = arenas[arenaIndex(address)].duplicate().position(offset(address));
+        final var id = readString(record, record.getInt());
+        final var nameLength = record.getInt();
+        return new Book(id, nameLength == NULL_NAME ? null : readString(record, nameLength));
+    }
+
+    private static String readString(final ByteBuffer record, final int length) {
+        final var bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Records are never overwritten and the arenas array is never modified, so the view stays valid after later writes.
+    private static final class BooksView extends AbstractList<Book> {
+        private final ByteBuffer[] arenas;
+        private final long[] addresses;
+
+        private BooksView(final ByteBuffer[] arenas, final long[] addresses) {
+            this.arenas = arenas;
+            this.addresses = addresses;
+        }
+
+        @Override
+        public Book get(final int index) {
+            Objects.checkIndex(index, this.addresses.length);
+            return readBook(this.arenas, this.addresses[index]);
+        }
+
+        @Override
+        public int size() {
+            return this.addresses.length;
+        }
+    }
+}
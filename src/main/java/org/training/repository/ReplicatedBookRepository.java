@@ -0,0 +1,374 @@
+package org.training.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Catalog shared by several nodes: the leader takes the writes and streams them to its followers over TCP, every
+ * node serves reads from its own in-memory copy.
+ * <p>
+ * The leader applies a mutation, numbers it in its {@link ReplicationLog} and acknowledges it, followers receive it
+ * asynchronously. A follower that connects or reconnects sends the history and sequence it applied last and gets
+ * the mutations after it, or a snapshot followed by the log when the leader no longer retains them. Writes sent to a
+ * follower are rejected. {@link #promote()} turns a follower into the leader, {@link #follow} points the remaining
+ * followers at it.
+ * <p>
+ * Replicated mutations are applied to the node's own copy, never through the decorators wrapping the repository, so
+ * it is not to be wrapped in a search index or a cache.
+ */
+public class ReplicatedBookRepository implements IBookRepository, MeterBinder, Closeable {
+    private static final String FOLLOWER_READ_ONLY = "This node follows the replication leader at %s, writes go there";
+
+    public enum Role {
+        LEADER, FOLLOWER
+    }
+
+    private final int port;
+    private final ReplicationLog log;
+    // Orders the mutations of the leader in its log the way they were applied, and excludes a promotion meanwhile.
+    private final ReentrantLock lock;
+    // Replaced by a snapshot as a whole, so reads never see a half-loaded catalog.
+    private volatile ConcurrentBookRepository books;
+    private volatile ReplicationLeader leader;
+    private volatile ReplicationFollower follower;
+
+    private ReplicatedBookRepository(final int port, final int logCapacity) {
+        this.port = port;
+        this.log = new ReplicationLog(logCapacity);
+        this.lock = new ReentrantLock();
+        this.books = new ConcurrentBookRepository();
+    }
+
+    /**
+     * @param port 0 for an ephemeral port, see {@link #port()}
+     */
+    public static ReplicatedBookRepository leader(final int port, final int logCapacity) {
+        final var bookRepository = new ReplicatedBookRepository(port, logCapacity);
+        bookRepository.leader = ReplicationLeader.start(bookRepository, port);
+        return bookRepository;
+    }
+
+    /**
+     * @param port where this node accepts followers once promoted, 0 for an ephemeral port
+     */
+    public static ReplicatedBookRepository follower(final int port, final InetSocketAddress leaderAddress, final int logCapacity) {
+        final var bookRepository = new ReplicatedBookRepository(port, logCapacity);
+        bookRepository.follower = ReplicationFollower.start(bookRepository, leaderAddress);
+        return bookRepository;
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        return write(it -> it.saveOne(book), BookMutation::save);
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        this.lock.lock();
+        try {
+            requireLeader();
+            for (final var book : books) {
+                this.books.saveOne(book);
+                this.log.append(BookMutation.save(book));
+            }
+            return books;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return this.books.findOneById(id);
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return this.books.findAll();
+    }
+
+    @Override
+    public long size() {
+        return this.books.size();
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        return this.books.findPage(cursor, limit);
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return replaceIfPresent(book);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        return write(it -> it.saveIfAbsent(book), it -> it.map(BookMutation::save).orElse(null));
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return write(it -> it.replaceIfPresent(book), it -> it.map(BookMutation::save).orElse(null));
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        return write(it -> it.deleteOneById(id), it -> it.map(deleted -> BookMutation.delete(id)).orElse(null));
+    }
+
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        this.lock.lock();
+        try {
+            requireLeader();
+            final var savedBooks = this.books.saveAllIfAbsent(books);
+            for (final var book : savedBooks) {
+                this.log.append(BookMutation.save(book));
+            }
+            return savedBooks;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        this.lock.lock();
+        try {
+            requireLeader();
+            final var updatedBooks = this.books.updateAll(books);
+            for (final var book : updatedBooks) {
+                this.log.append(BookMutation.save(book));
+            }
+            return updatedBooks;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        this.lock.lock();
+        try {
+            requireLeader();
+            final var deletedBooks = this.books.deleteAllByIds(ids);
+            for (final var book : deletedBooks) {
+                this.log.append(BookMutation.delete(book.getId()));
+            }
+            return deletedBooks;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        write(it -> {
+            it.deleteAll();
+            return BookMutation.deleteAll();
+        }, Function.identity());
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return this.books.isExist(id);
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return this.books.existing(ids);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        return this.books.findAllByIds(ids);
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        return this.books.catalogVersion();
+    }
+
+    /**
+     * Stops following and starts accepting followers, carrying on with the mutations applied so far.
+     */
+    public void promote() {
+        this.lock.lock();
+        try {
+            if (Objects.nonNull(this.leader))
+                return;
+            this.follower.close();
+            this.log.fork();
+            // Leader first, so a reader seeing no follower always sees the leader.
+            this.leader = ReplicationLeader.start(this, this.port);
+            this.follower = null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Points a follower at another leader, it resumes from what it applied when the new leader holds it.
+     */
+    public void follow(final InetSocketAddress leaderAddress) {
+        this.lock.lock();
+        try {
+            if (Objects.nonNull(this.leader))
+                throw new IllegalStateException("The replication leader cannot follow " + leaderAddress);
+            this.follower.close();
+            this.follower = ReplicationFollower.start(this, leaderAddress);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public Role role() {
+        return Objects.nonNull(this.leader)
+                ? Role.LEADER
+                : Role.FOLLOWER;
+    }
+
+    /**
+     * Port the leader accepts followers on, -1 while following.
+     */
+    public int port() {
+        final var leader = this.leader;
+        return Objects.nonNull(leader)
+                ? leader.port()
+                : -1;
+    }
+
+    public ReplicationStatus status() {
+        final var follower = this.follower;
+        final var leader = this.leader;
+        final var sequence = this.log.lastSequence();
+        if (Objects.nonNull(leader))
+            return new ReplicationStatus(Role.LEADER, sequence, sequence, 0, leader.followerCount(), 0);
+
+        final var leaderSequence = Math.max(sequence, follower.leaderSequence());
+        return
+                new ReplicationStatus(
+                        Role.FOLLOWER,
+                        sequence,
+                        leaderSequence,
+                        leaderSequence - sequence,
+                        0,
+                        Math.max(0, System.currentTimeMillis() - follower.lastContact())
+                );
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge
+                .builder("book.replication.sequence", this, it -> it.status().getSequence())
+                .description("Last replicated mutation applied by this node")
+                .register(registry);
+        Gauge
+                .builder("book.replication.lag", this, it -> it.status().getLag())
+                .description("Mutations numbered by the leader and not applied by this node yet")
+                .register(registry);
+        Gauge
+                .builder("book.replication.leader.contact.age", this, it -> it.status().getMillisSinceLeaderContact() / 1_000.0)
+                .description("Seconds since this follower last heard from its leader")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge
+                .builder("book.replication.followers", this, it -> it.status().getFollowers())
+                .description("Followers connected to this leader")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            if (Objects.nonNull(this.leader))
+                this.leader.close();
+            if (Objects.nonNull(this.follower))
+                this.follower.close();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    ReplicationLog log() {
+        return this.log;
+    }
+
+    // Catalog and sequence read together under the lock, the log after the sequence completes the snapshot.
+    Snapshot snapshot() {
+        this.lock.lock();
+        try {
+            return new Snapshot(this.log.history(), this.log.lastSequence(), List.copyOf(this.books.findAll()));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Called by the follower thread only, it is the single writer of a follower.
+    void resetTo(final long history, final long sequence, final Collection<Book> books) {
+        final var snapshotBooks = new ConcurrentBookRepository();
+        snapshotBooks.saveAll(books);
+        this.books = snapshotBooks;
+        this.log.reset(history, sequence);
+    }
+
+    void replicate(final BookMutation mutation) {
+        mutation.applyTo(this.books);
+        this.log.append(mutation);
+    }
+
+    private <T> T write(final Function<IBookRepository, T> operation, final Function<T, BookMutation> mutationOf) {
+        this.lock.lock();
+        try {
+            requireLeader();
+            final var result = operation.apply(this.books);
+            final var mutation = mutationOf.apply(result);
+            if (Objects.nonNull(mutation))
+                this.log.append(mutation);
+            return result;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void requireLeader() {
+        if (Objects.isNull(this.leader)) {
+            final var leaderAddress = this.follower.leaderAddress();
+            final var hostAndPort = leaderAddress.getHostString() + ':' + leaderAddress.getPort();
+            throw new BookCatalogReadOnlyException(String.format(FOLLOWER_READ_ONLY, hostAndPort), hostAndPort);
+        }
+    }
+
+    @Data
+    public static final class ReplicationStatus {
+        private final Role role;
+        private final long sequence;
+        private final long leaderSequence;
+        private final long lag;
+        private final int followers;
+        private final long millisSinceLeaderContact;
+    }
+
+    @Data
+    static final class Snapshot {
+        private final long history;
+        private final long sequence;
+        private final List<Book> books;
+    }
+}
@@ -0,0 +1,158 @@
+package org.training.repository;
+
+import org.jboss.logging.Logger;
+import org.training.model.Book;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * Keeps a follower in step with its leader from a single thread, reconnecting every {@link #RECONNECT_MILLIS} while
+ * the leader is unreachable. See {@link ReplicationLeader} for the protocol.
+ */
+final class ReplicationFollower implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationFollower.class);
+    private static final int RECONNECT_MILLIS = 200;
+    // A leader silent for this long is presumed gone, the connection is dropped and opened again.
+    private static final int READ_TIMEOUT_MILLIS = 4 * ReplicationLeader.HEARTBEAT_MILLIS;
+
+    private final ReplicatedBookRepository bookRepository;
+    private final InetSocketAddress leaderAddress;
+    private final Thread receiver;
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private volatile long leaderSequence;
+    private volatile long lastContact;
+
+    private ReplicationFollower(final ReplicatedBookRepository bookRepository, final InetSocketAddress leaderAddress) {
+        this.bookRepository = bookRepository;
+        this.leaderAddress = leaderAddress;
+        this.receiver = new Thread(this::receiveLoop, "book-replication-follower");
+        this.receiver.setDaemon(true);
+    }
+
+    static ReplicationFollower start(final ReplicatedBookRepository bookRepository, final InetSocketAddress leaderAddress) {
+        final var follower = new ReplicationFollower(bookRepository, leaderAddress);
+        follower.receiver.start();
+        return follower;
+    }
+
+    InetSocketAddress leaderAddress() {
+        return this.leaderAddress;
+    }
+
+    long leaderSequence() {
+        return this.leaderSequence;
+    }
+
+    long lastContact() {
+        return this.lastContact;
+    }
+
+    // Returns once the receiver stopped, no mutation is applied after that.
+    @Override
+    public void close() {
+        this.closed = true;
+        final var socket = this.socket;
+        if (Objects.nonNull(socket)) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close the connection to " + this.leaderAddress, e);
+            }
+        }
+        this.receiver.interrupt();
+        try {
+            this.receiver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void receiveLoop() {
+        while (!this.closed) {
+            try (final var socket = new Socket()) {
+                this.socket = socket;
+                if (this.closed)
+                    return;
+                socket.connect(this.leaderAddress, READ_TIMEOUT_MILLIS);
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                receive(socket);
+            } catch (IOException e) {
+                if (!this.closed)
+                    LOGGER.debug("Replication from " + this.leaderAddress + " interrupted, reconnecting", e);
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void receive(final Socket socket) throws IOException {
+        final var log = this.bookRepository.log();
+        final var output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        output.writeLong(log.history());
+        output.writeLong(log.lastSequence());
+        output.flush();
+
+        final var input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        while (!this.closed) {
+            final var frame = input.readByte();
+            this.lastContact = System.currentTimeMillis();
+            switch (frame) {
+                case ReplicationLeader.RESUME:
+                    log.adopt(input.readLong());
+                    break;
+                case ReplicationLeader.SNAPSHOT:
+                    receiveSnapshot(input);
+                    break;
+                case ReplicationLeader.MUTATIONS:
+                    receiveMutations(input, log);
+                    break;
+                case ReplicationLeader.HEARTBEAT:
+                    advanceLeaderSequence(input.readLong());
+                    break;
+                default:
+                    throw new IOException("Unknown replication frame: " + frame);
+            }
+        }
+    }
+
+    private void receiveSnapshot(final DataInputStream input) throws IOException {
+        final var history = input.readLong();
+        final var sequence = input.readLong();
+        final var size = input.readInt();
+        final var books = new ArrayList<Book>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(new Book(BookMutation.readString(input), BookMutation.readString(input)));
+        }
+        this.bookRepository.resetTo(history, sequence, books);
+        advanceLeaderSequence(sequence);
+    }
+
+    private void receiveMutations(final DataInputStream input, final ReplicationLog log) throws IOException {
+        final var first = input.readLong();
+        final var count = input.readInt();
+        if (first != log.lastSequence() + 1)
+            throw new IOException("Expected mutation " + (log.lastSequence() + 1) + " but received " + first);
+        for (int i = 0; i < count; i++) {
+            this.bookRepository.replicate(BookMutation.readFrom(input));
+        }
+        advanceLeaderSequence(first + count - 1);
+    }
+
+    private void advanceLeaderSequence(final long sequence) {
+        this.leaderSequence = Math.max(this.leaderSequence, sequence);
+    }
+}
@@ -0,0 +1,171 @@
+package org.training.repository;
+
+import org.jboss.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts followers and streams the {@link ReplicationLog} to each of them from its own thread.
+ * <p>
+ * A follower opens with {@code [history][sequence]}, the last mutation it applied. It is answered with {@link #RESUME}
+ * when the log still holds everything after it, with a {@link #SNAPSHOT} otherwise, then with {@link #MUTATIONS} as
+ * they are numbered and a {@link #HEARTBEAT} whenever the log is idle for {@link #HEARTBEAT_MILLIS}.
+ */
+final class ReplicationLeader implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationLeader.class);
+
+    static final int HEARTBEAT_MILLIS = 500;
+    // [history]
+    static final byte RESUME = 1;
+    // [history][sequence][count] then count times [id][name]
+    static final byte SNAPSHOT = 2;
+    // [first sequence][count] then count mutations
+    static final byte MUTATIONS = 3;
+    // [last sequence]
+    static final byte HEARTBEAT = 4;
+
+    private static final int MAX_BATCH = 1_024;
+
+    private final ReplicatedBookRepository bookRepository;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> followers;
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    private ReplicationLeader(final ReplicatedBookRepository bookRepository, final ServerSocket serverSocket) {
+        this.bookRepository = bookRepository;
+        this.serverSocket = serverSocket;
+        this.followers = ConcurrentHashMap.newKeySet();
+        this.acceptor = new Thread(this::acceptLoop, "book-replication-leader");
+        this.acceptor.setDaemon(true);
+    }
+
+    static ReplicationLeader start(final ReplicatedBookRepository bookRepository, final int port) {
+        try {
+            final var leader = new ReplicationLeader(bookRepository, new ServerSocket(port));
+            leader.acceptor.start();
+            return leader;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to accept replication followers on port " + port, e);
+        }
+    }
+
+    int port() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    int followerCount() {
+        return this.followers.size();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        closeQuietly(this.serverSocket);
+        this.followers.forEach(ReplicationLeader::closeQuietly);
+        try {
+            this.acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!this.closed) {
+            try {
+                final var socket = this.serverSocket.accept();
+                this.followers.add(socket);
+                // Accepted while closing, after close() went through the followers.
+                if (this.closed) {
+                    closeQuietly(socket);
+                    break;
+                }
+                final var sender = new Thread(() -> serve(socket), "book-replication-sender-" + socket.getRemoteSocketAddress());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!this.closed)
+                    LOGGER.warn("Unable to accept a replication follower", e);
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            final var input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final var output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            final var log = this.bookRepository.log();
+
+            final var history = input.readLong();
+            var sequence = input.readLong();
+            if (log.canResume(history, sequence)) {
+                output.writeByte(RESUME);
+                output.writeLong(log.history());
+            } else {
+                final var snapshot = this.bookRepository.snapshot();
+                writeSnapshot(output, snapshot);
+                sequence = snapshot.getSequence();
+            }
+            output.flush();
+
+            while (!this.closed) {
+                final var mutations = log.awaitAfter(sequence, MAX_BATCH, HEARTBEAT_MILLIS);
+                // Fell behind the retained log, dropping the connection makes the follower come back for a snapshot.
+                if (mutations == null)
+                    break;
+                if (mutations.isEmpty()) {
+                    output.writeByte(HEARTBEAT);
+                    output.writeLong(log.lastSequence());
+                } else {
+                    output.writeByte(MUTATIONS);
+                    output.writeLong(sequence + 1);
+                    output.writeInt(mutations.size());
+                    for (final var mutation : mutations) {
+                        mutation.writeTo(output);
+                    }
+                    sequence += mutations.size();
+                }
+                output.flush();
+            }
+        } catch (SocketException e) {
+            LOGGER.debug("Replication follower " + socket.getRemoteSocketAddress() + " disconnected", e);
+        } catch (IOException e) {
+            LOGGER.warn("Replication to follower " + socket.getRemoteSocketAddress() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.followers.remove(socket);
+        }
+    }
+
+    private static void writeSnapshot(final DataOutputStream output, final ReplicatedBookRepository.Snapshot snapshot) throws IOException {
+        output.writeByte(SNAPSHOT);
+        output.writeLong(snapshot.getHistory());
+        output.writeLong(snapshot.getSequence());
+        output.writeInt(snapshot.getBooks().size());
+        for (final var book : snapshot.getBooks()) {
+            BookMutation.writeString(output, book.getId());
+            BookMutation.writeString(output, book.getName());
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close " + closeable, e);
+        }
+    }
+}
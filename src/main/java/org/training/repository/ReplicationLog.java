@@ -0,0 +1,105 @@
+package org.training.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded tail of the replicated {@link BookMutation}s, numbered by a sequence without gaps.
+ * <p>
+ * Sequences are only comparable within one history, a random id picked when a leader starts and again when a
+ * follower is promoted. A promoted node remembers the history it continued from and up to which sequence, so the
+ * followers of the former leader that are not ahead of it resume from the log instead of a snapshot.
+ */
+final class ReplicationLog {
+    private final BookMutation[] mutations;
+    private long history;
+    private long previousHistory;
+    private long forkSequence;
+    private long firstSequence;
+    private long lastSequence;
+
+    ReplicationLog(final int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Replication log capacity must be positive: " + capacity);
+
+        this.mutations = new BookMutation[capacity];
+        this.history = ThreadLocalRandom.current().nextLong();
+        this.previousHistory = this.history;
+        this.firstSequence = 1;
+    }
+
+    synchronized long history() {
+        return this.history;
+    }
+
+    synchronized long lastSequence() {
+        return this.lastSequence;
+    }
+
+    synchronized long append(final BookMutation mutation) {
+        final var sequence = this.lastSequence + 1;
+        this.mutations[(int) (sequence % this.mutations.length)] = mutation;
+        this.lastSequence = sequence;
+        this.firstSequence = Math.max(this.firstSequence, sequence - this.mutations.length + 1);
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Starts an empty log right after {@code sequence} of {@code history}, once a snapshot up to it was applied.
+     */
+    synchronized void reset(final long history, final long sequence) {
+        this.history = history;
+        this.previousHistory = history;
+        this.firstSequence = sequence + 1;
+        this.lastSequence = sequence;
+        notifyAll();
+    }
+
+    // The leader confirmed this log is a prefix of its own, the sequences carry on under its history.
+    synchronized void adopt(final long history) {
+        this.history = history;
+        this.previousHistory = history;
+    }
+
+    synchronized void fork() {
+        this.previousHistory = this.history;
+        this.forkSequence = this.lastSequence;
+        this.history = ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Whether a node that applied {@code history} up to {@code sequence} holds a prefix of this log and can be sent
+     * the mutations after it.
+     */
+    synchronized boolean canResume(final long history, final long sequence) {
+        final var shared =
+                (history == this.history && sequence <= this.lastSequence)
+                        || (history == this.previousHistory && sequence <= this.forkSequence);
+        return shared && sequence >= this.firstSequence - 1;
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for mutations after {@code sequence} and returns at most {@code max} of them,
+     * in order. Empty when none arrived in time, null when they are no longer retained.
+     */
+    synchronized List<BookMutation> awaitAfter(final long sequence, final int max, final long timeoutMillis)
+            throws InterruptedException {
+        final var deadline = System.currentTimeMillis() + timeoutMillis;
+        var remaining = timeoutMillis;
+        while (this.lastSequence <= sequence && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (sequence < this.firstSequence - 1)
+            return null;
+
+        final var count = (int) Math.min(max, this.lastSequence - sequence);
+        final var mutations = new ArrayList<BookMutation>(Math.max(0, count));
+        for (long it = sequence + 1; it <= sequence + count; it++) {
+            mutations.add(this.mutations[(int) (it % this.mutations.length)]);
+        }
+        return mutations;
+    }
+}
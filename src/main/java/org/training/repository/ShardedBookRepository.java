@@ -0,0 +1,414 @@
+package org.training.repository;
+
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the id space into independent shards by id hash, each a sorted map behind its own read-write lock.
+ * <p>
+ * Writers to different shards share neither a lock nor a counter, the catalog version is the sum of the shard
+ * versions. Batches are split per shard and applied in parallel, under one lock per shard, {@link #findAll()} and
+ * {@link #findPage} merge per-shard snapshots and {@link #deleteAll()} clears one shard at a time.
+ */
+public class ShardedBookRepository implements IBookRepository {
+    // Below this a batch is applied on the calling thread, forking would cost more than it saves.
+    private static final int PARALLEL_BATCH_THRESHOLD = 1_024;
+
+    private final Shard[] shards;
+    private final long instance;
+
+    public ShardedBookRepository(final int shardCount) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+
+        var size = 1;
+        while (size < shardCount) {
+            size <<= 1;
+        }
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.instance = ThreadLocalRandom.current().nextLong();
+    }
+
+    public ShardedBookRepository() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public Book saveOne(final Book book) {
+        shardOf(book.getId()).putAll(List.of(book));
+        return book;
+    }
+
+    @Override
+    public Collection<Book> saveAll(final Collection<Book> books) {
+        final var batches = batches(books, Book::getId);
+        touchedShards(batches, books.size()).forEach(it -> this.shards[it].putAll(batches.get(it)));
+        return books;
+    }
+
+    @Override
+    public Optional<Book> findOneById(final String id) {
+        return Objects.isNull(id)
+                ? Optional.empty()
+                : Optional.ofNullable(shardOf(id).get(id));
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        final var books = new ArrayList<Book>();
+        for (final var shard : this.shards) {
+            shard.copyTo(books, null, Integer.MAX_VALUE);
+        }
+        return Collections.unmodifiableList(books);
+    }
+
+    // One read per shard, the total is not a snapshot across shards.
+    @Override
+    public long size() {
+        var size = 0L;
+        for (final var shard : this.shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public List<Book> findPage(final String cursor, final int limit) {
+        // Each shard contributes at most limit books past the cursor, merging them by id keeps the global order.
+        final var candidates = new ArrayList<Book>();
+        for (final var shard : this.shards) {
+            shard.copyTo(candidates, cursor, limit);
+        }
+        final var merged = new PriorityQueue<>(Math.max(1, candidates.size()), Comparator.comparing(Book::getId));
+        merged.addAll(candidates);
+        final var page = new ArrayList<Book>(Math.min(limit, merged.size()));
+        while (page.size() < limit && !merged.isEmpty()) {
+            page.add(merged.poll());
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    @Override
+    public Optional<Book> updateOne(final Book book) {
+        return replaceIfPresent(book);
+    }
+
+    @Override
+    public Optional<Book> saveIfAbsent(final Book book) {
+        return shardOf(book.getId()).putIfAbsent(book)
+                ? Optional.of(book)
+                : Optional.empty();
+    }
+
+    @Override
+    public Optional<Book> replaceIfPresent(final Book book) {
+        return shardOf(book.getId()).replace(book)
+                ? Optional.of(book)
+                : Optional.empty();
+    }
+
+    @Override
+    public Optional<Book> deleteOneById(final String id) {
+        return Objects.isNull(id)
+                ? Optional.empty()
+                : Optional.ofNullable(shardOf(id).remove(id));
+    }
+
+    // Each shard saves its part of the batch atomically, the batch as a whole is not.
+    @Override
+    public Collection<Book> saveAllIfAbsent(final Collection<Book> books) {
+        final var batches = batches(books, Book::getId);
+        final var savedBooks = new ArrayList<List<Book>>(Collections.nCopies(this.shards.length, List.of()));
+        touchedShards(batches, books.size()).forEach(it -> savedBooks.set(it, this.shards[it].putAllIfAbsent(batches.get(it))));
+        return flatten(savedBooks);
+    }
+
+    @Override
+    public Collection<Book> updateAll(final Collection<Book> books) {
+        final var batches = batches(books, Book::getId);
+        final var updatedBooks = new ArrayList<List<Book>>(Collections.nCopies(this.shards.length, List.of()));
+        touchedShards(batches, books.size()).forEach(it -> updatedBooks.set(it, this.shards[it].replaceAll(batches.get(it))));
+        return flatten(updatedBooks);
+    }
+
+    @Override
+    public Collection<Book> deleteAllByIds(final Collection<String> ids) {
+        final var batches = batches(ids, Function.identity());
+        final var deletedBooks = new ArrayList<List<Book>>(Collections.nCopies(this.shards.length, List.of()));
+        touchedShards(batches, ids.size()).forEach(it -> deletedBooks.set(it, this.shards[it].removeAll(batches.get(it))));
+        return flatten(deletedBooks);
+    }
+
+    @Override
+    public void deleteAll() {
+        for (final var shard : this.shards) {
+            shard.clear();
+        }
+    }
+
+    @Override
+    public boolean isExist(final String id) {
+        return Objects.nonNull(id) && Objects.nonNull(shardOf(id).get(id));
+    }
+
+    @Override
+    public Set<String> existing(final Collection<String> ids) {
+        return ids
+                .stream()
+                .filter(this::isExist)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Map<String, Book> findAllByIds(final Collection<String> ids) {
+        // One read lock per touched shard instead of one per id.
+        final var batches = batches(ids, Function.identity());
+        final var books = new HashMap<String, Book>();
+        for (int i = 0; i < this.shards.length; i++) {
+            if (!batches.get(i).isEmpty())
+                this.shards[i].getAll(batches.get(i), books);
+        }
+        return books;
+    }
+
+    @Override
+    public CatalogVersion catalogVersion() {
+        var version = 0L;
+        var lastModified = 0L;
+        for (final var shard : this.shards) {
+            version += shard.version;
+            lastModified = Math.max(lastModified, shard.lastModified);
+        }
+        return new CatalogVersion(this.instance, version, lastModified);
+    }
+
+    int shardCount() {
+        return this.shards.length;
+    }
+
+    private <T> List<List<T>> batches(final Collection<T> items, final Function<T, String> idOf) {
+        final var batches = new ArrayList<List<T>>(this.shards.length);
+        for (int i = 0; i < this.shards.length; i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (final var item : items) {
+            batches.get(indexOf(idOf.apply(item))).add(item);
+        }
+        return batches;
+    }
+
+    private IntStream touchedShards(final List<? extends List<?>> batches, final int batchSize) {
+        final var touchedShards = IntStream.range(0, this.shards.length).filter(it -> !batches.get(it).isEmpty());
+        return batchSize < PARALLEL_BATCH_THRESHOLD
+                ? touchedShards
+                : touchedShards.parallel();
+    }
+
+    private static List<Book> flatten(final List<List<Book>> perShard) {
+        final var books = new ArrayList<Book>();
+        perShard.forEach(books::addAll);
+        return Collections.unmodifiableList(books);
+    }
+
+    private Shard shardOf(final String id) {
+        return this.shards[indexOf(id)];
+    }
+
+    private int indexOf(final String id) {
+        final var hash = Objects.hashCode(id);
+        return (hash ^ (hash >>> 16)) & (this.shards.length - 1);
+    }
+
+    private static final class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final NavigableMap<String, Book> books = new TreeMap<>();
+        // Advanced under the write lock once a change is applied, read without it by catalogVersion.
+        private volatile long version;
+        private volatile long lastModified = System.currentTimeMillis();
+
+        private Book get(final String id) {
+            this.lock.readLock().lock();
+            try {
+                return this.books.get(id);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private int size() {
+            this.lock.readLock().lock();
+            try {
+                return this.books.size();
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private void getAll(final List<String> ids, final Map<String, Book> target) {
+            this.lock.readLock().lock();
+            try {
+                for (final var id : ids) {
+                    final var book = this.books.get(id);
+                    if (Objects.nonNull(book))
+                        target.put(id, book);
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private void copyTo(final Collection<Book> target, final String cursor, final int limit) {
+            this.lock.readLock().lock();
+            try {
+                if (Objects.isNull(cursor) && this.books.size() <= limit) {
+                    target.addAll(this.books.values());
+                    return;
+                }
+                final var tail = Objects.isNull(cursor) ? this.books : this.books.tailMap(cursor, false);
+                var taken = 0;
+                for (final var book : tail.values()) {
+                    if (taken++ == limit)
+                        break;
+                    target.add(book);
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private void putAll(final List<Book> batch) {
+            this.lock.writeLock().lock();
+            try {
+                for (final var book : batch) {
+                    this.books.put(book.getId(), book);
+                }
+                advance();
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private boolean putIfAbsent(final Book book) {
+            this.lock.writeLock().lock();
+            try {
+                if (Objects.nonNull(this.books.putIfAbsent(book.getId(), book)))
+                    return false;
+                advance();
+                return true;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private boolean replace(final Book book) {
+            this.lock.writeLock().lock();
+            try {
+                if (Objects.isNull(this.books.replace(book.getId(), book)))
+                    return false;
+                advance();
+                return true;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private List<Book> putAllIfAbsent(final List<Book> batch) {
+            final var saved = new ArrayList<Book>(batch.size());
+            this.lock.writeLock().lock();
+            try {
+                for (final var book : batch) {
+                    if (Objects.isNull(this.books.putIfAbsent(book.getId(), book)))
+                        saved.add(book);
+                }
+                if (!saved.isEmpty())
+                    advance();
+                return saved;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private List<Book> replaceAll(final List<Book> batch) {
+            final var replaced = new ArrayList<Book>(batch.size());
+            this.lock.writeLock().lock();
+            try {
+                for (final var book : batch) {
+                    if (Objects.nonNull(this.books.replace(book.getId(), book)))
+                        replaced.add(book);
+                }
+                if (!replaced.isEmpty())
+                    advance();
+                return replaced;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private List<Book> removeAll(final List<String> ids) {
+            final var removed = new ArrayList<Book>(ids.size());
+            this.lock.writeLock().lock();
+            try {
+                for (final var id : ids) {
+                    final var book = this.books.remove(id);
+                    if (Objects.nonNull(book))
+                        removed.add(book);
+                }
+                if (!removed.isEmpty())
+                    advance();
+                return removed;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private Book remove(final String id) {
+            this.lock.writeLock().lock();
+            try {
+                final var removed = this.books.remove(id);
+                if (Objects.nonNull(removed))
+                    advance();
+                return removed;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private void clear() {
+            this.lock.writeLock().lock();
+            try {
+                if (this.books.isEmpty())
+                    return;
+                this.books.clear();
+                advance();
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private void advance() {
+            this.lastModified = System.currentTimeMillis();
+            this.version++;
+        }
+    }
+}
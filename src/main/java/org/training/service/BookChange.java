@@ -0,0 +1,11 @@
+package org.training.service;
+
+import lombok.Data;
+import org.training.repository.BookMutation;
+
+// One change of the catalog as published by the BookChangeFeed, replayed as an upsert or delete by consumers.
+@Data
+public final class BookChange {
+    private final long sequence;
+    private final BookMutation mutation;
+}
@@ -0,0 +1,203 @@
+package org.training.service;
+
+import org.training.repository.BookMutation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded ring of the latest catalog changes, numbered by a sequence without gaps, for consumers syncing
+ * incrementally instead of polling the whole catalog.
+ * <p>
+ * Publishing claims its sequences with one atomic add and fills their slots, readers take no lock at all. A reader
+ * stops at the first claimed slot not filled yet, so it sees the changes in sequence order, and learns it fell behind
+ * when the slot it wants already holds a later lap. The writes to one id are applied and published under the stripe
+ * lock of the id, see {@link #ordered}, so the feed holds them in the order the repository applied them.
+ * <p>
+ * Sequences start from the startup time in milliseconds times a thousand, past the sequences of an earlier run as long
+ * as it published fewer than a thousand changes per millisecond of uptime, and within the integers JavaScript parses
+ * exactly. A consumer resuming from a sequence of an earlier run is told it fell behind instead of silently missing
+ * changes.
+ */
+public final class BookChangeFeed {
+    private static final int STRIPES = 64;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final boolean[] ALL_STRIPES = new boolean[STRIPES];
+
+    static {
+        Arrays.fill(ALL_STRIPES, true);
+    }
+
+    private final AtomicReferenceArray<BookChange> changes;
+    private final int mask;
+    private final long firstSequence;
+    // Last sequence handed out, its change may still be on its way to the slot.
+    private final AtomicLong lastSequence;
+    private final ReentrantLock[] stripes;
+
+    /**
+     * @param capacity changes kept for consumers catching up, rounded up to a power of two
+     */
+    public BookChangeFeed(final int capacity) {
+        if (capacity <= 0 || capacity > MAXIMUM_CAPACITY)
+            throw new IllegalArgumentException("Change feed capacity must be between 1 and " + MAXIMUM_CAPACITY + ": " + capacity);
+
+        var size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.changes = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.firstSequence = System.currentTimeMillis() * 1_000 + 1;
+        this.lastSequence = new AtomicLong(this.firstSequence - 1);
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private BookChangeFeed() {
+        this.changes = null;
+        this.mask = 0;
+        this.firstSequence = 1;
+        this.lastSequence = new AtomicLong();
+        this.stripes = null;
+    }
+
+    // Publishes nothing and orders nothing, for services nobody follows.
+    public static BookChangeFeed disabled() {
+        return new BookChangeFeed();
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(this.changes);
+    }
+
+    /**
+     * Sequence of the latest change published, or of the one before the first.
+     */
+    public long lastSequence() {
+        return this.lastSequence.get();
+    }
+
+    /**
+     * Runs a write to one id and its publication under the stripe lock of the id.
+     */
+    public <T> T ordered(final String id, final Supplier<T> write) {
+        if (!isEnabled())
+            return write.get();
+
+        final var stripe = this.stripes[stripeOf(id)];
+        stripe.lock();
+        try {
+            return write.get();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Runs a batch write and its publication under the stripe locks of every id, taken in stripe order.
+     */
+    public <T> T ordered(final Collection<String> ids, final Supplier<T> write) {
+        if (!isEnabled())
+            return write.get();
+
+        final var touched = new boolean[STRIPES];
+        for (final var id : ids) {
+            touched[stripeOf(id)] = true;
+        }
+        lockStripes(touched);
+        try {
+            return write.get();
+        } finally {
+            unlockStripes(touched);
+        }
+    }
+
+    // Writes to every id, like deleteAll.
+    public <T> T orderedAll(final Supplier<T> write) {
+        if (!isEnabled())
+            return write.get();
+
+        lockStripes(ALL_STRIPES);
+        try {
+            return write.get();
+        } finally {
+            unlockStripes(ALL_STRIPES);
+        }
+    }
+
+    public void publish(final BookMutation mutation) {
+        if (!isEnabled())
+            return;
+
+        final var sequence = this.lastSequence.incrementAndGet();
+        this.changes.set(indexOf(sequence), new BookChange(sequence, mutation));
+    }
+
+    // One atomic add for the whole batch, its changes get consecutive sequences.
+    public void publishAll(final List<BookMutation> mutations) {
+        if (!isEnabled() || mutations.isEmpty())
+            return;
+
+        var sequence = this.lastSequence.getAndAdd(mutations.size());
+        for (final var mutation : mutations) {
+            sequence++;
+            this.changes.set(indexOf(sequence), new BookChange(sequence, mutation));
+        }
+    }
+
+    /**
+     * At most {@code max} changes published after {@code sequence}, in order. Empty when there are none yet, null when
+     * they are no longer retained or the sequence was not handed out by this feed, the reader then has to reload the
+     * catalog.
+     */
+    public List<BookChange> changesAfter(final long sequence, final int max) {
+        final var lastSequence = this.lastSequence.get();
+        if (!isEnabled() || sequence > lastSequence || sequence < Math.max(this.firstSequence - 1, lastSequence - this.changes.length()))
+            return null;
+
+        final var changes = new ArrayList<BookChange>((int) Math.min(max, lastSequence - sequence));
+        for (var next = sequence + 1; next <= lastSequence && changes.size() < max; next++) {
+            final var change = this.changes.get(indexOf(next));
+            // Claimed but not filled yet, the changes after it wait so the reader never skips one.
+            if (Objects.isNull(change) || change.getSequence() < next)
+                break;
+            // Reused by a later lap while reading.
+            if (change.getSequence() > next)
+                return null;
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private int indexOf(final long sequence) {
+        return (int) (sequence & this.mask);
+    }
+
+    private static int stripeOf(final String id) {
+        return Math.floorMod(Objects.hashCode(id), STRIPES);
+    }
+
+    private void lockStripes(final boolean[] stripes) {
+        for (int i = 0; i < STRIPES; i++) {
+            if (stripes[i])
+                this.stripes[i].lock();
+        }
+    }
+
+    private void unlockStripes(final boolean[] stripes) {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            if (stripes[i])
+                this.stripes[i].unlock();
+        }
+    }
+}
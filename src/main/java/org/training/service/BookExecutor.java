@@ -0,0 +1,110 @@
+package org.training.service;
+
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Executor the blocking {@link BookService} calls are offloaded to.
+ * <p>
+ * In {@code worker} mode calls share the bounded worker pool, in {@code virtual} mode every call gets its own virtual
+ * thread, so the number of concurrent blocking calls is no longer capped by the pool size. Virtual threads need
+ * JDK 21, on older runtimes the worker pool is used instead.
+ */
+public final class BookExecutor implements Executor, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(BookExecutor.class);
+    private static final String TRACE_PINNED_THREADS = "jdk.tracePinnedThreads";
+
+    private final Executor executor;
+    private final boolean virtual;
+
+    private BookExecutor(final Executor executor, final boolean virtual) {
+        this.executor = executor;
+        this.virtual = virtual;
+    }
+
+    public static BookExecutor worker(final Executor workerPool) {
+        return new BookExecutor(workerPool, false);
+    }
+
+    /**
+     * @param mode               {@code worker} or {@code virtual}
+     * @param tracePinnedThreads {@code short}, {@code full} or {@code off}, how the JDK reports a virtual thread blocking
+     *                           while pinned to its carrier, e.g. inside a {@code synchronized} block
+     */
+    public static BookExecutor create(final String mode, final Executor workerPool, final String tracePinnedThreads) {
+        return create(mode, workerPool, () -> virtualThreadPerTask(tracePinnedThreads));
+    }
+
+    // Any failure to create the virtual-thread executor falls back to the worker pool instead of failing the startup.
+    static BookExecutor create(final String mode, final Executor workerPool, final Callable<ExecutorService> virtualThreadPerTask) {
+        switch (mode) {
+            case "worker":
+                return worker(workerPool);
+            case "virtual":
+                try {
+                    return new BookExecutor(virtualThreadPerTask.call(), true);
+                } catch (Exception e) {
+                    LOGGER.warn("Virtual threads are unavailable on " + Runtime.version() + ", falling back to the worker pool: " + e.getMessage());
+                    return worker(workerPool);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown book execution mode: " + mode);
+        }
+    }
+
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * Runs the call on a thread of the executor in virtual mode. In worker mode it runs on the calling thread, already
+     * a worker one, instead of hopping to another worker.
+     */
+    public <T> CompletionStage<T> call(final Supplier<T> operation) {
+        return this.virtual
+                ? CompletableFuture.supplyAsync(operation, this.executor)
+                : CompletableFuture.completedFuture(operation.get());
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        this.executor.execute(command);
+    }
+
+    @Override
+    public void close() {
+        // The worker pool is owned by the platform, only the virtual-thread executor is ours to shut down.
+        if (this.virtual)
+            ((ExecutorService) this.executor).shutdown();
+    }
+
+    // Looked up reflectively so the application still compiles and runs on Java 11. JDK 19 and 20 have the method but
+    // refuse to call it unless preview features are enabled.
+    private static ExecutorService virtualThreadPerTask(final String tracePinnedThreads) throws ReflectiveOperationException {
+        final Method factory;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or later");
+        }
+        // Read when the first virtual thread is created, the JDK then prints the stack of every pinned block.
+        if (!"off".equals(tracePinnedThreads) && Objects.isNull(System.getProperty(TRACE_PINNED_THREADS)))
+            System.setProperty(TRACE_PINNED_THREADS, tracePinnedThreads);
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
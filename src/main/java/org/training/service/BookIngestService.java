@@ -0,0 +1,170 @@
+package org.training.service;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.training.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk import that never holds the whole request in memory.
+ * <p>
+ * Books are read one at a time from a JSON array or a newline-delimited stream, cut into chunks and saved on a
+ * ForkJoin pool while the next chunks are parsed. At most {@code maxChunksInFlight} chunks are held at once, so memory
+ * is bounded by the chunk size whatever the size of the import. The summary counts every book but only lists the first
+ * {@link #MAX_REPORTED_UNSAVED_BOOKS} rejected ones.
+ * <p>
+ * Chunks are saved as soon as they are read: a malformed document fails the import with the books before it saved.
+ */
+public final class BookIngestService implements Closeable {
+    static final int MAX_REPORTED_UNSAVED_BOOKS = 1_000;
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    public BookIngestService(
+            final BookService bookService,
+            final ObjectMapper objectMapper,
+            final int parallelism,
+            final int chunkSize,
+            final int maxChunksInFlight) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        if (maxChunksInFlight <= 0)
+            throw new IllegalArgumentException("Chunks in flight must be positive: " + maxChunksInFlight);
+
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    public BooksIngestRecord ingest(final InputStream books) throws IOException {
+        final var ingest = new Ingest();
+        try (final var parser = this.objectMapper.getFactory().createParser(books)) {
+            var token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY)
+                token = parser.nextToken();
+
+            var chunk = new ArrayList<Book>(this.chunkSize);
+            while (Objects.nonNull(token) && token != JsonToken.END_ARRAY) {
+                chunk.add(this.objectMapper.readValue(parser, Book.class));
+                if (chunk.size() == this.chunkSize) {
+                    ingest.submit(chunk);
+                    chunk = new ArrayList<>(this.chunkSize);
+                }
+                token = parser.nextToken();
+            }
+            if (!chunk.isEmpty())
+                ingest.submit(chunk);
+        } finally {
+            ingest.await();
+        }
+        return ingest.toRecord();
+    }
+
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    @Data
+    public static final class BooksIngestRecord {
+        private final long savedCount;
+        private final long unsavedCount;
+        private final Collection<BookService.BooksRecord.UnsavedBooks> unsavedBooks;
+    }
+
+    // State of one import, shared between the parsing thread and the chunks it submitted.
+    private final class Ingest {
+        private final Semaphore chunksInFlight = new Semaphore(maxChunksInFlight);
+        // Ids of the books being saved by in-flight chunks, see BookService#saveAll(Collection, Set).
+        private final Set<String> claimedIds = ConcurrentHashMap.newKeySet();
+        private final LongAdder savedCount = new LongAdder();
+        private final LongAdder unsavedCount = new LongAdder();
+        private final AtomicInteger reportedCount = new AtomicInteger();
+        private final Queue<BookService.BooksRecord.UnsavedBooks> unsavedBooks = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private void submit(final List<Book> chunk) throws InterruptedIOException {
+            acquire(1);
+            // A failed chunk stops the import, the next chunks are not submitted.
+            if (Objects.nonNull(this.failure.get())) {
+                this.chunksInFlight.release();
+                throw this.failure.get();
+            }
+            try {
+                pool.execute(() -> {
+                    try {
+                        save(chunk);
+                    } catch (RuntimeException e) {
+                        this.failure.compareAndSet(null, e);
+                    } finally {
+                        this.chunksInFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                this.chunksInFlight.release();
+                throw e;
+            }
+        }
+
+        private void save(final List<Book> chunk) {
+            final var booksRecord = bookService.saveAll(chunk, this.claimedIds);
+            this.savedCount.add(booksRecord.getSavedBooks().size());
+            this.unsavedCount.add(booksRecord.getUnsavedBooks().size());
+            for (final var unsavedBook : booksRecord.getUnsavedBooks()) {
+                if (this.reportedCount.getAndIncrement() >= MAX_REPORTED_UNSAVED_BOOKS)
+                    break;
+                this.unsavedBooks.add(unsavedBook);
+            }
+        }
+
+        // Holding every permit means no chunk is left in flight.
+        private void await() throws InterruptedIOException {
+            acquire(maxChunksInFlight);
+            this.chunksInFlight.release(maxChunksInFlight);
+        }
+
+        private void acquire(final int permits) throws InterruptedIOException {
+            try {
+                this.chunksInFlight.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while saving books");
+            }
+        }
+
+        private BooksIngestRecord toRecord() {
+            if (Objects.nonNull(this.failure.get()))
+                throw this.failure.get();
+            return
+                    new BooksIngestRecord(
+                            this.savedCount.sum(),
+                            this.unsavedCount.sum(),
+                            List.copyOf(this.unsavedBooks)
+                    );
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.training.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vavr.control.Either;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Meters are resolved once here, so recording on the hot path is a field read instead of a registry lookup.
+final class BookMetrics {
+    // Failure counters of these are registered upfront, a failure is then counted without building a meter id.
+    private static final List<Class<? extends BookService.BookException>> FAILURES = List.of(
+            BookService.BookException.BookNotFoundException.class,
+            BookService.BookException.BookNullException.class,
+            BookService.BookException.BookIdEmptyOrNullException.class,
+            BookService.BookException.BookNameEmptyOrNullException.class,
+            BookService.BookException.BookAlreadyExistException.class,
+            BookService.BookException.BookPageLimitInvalidException.class,
+            BookService.BookException.BookSearchQueryEmptyException.class,
+            BookService.BookException.BookIdRepeatedException.class
+    );
+
+    private final MeterRegistry registry;
+    final Operation saveOne;
+    final Operation saveAll;
+    final Operation findOneById;
+    final Operation findAllByIds;
+    final Operation findAll;
+    final Operation findPage;
+    final Operation search;
+    final Operation updateOne;
+    final Operation updateAll;
+    final Operation deleteOneById;
+    final Operation deleteAllByIds;
+    private final DistributionSummary batchSizes;
+    private final AtomicInteger lastBatchSize;
+
+    BookMetrics(final MeterRegistry registry) {
+        this.registry = registry;
+        this.saveOne = new Operation("saveOne");
+        this.saveAll = new Operation("saveAll");
+        this.findOneById = new Operation("findOneById");
+        this.findAllByIds = new Operation("findAllByIds");
+        this.findAll = new Operation("findAll");
+        this.findPage = new Operation("findPage");
+        this.search = new Operation("search");
+        this.updateOne = new Operation("updateOne");
+        this.updateAll = new Operation("updateAll");
+        this.deleteOneById = new Operation("deleteOneById");
+        this.deleteAllByIds = new Operation("deleteAllByIds");
+        this.batchSizes =
+                DistributionSummary
+                        .builder("book.service.saveall.batch.size")
+                        .description("Books received per saveAll call")
+                        .publishPercentileHistogram()
+                        .register(registry);
+        this.lastBatchSize = new AtomicInteger();
+        Gauge
+                .builder("book.service.saveall.last.batch.size", this.lastBatchSize, AtomicInteger::get)
+                .description("Books received by the latest saveAll call")
+                .register(registry);
+    }
+
+    <T> Either<? extends BookService.BookException, T> record(
+            final Operation operation, final Supplier<Either<? extends BookService.BookException, T>> call) {
+        final var result = operation.record(call);
+        if (result.isLeft())
+            operation.failure(result.getLeft());
+        return result;
+    }
+
+    void batch(final int size) {
+        this.batchSizes.record(size);
+        this.lastBatchSize.set(size);
+    }
+
+    final class Operation {
+        private final String name;
+        private final Timer timer;
+        private final Map<Class<?>, Counter> failures;
+
+        private Operation(final String name) {
+            this.name = name;
+            this.timer =
+                    Timer
+                            .builder("book.service.calls")
+                            .description("BookService call latency, the count is the throughput")
+                            .tag("operation", name)
+                            .publishPercentileHistogram()
+                            .register(registry);
+            this.failures = new ConcurrentHashMap<>();
+            for (final var failure : FAILURES) {
+                this.failures.put(failure, failureCounter(failure));
+            }
+        }
+
+        <T> T record(final Supplier<T> call) {
+            return this.timer.record(call);
+        }
+
+        // A BookException outside FAILURES gets its counter on first use.
+        void failure(final BookService.BookException exception) {
+            final var counter = this.failures.get(exception.getClass());
+            if (Objects.nonNull(counter))
+                counter.increment();
+            else
+                this.failures.computeIfAbsent(exception.getClass(), this::failureCounter).increment();
+        }
+
+        private Counter failureCounter(final Class<?> failure) {
+            return
+                    Counter
+                            .builder("book.service.failures")
+                            .description("Operations answered with a BookException")
+                            .tag("operation", this.name)
+                            .tag("exception", failure.getSimpleName())
+                            .register(registry);
+        }
+    }
+}
@@ -1,122 +1,430 @@
 package org.training.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.vavr.control.Either;
 import lombok.Data;
 import org.training.model.Book;
+import org.training.repository.BookMutation;
+import org.training.repository.CatalogVersion;
 import org.training.repository.IBookRepository;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
 public class BookService {
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    // Validation failures are returned as values, never thrown, so a single stackless instance per message is shared.
+    private static final BookException.BookNullException BOOK_NULL =
+            new BookException.BookNullException("Book is null");
+    private static final BookException.BookIdEmptyOrNullException BOOK_ID_EMPTY_OR_NULL =
+            new BookException.BookIdEmptyOrNullException("Book id is empty or null");
+    private static final BookException.BookIdEmptyOrNullException BOOK_ID_UNVALID =
+            new BookException.BookIdEmptyOrNullException("Book id is unvalid");
+    private static final BookException.BookNameEmptyOrNullException BOOK_NAME_EMPTY_OR_NULL =
+            new BookException.BookNameEmptyOrNullException("Book name is empty or null");
+    private static final BookException.BookAlreadyExistException BOOK_ALREADY_EXIST =
+            new BookException.BookAlreadyExistException("Book already exist!");
+    private static final BookException.BookNotFoundException BOOK_NOT_FOUND =
+            new BookException.BookNotFoundException("Book not found!");
+    private static final BookException.BookNotFoundException BOOK_NOT_FOUND_FOR_DELETE =
+            new BookException.BookNotFoundException("Book not found");
+    private static final BookException.BookPageLimitInvalidException BOOK_PAGE_LIMIT_INVALID =
+            new BookException.BookPageLimitInvalidException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+    private static final BookException.BookSearchQueryEmptyException BOOK_SEARCH_QUERY_EMPTY =
+            new BookException.BookSearchQueryEmptyException("Search query is empty");
+    private static final BookException.BookIdRepeatedException BOOK_ID_REPEATED =
+            new BookException.BookIdRepeatedException("Book id is repeated in the batch");
+
     private final IBookRepository bookRepository;
+    private final BookMetrics metrics;
+    private final BookChangeFeed changeFeed;
 
+    // An empty composite registry hands out no-op meters, so an uninstrumented service pays next to nothing.
     public BookService(final IBookRepository bookRepository) {
+        this(bookRepository, new CompositeMeterRegistry());
+    }
+
+    public BookService(final IBookRepository bookRepository, final MeterRegistry meterRegistry) {
+        this(bookRepository, meterRegistry, BookChangeFeed.disabled());
+    }
+
+    // Every effective write is published to the change feed, in the order the repository applied it.
+    public BookService(final IBookRepository bookRepository, final MeterRegistry meterRegistry, final BookChangeFeed changeFeed) {
         this.bookRepository = bookRepository;
+        this.metrics = new BookMetrics(meterRegistry);
+        this.changeFeed = changeFeed;
     }
 
     public final Either<? extends BookException, Book> saveOne(final Book book) {
-        final var isBookValid = isValidBookForSave(book);
-
         return
-                isBookValid.isValid()
-                        ? Either.right(this.bookRepository.saveOne(book))
-                        : Either.left(
-                        isBookValid
-                                .reason()
-                                .orElse(new BookException("Unknown error")));
+                this.metrics.record(this.metrics.saveOne, () -> {
+                    final var bookViolation = bookViolation(book);
+
+                    if (Objects.isNull(bookViolation))
+                        return
+                                this.changeFeed.ordered(book.getId(), () ->
+                                        this.bookRepository
+                                                .saveIfAbsent(book)
+                                                .map(this::publishSave)
+                                                .<Either<? extends BookException, Book>>map(Either::right)
+                                                .orElseGet(() -> Either.left(BOOK_ALREADY_EXIST))
+                                );
+
+                    return Either.left(bookViolation);
+                });
     }
 
     public final BooksRecord saveAll(final Collection<Book> books) {
+        this.metrics.batch(books.size());
+        final var booksRecord = this.metrics.saveAll.record(() -> saveAllValid(books));
+        for (final var unsavedBook : booksRecord.getUnsavedBooks()) {
+            this.metrics.saveAll.failure(unsavedBook.getReason());
+        }
+        return booksRecord;
+    }
 
-        final var booksPartition =
-                books
-                        .stream()
-                        .map(this::isValidBookForSave)
-                        .collect(
-                                Collectors.partitioningBy(
-                                        ValidBookRecord::isValid
-                                )
-                        );
+    /**
+     * Saves one chunk of an ingest whose other chunks may be saved concurrently. The ids of its valid books are added
+     * to {@code claimedIds} until the chunk is saved, so a book whose id is claimed by another chunk is answered as a
+     * duplicate, the same way a repeated id inside one batch is.
+     */
+    final BooksRecord saveAll(final Collection<Book> books, final Set<String> claimedIds) {
+        final var claimedBooks = new ArrayList<Book>(books.size());
+        final var unsavedBooks = new ArrayList<BooksRecord.UnsavedBooks>();
+        try {
+            for (final var book : books) {
+                var bookViolation = bookViolation(book);
+                if (Objects.isNull(bookViolation) && !claimedIds.add(book.getId()))
+                    bookViolation = BOOK_ALREADY_EXIST;
+                if (Objects.isNull(bookViolation)) {
+                    claimedBooks.add(book);
+                } else {
+                    unsavedBooks.add(new BooksRecord.UnsavedBooks(book, bookViolation));
+                    this.metrics.saveAll.failure(bookViolation);
+                }
+            }
+
+            final var booksRecord = saveAll(claimedBooks);
+            unsavedBooks.addAll(booksRecord.getUnsavedBooks());
+            return
+                    new BooksRecord(
+                            booksRecord.getSavedBooks(),
+                            Collections.unmodifiableList(unsavedBooks)
+                    );
+        } finally {
+            for (final var book : claimedBooks) {
+                claimedIds.remove(book.getId());
+            }
+        }
+    }
+
+    private BooksRecord saveAllValid(final Collection<Book> books) {
+        final var batchIds = new HashSet<String>(Math.max(16, books.size() * 4 / 3 + 1));
+        final var validBooks = new ArrayList<Book>(books.size());
+        final var unsavedBooks = new ArrayList<BooksRecord.UnsavedBooks>();
+        for (final var book : books) {
+            final var bookViolation = batchBookViolation(book, batchIds);
+            if (Objects.isNull(bookViolation))
+                validBooks.add(book);
+            else
+                unsavedBooks.add(new BooksRecord.UnsavedBooks(book, bookViolation));
+        }
 
-        final var validBooks =
-                booksPartition
-                        .get(true)
-                        .stream()
-                        .map(ValidBookRecord::book)
-                        .collect(Collectors.toUnmodifiableList());
-        final var unvalidBooks =
-                booksPartition
-                        .get(false)
-                        .stream()
-                        .map(this::validBookRecord2UnsavedBooks)
-                        .collect(Collectors.toUnmodifiableList());
+        // Saved only where absent, in the same pass that checks it, so a book saved concurrently is never overwritten.
+        final Collection<Book> savedBooks =
+                validBooks.isEmpty()
+                        ? List.of()
+                        : this.changeFeed.ordered(batchIds, () ->
+                                publishSaves(this.bookRepository.saveAllIfAbsent(Collections.unmodifiableList(validBooks)))
+                        );
+        if (savedBooks.size() < validBooks.size()) {
+            final var savedIds = new HashSet<String>(Math.max(16, savedBooks.size() * 4 / 3 + 1));
+            for (final var book : savedBooks) {
+                savedIds.add(book.getId());
+            }
+            for (final var book : validBooks) {
+                if (!savedIds.contains(book.getId()))
+                    unsavedBooks.add(new BooksRecord.UnsavedBooks(book, BOOK_ALREADY_EXIST));
+            }
+        }
 
         return
                 new BooksRecord(
-                        this.bookRepository.saveAll(validBooks),
-                        unvalidBooks
+                        savedBooks,
+                        Collections.unmodifiableList(unsavedBooks)
                 );
-
     }
 
 
     public final Either<? extends BookException, Book> findOneById(final String id) {
-        final var isBookIdValid = isBookIdValid(id);
-        if (isBookIdValid.isPresent())
-            return Either.left(isBookIdValid.get());
-
         return
-                this.bookRepository.findOneById(id)
-                        .<Either<? extends BookException, Book>>map(Either::right)
-                        .orElse(Either.left(new BookException.BookNotFoundException("Book not found!")));
+                this.metrics.record(this.metrics.findOneById, () -> {
+                    if (isBlank(id))
+                        return Either.left(BOOK_ID_EMPTY_OR_NULL);
+
+                    return
+                            this.bookRepository.findOneById(id)
+                                    .<Either<? extends BookException, Book>>map(Either::right)
+                                    .orElseGet(() -> Either.left(BOOK_NOT_FOUND));
+                });
+    }
+
+    /**
+     * Looks the books up in a single repository call. Ids are answered once each, found books in request order, the
+     * blank and unknown ids with the reason they were not found.
+     */
+    public final BooksLookupRecord findAllByIds(final Collection<String> ids) {
+        final var booksLookupRecord = this.metrics.findAllByIds.record(() -> findAllValidIds(ids));
+        for (final var unfoundBook : booksLookupRecord.getUnfoundBooks()) {
+            this.metrics.findAllByIds.failure(unfoundBook.getReason());
+        }
+        return booksLookupRecord;
+    }
+
+    private BooksLookupRecord findAllValidIds(final Collection<String> ids) {
+        if (Objects.isNull(ids))
+            return new BooksLookupRecord(List.of(), List.of());
+
+        final var validIds = new LinkedHashSet<String>(Math.max(16, ids.size() * 4 / 3 + 1));
+        final var unfoundBooks = new ArrayList<BooksLookupRecord.UnfoundBooks>();
+        for (final var id : ids) {
+            if (isBlank(id))
+                unfoundBooks.add(new BooksLookupRecord.UnfoundBooks(id, BOOK_ID_EMPTY_OR_NULL));
+            else
+                validIds.add(id);
+        }
+
+        final Map<String, Book> books =
+                validIds.isEmpty()
+                        ? Map.of()
+                        : this.bookRepository.findAllByIds(validIds);
+        final var foundBooks = new ArrayList<Book>(books.size());
+        for (final var id : validIds) {
+            final var book = books.get(id);
+            if (Objects.isNull(book))
+                unfoundBooks.add(new BooksLookupRecord.UnfoundBooks(id, BOOK_NOT_FOUND));
+            else
+                foundBooks.add(book);
+        }
 
+        return
+                new BooksLookupRecord(
+                        Collections.unmodifiableList(foundBooks),
+                        Collections.unmodifiableList(unfoundBooks)
+                );
     }
 
     public final Collection<Book> findAll() {
         return
-                this.bookRepository
-                        .findAll();
+                this.metrics.findAll.record(
+                        this.bookRepository::findAll
+                );
+    }
+
+    public final Either<? extends BookException, BooksPage> findPage(final String cursor, final int limit) {
+        return
+                this.metrics.record(this.metrics.findPage, () -> {
+                    if (limit <= 0 || limit > MAX_PAGE_SIZE)
+                        return
+                                Either.left(BOOK_PAGE_LIMIT_INVALID);
+
+                    final var books = this.bookRepository.findPage(cursor, limit);
+                    return
+                            Either.right(
+                                    new BooksPage(
+                                            books,
+                                            books.size() < limit
+                                                    ? null
+                                                    : books.get(books.size() - 1).getId()
+                                    ));
+                });
+    }
+
+    public final Either<? extends BookException, List<Book>> search(final String query, final int limit) {
+        return
+                this.metrics.record(this.metrics.search, () -> {
+                    if (isBlank(query))
+                        return
+                                Either.left(BOOK_SEARCH_QUERY_EMPTY);
+                    if (limit <= 0 || limit > MAX_PAGE_SIZE)
+                        return
+                                Either.left(BOOK_PAGE_LIMIT_INVALID);
+
+                    return
+                            Either.right(
+                                    this.bookRepository.search(query, limit)
+                            );
+                });
     }
 
     public final Either<? extends BookException, Book> updateOne(final Book book) {
-        final var isBookValid = isValidBookForUpdate(book);
+        return
+                this.metrics.record(this.metrics.updateOne, () -> {
+                    final var bookViolation = bookViolation(book);
+
+                    if (Objects.isNull(bookViolation))
+                        return
+                                this.changeFeed.ordered(book.getId(), () ->
+                                        this.bookRepository
+                                                .replaceIfPresent(book)
+                                                .map(this::publishSave)
+                                                .<Either<? extends BookException, Book>>map(Either::right)
+                                                .orElseGet(() -> Either.left(BOOK_NOT_FOUND))
+                                );
+
+                    return Either.left(bookViolation);
+                });
+    }
 
-        if (isBookValid.isValid())
-            return
-                    this.bookRepository
-                            .updateOne(book)
-                            .<Either<? extends BookException, Book>>map(Either::right)
-                            .orElse(Either.left(new BookException("Unknown book exception!")));
+    /**
+     * Updates the books in a single repository call, reporting the rejected ones like {@link #saveAll} does. A book
+     * whose id appears earlier in the batch is rejected, which of them should win is not for the service to guess.
+     */
+    public final BooksRecord updateAll(final Collection<Book> books) {
+        final var booksRecord = this.metrics.updateAll.record(() -> updateAllValid(books));
+        for (final var unsavedBook : booksRecord.getUnsavedBooks()) {
+            this.metrics.updateAll.failure(unsavedBook.getReason());
+        }
+        return booksRecord;
+    }
+
+    private BooksRecord updateAllValid(final Collection<Book> books) {
+        if (Objects.isNull(books))
+            return new BooksRecord(List.of(), List.of());
+
+        final var batchIds = new HashSet<String>(Math.max(16, books.size() * 4 / 3 + 1));
+        final var validBooks = new ArrayList<Book>(books.size());
+        final var unsavedBooks = new ArrayList<BooksRecord.UnsavedBooks>();
+        for (final var book : books) {
+            var bookViolation = bookViolation(book);
+            if (Objects.isNull(bookViolation) && !batchIds.add(book.getId()))
+                bookViolation = BOOK_ID_REPEATED;
+            if (Objects.isNull(bookViolation))
+                validBooks.add(book);
+            else
+                unsavedBooks.add(new BooksRecord.UnsavedBooks(book, bookViolation));
+        }
+
+        final Collection<Book> updatedBooks =
+                validBooks.isEmpty()
+                        ? List.of()
+                        : this.changeFeed.ordered(batchIds, () ->
+                                publishSaves(this.bookRepository.updateAll(Collections.unmodifiableList(validBooks)))
+                        );
+        if (updatedBooks.size() < validBooks.size()) {
+            final var updatedIds = new HashSet<String>(Math.max(16, updatedBooks.size() * 4 / 3 + 1));
+            for (final var book : updatedBooks) {
+                updatedIds.add(book.getId());
+            }
+            for (final var book : validBooks) {
+                if (!updatedIds.contains(book.getId()))
+                    unsavedBooks.add(new BooksRecord.UnsavedBooks(book, BOOK_NOT_FOUND));
+            }
+        }
 
         return
-                Either.left(
-                        isBookValid
-                                .reason()
-                                .orElse(new BookException("Unknown book exception!")));
+                new BooksRecord(
+                        updatedBooks,
+                        Collections.unmodifiableList(unsavedBooks)
+                );
     }
 
     public final Either<? extends BookException, Book> deleteOneById(final String id) {
-        final var isBookIdValid = isBookIdValid(id);
-        if (isBookIdValid.isPresent())
-            return
-                    Either
-                            .left(new BookException.BookIdEmptyOrNullException("Book id is unvalid"));
-
         return
-                this.bookRepository
-                        .deleteOneById(id)
-                        .<Either<? extends BookException, Book>>map(Either::right)
-                        .orElse(
+                this.metrics.record(this.metrics.deleteOneById, () -> {
+                    if (isBlank(id))
+                        return
                                 Either
-                                        .left(new BookException.BookNotFoundException("Book not found")));
+                                        .left(BOOK_ID_UNVALID);
+
+                    return
+                            this.changeFeed.ordered(id, () ->
+                                    this.bookRepository
+                                            .deleteOneById(id)
+                                            .map(this::publishDelete)
+                                            .<Either<? extends BookException, Book>>map(Either::right)
+                                            .orElseGet(
+                                                    () -> Either
+                                                            .left(BOOK_NOT_FOUND_FOR_DELETE))
+                            );
+                });
     }
 
     public final void deleteAll() {
-        this.bookRepository.deleteAll();
+        this.changeFeed.orderedAll(() -> {
+            this.bookRepository.deleteAll();
+            this.changeFeed.publish(BookMutation.deleteAll());
+            return null;
+        });
+    }
+
+    /**
+     * Deletes the books in a single repository call. Ids are answered once each, the blank and unknown ones with the
+     * reason {@link #deleteOneById} would give.
+     */
+    public final BooksDeletionRecord deleteAll(final Collection<String> ids) {
+        final var booksDeletionRecord = this.metrics.deleteAllByIds.record(() -> deleteAllValidIds(ids));
+        for (final var undeletedBook : booksDeletionRecord.getUndeletedBooks()) {
+            this.metrics.deleteAllByIds.failure(undeletedBook.getReason());
+        }
+        return booksDeletionRecord;
+    }
+
+    private BooksDeletionRecord deleteAllValidIds(final Collection<String> ids) {
+        if (Objects.isNull(ids))
+            return new BooksDeletionRecord(List.of(), List.of());
+
+        final var validIds = new LinkedHashSet<String>(Math.max(16, ids.size() * 4 / 3 + 1));
+        final var undeletedBooks = new ArrayList<BooksLookupRecord.UnfoundBooks>();
+        for (final var id : ids) {
+            if (isBlank(id))
+                undeletedBooks.add(new BooksLookupRecord.UnfoundBooks(id, BOOK_ID_UNVALID));
+            else
+                validIds.add(id);
+        }
+
+        final Collection<Book> deletedBooks =
+                validIds.isEmpty()
+                        ? List.of()
+                        : this.changeFeed.ordered(validIds, () ->
+                                publishDeletes(this.bookRepository.deleteAllByIds(validIds))
+                        );
+        if (deletedBooks.size() < validIds.size()) {
+            for (final var book : deletedBooks) {
+                validIds.remove(book.getId());
+            }
+            for (final var id : validIds) {
+                undeletedBooks.add(new BooksLookupRecord.UnfoundBooks(id, BOOK_NOT_FOUND_FOR_DELETE));
+            }
+        }
+
+        return
+                new BooksDeletionRecord(
+                        deletedBooks,
+                        Collections.unmodifiableList(undeletedBooks)
+                );
+    }
+
+    public final CatalogVersion catalogVersion() {
+        return
+                this.bookRepository.catalogVersion();
+    }
+
+    public final boolean isBlocking() {
+        return
+                this.bookRepository.isBlocking();
     }
 
     public final boolean isExist(final String id) {
@@ -127,79 +435,42 @@ public class BookService {
     public final Optional<BookException.BookNullException> isBookNull(final Book book) {
         return
                 Objects.isNull(book)
-                        ? Optional.ofNullable(new BookException.BookNullException("Book is null"))
+                        ? Optional.of(BOOK_NULL)
                         : Optional.empty();
     }
 
     public final Optional<BookException.BookIdEmptyOrNullException> isBookIdValid(final String id) {
-        final var idIsEmptyOrNull = Objects.isNull(id) || id.isBlank();
-        return idIsEmptyOrNull
-                ? Optional.ofNullable(new BookException.BookIdEmptyOrNullException("Book id is empty or null"))
+        return isBlank(id)
+                ? Optional.of(BOOK_ID_EMPTY_OR_NULL)
                 : Optional.empty();
     }
 
     public final Optional<BookException.BookNameEmptyOrNullException> isBookNameValid(final String name) {
-        final var isNameValid = Objects.isNull(name) || name.isBlank();
-        return isNameValid
-                ? Optional.ofNullable(new BookException.BookNameEmptyOrNullException("Book name is empty or null"))
+        return isBlank(name)
+                ? Optional.of(BOOK_NAME_EMPTY_OR_NULL)
                 : Optional.empty();
     }
 
     public final ValidBookRecord isValidBookForSave(final Book book) {
-        final var isBookNull = isBookNull(book);
-        if (isBookNull.isPresent()) {
-            return
-                    ValidBookRecord
-                            .invalid(book, isBookNull.get());
-        }
-
-        final var isBookIdValid = isBookIdValid(book.getId());
-        if (isBookIdValid.isPresent()) {
-            return
-                    ValidBookRecord
-                            .invalid(book, isBookIdValid.get());
-
+        final var isBookValid = isValidBook(book);
+        if (!isBookValid.isValid()) {
+            return isBookValid;
         }
 
-        final var isBookNameValid = isBookNameValid(book.getName());
-        if (isBookNameValid.isPresent()) {
-            return
-                    ValidBookRecord
-                            .invalid(book, isBookNameValid.get());
-
-        }
         final var isBookExist = isExist(book.getId());
         if (isBookExist) {
             return
                     ValidBookRecord
-                            .invalid(book, new BookException.BookAlreadyExistException("Book already exist!"));
+                            .invalid(book, BOOK_ALREADY_EXIST);
         }
 
         return ValidBookRecord.valid(book);
     }
 
     public final ValidBookRecord isValidBookForUpdate(Book book) {
-        final var isBookNull = isBookNull(book);
-        if (isBookNull.isPresent()) {
-            return
-                    ValidBookRecord
-                            .invalid(book, isBookNull.get());
-        }
-
-        final var isBookIdValid = isBookIdValid(book.getId());
-        if (isBookIdValid.isPresent()) {
-            return
-                    ValidBookRecord
-                            .invalid(book, isBookIdValid.get());
-
-        }
-
-        final var isBookNameValid = isBookNameValid(book.getName());
-        if (isBookNameValid.isPresent()) {
-            return
-                    ValidBookRecord
-                            .invalid(book, isBookNameValid.get());
-
+        final var isBookValid = isValidBook(book);
+        if (!isBookValid.isValid()) {
+            return isBookValid;
         }
 
         final var isBookExist = isExist(book.getId());
@@ -208,7 +479,7 @@ public class BookService {
                     ValidBookRecord
                             .invalid(
                                     book,
-                                    new BookException.BookNotFoundException("Book not found!"));
+                                    BOOK_NOT_FOUND);
         }
 
         return
@@ -216,6 +487,60 @@ public class BookService {
                         .valid(book);
     }
 
+    private ValidBookRecord isValidBook(final Book book) {
+        final var bookViolation = bookViolation(book);
+        return
+                Objects.isNull(bookViolation)
+                        ? ValidBookRecord.valid(book)
+                        : ValidBookRecord.invalid(book, bookViolation);
+    }
+
+    // Returns the first validation failure of the book or null when it is valid, without allocating.
+    private static BookException bookViolation(final Book book) {
+        if (Objects.isNull(book))
+            return BOOK_NULL;
+        if (isBlank(book.getId()))
+            return BOOK_ID_EMPTY_OR_NULL;
+        if (isBlank(book.getName()))
+            return BOOK_NAME_EMPTY_OR_NULL;
+        return null;
+    }
+
+    private static BookException batchBookViolation(final Book book, final Set<String> batchIds) {
+        final var bookViolation = bookViolation(book);
+        if (Objects.nonNull(bookViolation))
+            return bookViolation;
+        if (!batchIds.add(book.getId()))
+            return BOOK_ALREADY_EXIST;
+        return null;
+    }
+
+    private Book publishSave(final Book book) {
+        this.changeFeed.publish(BookMutation.save(book));
+        return book;
+    }
+
+    private Book publishDelete(final Book book) {
+        this.changeFeed.publish(BookMutation.delete(book.getId()));
+        return book;
+    }
+
+    private Collection<Book> publishSaves(final Collection<Book> books) {
+        if (this.changeFeed.isEnabled())
+            this.changeFeed.publishAll(books.stream().map(BookMutation::save).collect(Collectors.toUnmodifiableList()));
+        return books;
+    }
+
+    private Collection<Book> publishDeletes(final Collection<Book> books) {
+        if (this.changeFeed.isEnabled())
+            this.changeFeed.publishAll(books.stream().map(it -> BookMutation.delete(it.getId())).collect(Collectors.toUnmodifiableList()));
+        return books;
+    }
+
+    private static boolean isBlank(final String value) {
+        return Objects.isNull(value) || value.isBlank();
+    }
+
     @Data
     public static final class BooksRecord {
         private final Collection<Book> savedBooks;
@@ -228,16 +553,28 @@ public class BookService {
         }
     }
 
-    private final BooksRecord.UnsavedBooks validBookRecord2UnsavedBooks(final ValidBookRecord validBookRecord) {
-        return
-                new
-                        BooksRecord
-                                .UnsavedBooks(
-                        validBookRecord.book,
-                        validBookRecord
-                                .reason()
-                                .orElse(new BookException("Unknown exception")));
+    @Data
+    public static final class BooksLookupRecord {
+        private final Collection<Book> foundBooks;
+        private final Collection<UnfoundBooks> unfoundBooks;
 
+        @Data
+        public static final class UnfoundBooks {
+            private final String id;
+            private final BookException reason;
+        }
+    }
+
+    @Data
+    public static final class BooksDeletionRecord {
+        private final Collection<Book> deletedBooks;
+        private final Collection<BooksLookupRecord.UnfoundBooks> undeletedBooks;
+    }
+
+    @Data
+    public static final class BooksPage {
+        private final Collection<Book> books;
+        private final String nextCursor;
     }
 
     private static final class ValidBookRecord {
@@ -286,7 +623,7 @@ public class BookService {
 
     public static class BookException extends RuntimeException {
         public BookException(String message) {
-            super(message);
+            super(message, null, false, false);
         }
 
         public final static class BookNotFoundException extends BookException {
@@ -324,5 +661,26 @@ public class BookService {
             }
         }
 
+        public final static class BookPageLimitInvalidException extends BookException {
+
+            public BookPageLimitInvalidException(String message) {
+                super(message);
+            }
+        }
+
+        public final static class BookSearchQueryEmptyException extends BookException {
+
+            public BookSearchQueryEmptyException(String message) {
+                super(message);
+            }
+        }
+
+        public final static class BookIdRepeatedException extends BookException {
+
+            public BookIdRepeatedException(String message) {
+                super(message);
+            }
+        }
+
     }
 }
@@ -0,0 +1,150 @@
+package org.training;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup regression check of the packaged application: launches it {@code startup.runs} times, measures the time from
+ * process start to the first answered {@code GET /books} and the resident set size right after it, and fails when a
+ * median exceeds {@code startup-baseline.properties} by more than its tolerance.
+ * <p>
+ * Runs the native executable when {@code native.image.path} is set, the JVM build otherwise. Measured values are
+ * written to {@code target/startup-<mode>.properties}, copy them into the baseline when a change is accepted. Until
+ * the baseline holds values for the mode, the medians are only reported.
+ */
+@EnabledIfSystemProperty(named = "startup.check", matches = "true")
+public class StartupFootprintIT {
+    private static final long READY_TIMEOUT_MILLIS = 60_000;
+
+    @Test
+    public void startup_expected_time_to_first_request_and_rss_within_baseline(final TestReporter testReporter) throws Exception {
+        Assumptions.assumeTrue(Files.isReadable(Path.of("/proc/self/status")), "RSS is read from /proc, Linux only");
+
+        final var nativeImagePath = System.getProperty("native.image.path");
+        final var mode = Objects.isNull(nativeImagePath) ? "jvm" : "native";
+        final var runs = Integer.getInteger("startup.runs", 5);
+        final var timesToFirstRequest = new ArrayList<Long>(runs);
+        final var residentSetSizes = new ArrayList<Long>(runs);
+        for (int i = 0; i < runs; i++) {
+            final var port = freePort();
+            final var command =
+                    Objects.isNull(nativeImagePath)
+                            ? List.of(javaExecutable(), "-Dquarkus.http.port=" + port, "-jar", System.getProperty("quarkus.app.path", "target/quarkus-app/quarkus-run.jar"))
+                            : List.of(nativeImagePath, "-Dquarkus.http.port=" + port);
+            final var started = System.nanoTime();
+            final var process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            try {
+                awaitFirstRequest(port, process);
+                timesToFirstRequest.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                residentSetSizes.add(residentSetSizeMegabytes(process.pid()));
+            } finally {
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS))
+                    process.destroyForcibly();
+            }
+        }
+
+        final var timeToFirstRequest = median(timesToFirstRequest);
+        final var residentSetSize = median(residentSetSizes);
+        record(mode, timeToFirstRequest, residentSetSize);
+
+        final var baseline = new Properties();
+        try (final InputStream input = StartupFootprintIT.class.getResourceAsStream("/startup-baseline.properties")) {
+            baseline.load(Objects.requireNonNull(input, "startup-baseline.properties is missing"));
+        }
+        testReporter.publishEntry(mode + ".time-to-first-request-ms", Long.toString(timeToFirstRequest));
+        testReporter.publishEntry(mode + ".rss-mb", Long.toString(residentSetSize));
+        // A guessed baseline would fail or pass runs for no reason, a mode not measured yet is only reported.
+        if (isBlank(baseline.getProperty(mode + ".time-to-first-request-ms")) || isBlank(baseline.getProperty(mode + ".rss-mb"))) {
+            testReporter.publishEntry("No " + mode + " startup baseline, reporting only");
+            return;
+        }
+
+        final var tolerance = 1 + Double.parseDouble(baseline.getProperty("tolerance"));
+        final var maxTimeToFirstRequest = Long.parseLong(baseline.getProperty(mode + ".time-to-first-request-ms").trim());
+        final var maxResidentSetSize = Long.parseLong(baseline.getProperty(mode + ".rss-mb").trim());
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(
+                        timeToFirstRequest <= maxTimeToFirstRequest * tolerance,
+                        mode + " time to first request regressed: " + timeToFirstRequest + " ms, baseline " + maxTimeToFirstRequest + " ms"),
+                () -> Assertions.assertTrue(
+                        residentSetSize <= maxResidentSetSize * tolerance,
+                        mode + " RSS regressed: " + residentSetSize + " MB, baseline " + maxResidentSetSize + " MB")
+        );
+    }
+
+    private static void awaitFirstRequest(final int port, final Process process) throws IOException, InterruptedException {
+        final var deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+        final var url = new URL("http://localhost:" + port + "/books");
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive())
+                Assertions.fail("Application exited with " + process.exitValue() + " before answering");
+            try {
+                final var connection = (HttpURLConnection) url.openConnection();
+                connection.setConnectTimeout(100);
+                if (connection.getResponseCode() == 200)
+                    return;
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(5);
+        }
+        Assertions.fail("Application did not answer within " + READY_TIMEOUT_MILLIS + " ms");
+    }
+
+    private static long residentSetSizeMegabytes(final long pid) throws IOException {
+        for (final var line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:"))
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1_024;
+        }
+        throw new IOException("No VmRSS for process " + pid);
+    }
+
+    private static void record(final String mode, final long timeToFirstRequest, final long residentSetSize) throws IOException {
+        final var measured = new Properties();
+        measured.setProperty(mode + ".time-to-first-request-ms", Long.toString(timeToFirstRequest));
+        measured.setProperty(mode + ".rss-mb", Long.toString(residentSetSize));
+        Files.createDirectories(Path.of("target"));
+        try (final OutputStream output = Files.newOutputStream(Path.of("target", "startup-" + mode + ".properties"))) {
+            measured.store(output, "Median of " + Integer.getInteger("startup.runs", 5) + " runs");
+        }
+    }
+
+    private static boolean isBlank(final String value) {
+        return Objects.isNull(value) || value.isBlank();
+    }
+
+    private static long median(final List<Long> values) {
+        final var sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static int freePort() throws IOException {
+        try (final var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,70 @@
+package org.training.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+import org.training.repository.BookCatalogReadOnlyException;
+import org.training.repository.ReplicatedBookRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+public class BeanConfigurationTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final List<Closeable> repositories = new ArrayList<>();
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        for (final var repository : this.repositories) {
+            repository.close();
+        }
+    }
+
+    @Test
+    public void replicated_follower_with_index_and_cache_enabled_expected_leader_changes_visible() {
+        final var leader = ReplicatedBookRepository.leader(0, 1_000);
+        this.repositories.add(leader);
+        final var beanConfiguration = new BeanConfiguration();
+        beanConfiguration.replicationRole = "follower";
+        beanConfiguration.replicationPort = 0;
+        beanConfiguration.replicationLeader = Optional.of("localhost:" + leader.port());
+        beanConfiguration.replicationLogCapacity = 1_000;
+        beanConfiguration.searchIndexEnabled = true;
+        beanConfiguration.cacheEnabled = true;
+        beanConfiguration.cacheMaximumSize = 100;
+        final var follower = beanConfiguration.bookRepository("replicated", new SimpleMeterRegistry());
+        this.repositories.add((Closeable) follower);
+
+        leader.saveOne(new Book("123", "Quarkus cookbook"));
+        awaitUntil(() -> follower.findOneById("123").isPresent());
+        leader.updateOne(new Book("123", "Micronaut cookbook"));
+
+        awaitUntil(() -> follower.findOneById("123").map(Book::getName).filter("Micronaut cookbook"::equals).isPresent());
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Book("123", "Micronaut cookbook")), follower.search("micronaut", 10)),
+                () -> Assertions.assertEquals(List.of(), follower.search("quarkus", 10)),
+                () -> Assertions.assertThrows(BookCatalogReadOnlyException.class, () -> follower.saveOne(new Book("234", "Java cookbook")))
+        );
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        final var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline)
+                Assertions.fail("Follower did not converge within " + TIMEOUT_MILLIS + " ms");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Assertions.fail("Interrupted while waiting for the follower");
+            }
+        }
+    }
+}
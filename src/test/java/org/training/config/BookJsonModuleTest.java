@@ -0,0 +1,110 @@
+package org.training.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.controller.BookController;
+import org.training.model.Book;
+import org.training.repository.BookMutation;
+import org.training.service.BookChange;
+import org.training.service.BookIngestService;
+import org.training.service.BookService;
+
+import java.util.List;
+
+public class BookJsonModuleTest {
+    private final ObjectMapper reflectiveMapper =
+            new ObjectMapper()
+                    .findAndRegisterModules()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ObjectMapper moduleMapper =
+            new ObjectMapper()
+                    .findAndRegisterModules()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                    .registerModule(new BookJsonModule());
+
+    @Test
+    public void serialize_payloads_expected_same_json_as_reflective_mapping() {
+        final var books = List.of(new Book("123", "Quarkus cookbook"), new Book("234", null));
+        final var unsavedBooks = List.of(new BookController.ViewBooksRecord.UnsavedBooks(new Book("", "Java cookbook"), "Book id is empty or null"));
+
+        Assertions.assertAll(
+                () -> assertSameJson(new Book("123", "Quarkus cookbook")),
+                () -> assertSameJson(new BookService.BooksPage(books, "234")),
+                () -> assertSameJson(new BookService.BooksPage(List.of(), null)),
+                () -> assertSameJson(new BookController.ViewBooksRecord(books, unsavedBooks)),
+                () -> assertSameJson(new BookController.ViewBooksIngestRecord(2, 1, unsavedBooks)),
+                () -> assertSameJson(
+                        new BookController.ViewBooksLookupRecord(
+                                books,
+                                List.of(new BookController.ViewBooksLookupRecord.UnfoundBooks("345", "Book not found!"))
+                        )
+                ),
+                () -> assertSameJson(
+                        new BookController.ViewBooksDeletionRecord(
+                                books,
+                                List.of(new BookController.ViewBooksLookupRecord.UnfoundBooks("", "Book id is unvalid"))
+                        )
+                ),
+                () -> assertSameJson(new BookChange(1_634_000_000_000_001L, BookMutation.save(new Book("123", "Quarkus cookbook")))),
+                () -> assertSameJson(new BookChange(1_634_000_000_000_002L, BookMutation.delete("123"))),
+                () -> assertSameJson(new BookChange(1_634_000_000_000_003L, BookMutation.deleteAll()))
+        );
+    }
+
+    @Test
+    public void serialize_books_record_expected_reasons_written_as_messages() throws JsonProcessingException {
+        final var booksRecord =
+                new BookService.BooksRecord(
+                        List.of(new Book("123", "Quarkus cookbook")),
+                        List.of(new BookService.BooksRecord.UnsavedBooks(
+                                new Book("123", "Java cookbook"),
+                                new BookService.BookException.BookAlreadyExistException("Book already exist!")))
+                );
+
+        Assertions.assertEquals(
+                this.reflectiveMapper.readTree(this.reflectiveMapper.writeValueAsString(BookController.ViewBooksRecord.fromBooksRecord2ViewBooksRecord(booksRecord))),
+                this.moduleMapper.readTree(this.moduleMapper.writeValueAsString(booksRecord))
+        );
+    }
+
+    @Test
+    public void deserialize_book_with_unknown_and_null_properties_expected_book() throws JsonProcessingException {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        new Book("123", null),
+                        this.moduleMapper.readValue("{\"edition\":{\"year\":2021},\"id\":\"123\",\"name\":null}", Book.class)),
+                () -> Assertions.assertEquals(
+                        List.of(new Book("123", "Quarkus cookbook"), new Book(null, null)),
+                        this.moduleMapper.readValue(
+                                "[{\"id\":\"123\",\"name\":\"Quarkus cookbook\"},{}]",
+                                this.moduleMapper.getTypeFactory().constructCollectionType(List.class, Book.class))),
+                () -> Assertions.assertThrows(
+                        JsonMappingException.class,
+                        () -> this.moduleMapper.readValue("{\"id\":[\"123\"]}", Book.class))
+        );
+    }
+
+    @Test
+    public void ingest_record_expected_serialized_with_counts() throws JsonProcessingException {
+        final var viewBooksIngestRecord =
+                BookController.ViewBooksIngestRecord.fromBooksIngestRecord2ViewBooksIngestRecord(
+                        new BookIngestService.BooksIngestRecord(1_000_000, 0, List.of())
+                );
+
+        Assertions.assertEquals(
+                "{\"savedCount\":1000000,\"unsavedCount\":0,\"unsavedBooks\":[]}",
+                this.moduleMapper.writeValueAsString(viewBooksIngestRecord)
+        );
+    }
+
+    private void assertSameJson(final Object value) throws JsonProcessingException {
+        Assertions.assertEquals(
+                this.reflectiveMapper.readTree(this.reflectiveMapper.writeValueAsString(value)),
+                this.moduleMapper.readTree(this.moduleMapper.writeValueAsString(value))
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package org.training.controller;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.repository.BookCatalogReadOnlyException;
+
+import javax.ws.rs.core.Response;
+
+public class BookCatalogReadOnlyExceptionMapperTest {
+    private final BookCatalogReadOnlyExceptionMapper mapper = new BookCatalogReadOnlyExceptionMapper();
+
+    @Test
+    public void read_only_catalog_expected_conflict_without_leader() {
+        final var response = this.mapper.toResponse(new BookCatalogReadOnlyException("The mapped book catalog is read-only"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Response.Status.CONFLICT, response.getStatusInfo()),
+                () -> Assertions.assertEquals("The mapped book catalog is read-only", response.getHeaderString("error")),
+                () -> Assertions.assertFalse(response.getHeaders().containsKey(BookCatalogReadOnlyExceptionMapper.LEADER_HEADER))
+        );
+    }
+
+    @Test
+    public void follower_expected_conflict_with_leader() {
+        final var response = this.mapper.toResponse(new BookCatalogReadOnlyException("Follower is read-only", "10.0.0.1:7400"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Response.Status.CONFLICT, response.getStatusInfo()),
+                () -> Assertions.assertEquals("10.0.0.1:7400", response.getHeaderString(BookCatalogReadOnlyExceptionMapper.LEADER_HEADER))
+        );
+    }
+}
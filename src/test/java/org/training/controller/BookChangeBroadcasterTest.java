@@ -0,0 +1,299 @@
+package org.training.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+import org.training.repository.BookMutation;
+import org.training.service.BookChangeFeed;
+
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+public class BookChangeBroadcasterTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final BookChangeFeed changeFeed = new BookChangeFeed(8);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookChangeBroadcaster broadcaster =
+            new BookChangeBroadcaster(this.changeFeed, new ObjectMapper(), this.meterRegistry, 10, 200, 2);
+
+    @AfterEach
+    public void afterEach() {
+        this.broadcaster.close();
+    }
+
+    @Test
+    public void subscribe_since_sequence_expected_changes_after_it_sent() {
+        final var firstSequence = this.changeFeed.lastSequence();
+        this.changeFeed.publishAll(List.of(BookMutation.save(new Book("123", "Java CookBook")), BookMutation.delete("123")));
+        final var sink = new RecordingSink(false);
+
+        this.broadcaster.subscribe(sink, new RecordingSse(), firstSequence + 1);
+        this.changeFeed.publish(BookMutation.deleteAll());
+
+        awaitUntil(() -> sink.changeIds().size() == 2);
+        Assertions.assertEquals(List.of(firstSequence + 2, firstSequence + 3), sink.changeIds());
+    }
+
+    @Test
+    public void subscribe_again_with_last_event_id_expected_only_later_changes_sent() {
+        final var firstSequence = this.changeFeed.lastSequence();
+        final var sink = new RecordingSink(false);
+        this.broadcaster.subscribe(sink, new RecordingSse(), firstSequence);
+        this.changeFeed.publish(BookMutation.save(new Book("123", "Java CookBook")));
+        awaitUntil(() -> sink.changeIds().size() == 1);
+        sink.close();
+
+        this.changeFeed.publish(BookMutation.delete("123"));
+        final var reconnectedSink = new RecordingSink(false);
+        final var lastEventId = Long.toString(sink.changeIds().get(0));
+        this.broadcaster.subscribe(reconnectedSink, new RecordingSse(), BookController.sequenceOf(lastEventId).orElseThrow());
+
+        awaitUntil(() -> reconnectedSink.changeIds().size() == 1);
+        Assertions.assertEquals(List.of(firstSequence + 2), reconnectedSink.changeIds());
+    }
+
+    @Test
+    public void subscribe_since_sequence_no_longer_retained_expected_reset_and_disconnected() {
+        final var firstSequence = this.changeFeed.lastSequence();
+        for (int i = 0; i < 20; i++) {
+            this.changeFeed.publish(BookMutation.delete("book-" + i));
+        }
+        final var sink = new RecordingSink(false);
+
+        this.broadcaster.subscribe(sink, new RecordingSse(), firstSequence);
+
+        awaitUntil(sink::isClosed);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of("reset"), sink.eventNames()),
+                () -> Assertions.assertEquals(Long.toString(this.changeFeed.lastSequence()), sink.events.get(0).getData()),
+                () -> Assertions.assertEquals(1, evictions("overrun"))
+        );
+    }
+
+    @Test
+    public void subscribe_sink_accepting_nothing_expected_disconnected_after_stall_timeout() {
+        final var sink = new RecordingSink(true);
+
+        this.broadcaster.subscribe(sink, new RecordingSse(), this.changeFeed.lastSequence());
+        this.changeFeed.publish(BookMutation.delete("123"));
+
+        awaitUntil(sink::isClosed);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, evictions("stalled")),
+                () -> Assertions.assertEquals(0, this.meterRegistry.get("book.changes.subscribers").gauge().value())
+        );
+    }
+
+    private double evictions(final String reason) {
+        return this.meterRegistry.get("book.changes.evictions").tag("reason", reason).counter().count();
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        final var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline)
+                Assertions.fail("Subscriber not served within " + TIMEOUT_MILLIS + " ms");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Assertions.fail("Interrupted while waiting for the subscriber");
+            }
+        }
+    }
+
+    // Records the events written, or leaves every write pending like a connection accepting nothing.
+    private static final class RecordingSink implements SseEventSink {
+        private final boolean stalled;
+        private final List<OutboundSseEvent> events = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+
+        private RecordingSink(final boolean stalled) {
+            this.stalled = stalled;
+        }
+
+        private List<Long> changeIds() {
+            return
+                    this.events
+                            .stream()
+                            .filter(it -> "change".equals(it.getName()))
+                            .map(it -> Long.parseLong(it.getId()))
+                            .collect(Collectors.toList());
+        }
+
+        private List<String> eventNames() {
+            return
+                    this.events
+                            .stream()
+                            .map(OutboundSseEvent::getName)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(final OutboundSseEvent event) {
+            if (this.closed)
+                throw new IllegalStateException("Sink is closed");
+            if (this.stalled)
+                return new CompletableFuture<>();
+            this.events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    private static final class RecordingSse implements Sse {
+
+        @Override
+        public OutboundSseEvent.Builder newEventBuilder() {
+            return new EventBuilder();
+        }
+
+        @Override
+        public SseBroadcaster newBroadcaster() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class EventBuilder implements OutboundSseEvent.Builder {
+        private String id;
+        private String name;
+        private String comment;
+        private Object data;
+
+        @Override
+        public OutboundSseEvent.Builder id(final String id) {
+            this.id = id;
+            return this;
+        }
+
+        @Override
+        public OutboundSseEvent.Builder name(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        @Override
+        public OutboundSseEvent.Builder reconnectDelay(final long milliseconds) {
+            return this;
+        }
+
+        @Override
+        public OutboundSseEvent.Builder mediaType(final MediaType mediaType) {
+            return this;
+        }
+
+        @Override
+        public OutboundSseEvent.Builder comment(final String comment) {
+            this.comment = comment;
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public OutboundSseEvent.Builder data(final Class type, final Object data) {
+            return data(data);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public OutboundSseEvent.Builder data(final GenericType type, final Object data) {
+            return data(data);
+        }
+
+        @Override
+        public OutboundSseEvent.Builder data(final Object data) {
+            this.data = data;
+            return this;
+        }
+
+        @Override
+        public OutboundSseEvent build() {
+            return new Event(this.id, this.name, this.comment, this.data);
+        }
+    }
+
+    private static final class Event implements OutboundSseEvent {
+        private final String id;
+        private final String name;
+        private final String comment;
+        private final Object data;
+
+        private Event(final String id, final String name, final String comment, final Object data) {
+            this.id = id;
+            this.name = name;
+            this.comment = comment;
+            this.data = data;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public String getComment() {
+            return this.comment;
+        }
+
+        @Override
+        public long getReconnectDelay() {
+            return -1;
+        }
+
+        @Override
+        public boolean isReconnectDelaySet() {
+            return false;
+        }
+
+        @Override
+        public Class<?> getType() {
+            return Objects.isNull(this.data) ? null : this.data.getClass();
+        }
+
+        @Override
+        public Type getGenericType() {
+            return getType();
+        }
+
+        @Override
+        public MediaType getMediaType() {
+            return MediaType.TEXT_PLAIN_TYPE;
+        }
+
+        @Override
+        public Object getData() {
+            return this.data;
+        }
+    }
+}
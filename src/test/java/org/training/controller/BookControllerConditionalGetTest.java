@@ -0,0 +1,88 @@
+package org.training.controller;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@QuarkusTest
+public class BookControllerConditionalGetTest {
+    private final BookController bookController;
+
+    public BookControllerConditionalGetTest(BookController bookController) {
+        this.bookController = bookController;
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        this.bookController.deleteBooks().toCompletableFuture().join();
+    }
+
+    @Test
+    public void getBooks_with_current_etag_expected_not_modified() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+        final var etag = RestAssured.get("/books").then().statusCode(200).extract().header("ETag");
+
+        Assertions.assertAll(
+                () -> Assertions.assertNotNull(etag),
+                () -> RestAssured.given().header("If-None-Match", etag).get("/books").then().statusCode(304).header("ETag", etag)
+        );
+    }
+
+    @Test
+    public void getBooks_with_stale_etag_expected_books_returned() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+        final var etag = RestAssured.get("/books").then().extract().header("ETag");
+        this.bookController.saveBook(new Book("234", "Java cookbook")).toCompletableFuture().join();
+
+        RestAssured.given().header("If-None-Match", etag).get("/books").then().statusCode(200);
+    }
+
+    @Test
+    public void getBook_with_etag_expected_not_modified_until_updated() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+        final var etag = RestAssured.get("/books/123").then().statusCode(200).extract().header("ETag");
+
+        RestAssured.given().header("If-None-Match", etag).get("/books/123").then().statusCode(304);
+        this.bookController.updateBook(new Book("123", "Quarkus cookbook, 2nd edition")).toCompletableFuture().join();
+        RestAssured.given().header("If-None-Match", etag).get("/books/123").then().statusCode(200);
+    }
+
+    @Test
+    public void getBooks_json_etag_accepting_smile_expected_smile_books_with_own_etag() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+        final var jsonResponse = RestAssured.given().accept("application/json").get("/books").then().statusCode(200).extract();
+        final var smileResponse =
+                RestAssured
+                        .given()
+                        .accept(BookController.APPLICATION_SMILE)
+                        .header("If-None-Match", jsonResponse.header("ETag"))
+                        .get("/books")
+                        .then()
+                        .statusCode(200)
+                        .contentType(BookController.APPLICATION_SMILE)
+                        .extract();
+
+        Assertions.assertAll(
+                () -> Assertions.assertNotEquals(jsonResponse.header("ETag"), smileResponse.header("ETag")),
+                () -> Assertions.assertTrue(varyOf(jsonResponse.headers().getValues("Vary")).contains("Accept")),
+                () -> Assertions.assertTrue(varyOf(smileResponse.headers().getValues("Vary")).contains("Accept"))
+        );
+    }
+
+    // The headers varied on, whether sent as one Vary line or several.
+    private static List<String> varyOf(final List<String> values) {
+        return
+                values
+                        .stream()
+                        .flatMap(it -> Arrays.stream(it.split(",")))
+                        .map(String::trim)
+                        .collect(Collectors.toList());
+    }
+}
@@ -20,15 +20,15 @@ public class BookControllerOfflineTest {
 
     @BeforeEach
     public void beforeEach() {
-        this.bookController.deleteBooks();
+        this.bookController.deleteBooks().toCompletableFuture().join();
     }
 
     @Test
     public void getBook_with_book_exist_expected_book_reponse() {
         final var savedBook = new Book("123", "Quarkus cookbook");
-        this.bookController.saveBook(savedBook);
+        this.bookController.saveBook(savedBook).toCompletableFuture().join();
 
-        final var response = this.bookController.getBook(savedBook.getId());
+        final var response = this.bookController.getBook(savedBook.getId()).toCompletableFuture().join();
         Assertions.assertAll(
                 () -> Assertions.assertEquals(savedBook, response.getEntity()),
                 () -> Assertions.assertEquals(Response.Status.OK, response.getStatusInfo()),
@@ -38,7 +38,7 @@ public class BookControllerOfflineTest {
 
     @Test
     public void getBook_with_book_id_null_expected_bad_request() {
-        final var response = this.bookController.getBook(null);
+        final var response = this.bookController.getBook(null).toCompletableFuture().join();
         Assertions.assertAll(
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo()),
                 () -> Assertions.assertTrue(response.getHeaders().containsKey("error"))
@@ -47,7 +47,7 @@ public class BookControllerOfflineTest {
 
     @Test
     public void getBook_with_book_id_empty_expected_bad_request() {
-        final var response = this.bookController.getBook("");
+        final var response = this.bookController.getBook("").toCompletableFuture().join();
 
         Assertions.assertAll(
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo()),
@@ -57,7 +57,7 @@ public class BookControllerOfflineTest {
 
     @Test
     public void getBook_with_book_inexist_expected_bad_request() {
-        final var response = this.bookController.getBook("345");
+        final var response = this.bookController.getBook("345").toCompletableFuture().join();
 
         Assertions.assertAll(
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo()),
@@ -72,9 +72,9 @@ public class BookControllerOfflineTest {
                 new Book("234", "Java cookbook"),
                 new Book("345", "Angular cookbook")
         );
-        this.bookController.saveBooks(booksToBeSaved);
+        this.bookController.saveBooks(booksToBeSaved).toCompletableFuture().join();
 
-        final var booksResponse = this.bookController.getBooks();
+        final var booksResponse = this.bookController.getBooks().toCompletableFuture().join();
         Assertions.assertAll(
                 () -> Assertions.assertEquals(3, booksResponse.readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(booksToBeSaved, booksResponse.getEntity())
@@ -84,11 +84,11 @@ public class BookControllerOfflineTest {
     @Test
     public void saveBook_with_valid_book_expected_1_book_saved() {
         final var bookToBeSave = new Book("123", "Quarkus cookbook!");
-        final var savedBook = this.bookController.saveBook(bookToBeSave);
-        final var bookResponse = this.bookController.getBook(bookToBeSave.getId());
+        final var savedBook = this.bookController.saveBook(bookToBeSave).toCompletableFuture().join();
+        final var bookResponse = this.bookController.getBook(bookToBeSave.getId()).toCompletableFuture().join();
 
         Assertions.assertAll(
-                () -> Assertions.assertEquals(1, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(1, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(bookToBeSave, bookResponse.getEntity()),
                 () -> Assertions.assertEquals(bookToBeSave, savedBook.getEntity()),
                 () -> Assertions.assertEquals(Response.Status.OK, savedBook.getStatusInfo())
@@ -98,10 +98,10 @@ public class BookControllerOfflineTest {
     @Test
     public void saveBook_with_book_id_null_expected_bad_request() {
         final var bookToBeSave = new Book(null, "Quarkus cookbook!");
-        final var savedBook = this.bookController.saveBook(bookToBeSave);
+        final var savedBook = this.bookController.saveBook(bookToBeSave).toCompletableFuture().join();
 
         Assertions.assertAll(
-                () -> Assertions.assertEquals(0, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(0, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, savedBook.getStatusInfo()),
                 () -> Assertions.assertTrue(savedBook.getHeaders().containsKey("error"))
         );
@@ -110,10 +110,10 @@ public class BookControllerOfflineTest {
     @Test
     public void saveBook_with_book_id_empty_expected_bad_request() {
         final var bookToBeSave = new Book("", "Quarkus cookbook!");
-        final var savedBook = this.bookController.saveBook(bookToBeSave);
+        final var savedBook = this.bookController.saveBook(bookToBeSave).toCompletableFuture().join();
 
         Assertions.assertAll(
-                () -> Assertions.assertEquals(0, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(0, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, savedBook.getStatusInfo()),
                 () -> Assertions.assertTrue(savedBook.getHeaders().containsKey("error"))
         );
@@ -122,10 +122,10 @@ public class BookControllerOfflineTest {
     @Test
     public void saveBook_with_book_name_null_expected_bad_request() {
         final var bookToBeSave = new Book("123", null);
-        final var savedBook = this.bookController.saveBook(bookToBeSave);
+        final var savedBook = this.bookController.saveBook(bookToBeSave).toCompletableFuture().join();
 
         Assertions.assertAll(
-                () -> Assertions.assertEquals(0, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(0, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, savedBook.getStatusInfo()),
                 () -> Assertions.assertTrue(savedBook.getHeaders().containsKey("error"))
         );
@@ -134,10 +134,10 @@ public class BookControllerOfflineTest {
     @Test
     public void saveBook_with_book_name_empty_expected_bad_request() {
         final var bookToBeSave = new Book("123", "");
-        final var savedBook = this.bookController.saveBook(bookToBeSave);
+        final var savedBook = this.bookController.saveBook(bookToBeSave).toCompletableFuture().join();
 
         Assertions.assertAll(
-                () -> Assertions.assertEquals(0, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(0, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, savedBook.getStatusInfo()),
                 () -> Assertions.assertTrue(savedBook.getHeaders().containsKey("error"))
         );
@@ -146,11 +146,11 @@ public class BookControllerOfflineTest {
     @Test
     public void saveBook_with_book_id_exist_expected_bad_request() {
         final var bookToBeSave = new Book("123", "Quarkus cookbook");
-        this.bookController.saveBook(bookToBeSave);
-        final var savedBook = this.bookController.saveBook(new Book(bookToBeSave.getId(), "Java cookbook"));
+        this.bookController.saveBook(bookToBeSave).toCompletableFuture().join();
+        final var savedBook = this.bookController.saveBook(new Book(bookToBeSave.getId(), "Java cookbook")).toCompletableFuture().join();
 
         Assertions.assertAll(
-                () -> Assertions.assertEquals(1, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(1, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, savedBook.getStatusInfo()),
                 () -> Assertions.assertTrue(savedBook.getHeaders().containsKey("error"))
         );
@@ -158,11 +158,47 @@ public class BookControllerOfflineTest {
     }
     @Test
     public void saveBook_with_book_null_expected_bad_request() {
-        final var savedBook = this.bookController.saveBook(null);
+        final var savedBook = this.bookController.saveBook(null).toCompletableFuture().join();
         Assertions.assertAll(
-                () -> Assertions.assertEquals(0, this.bookController.getBooks().readEntity(Collection.class).size()),
+                () -> Assertions.assertEquals(0, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size()),
                 () -> Assertions.assertEquals(Response.Status.BAD_REQUEST, savedBook.getStatusInfo()),
                 () -> Assertions.assertTrue(savedBook.getHeaders().containsKey("error"))
         );
     }
+
+    @Test
+    public void updateBooks_with_existing_and_inexisting_books_expected_existing_updated() {
+        this.bookController.saveBooks(List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook"))).toCompletableFuture().join();
+
+        final var response = this.bookController.updateBooks(List.of(new Book("123", "Micronaut cookbook"), new Book("345", "Angular cookbook"))).toCompletableFuture().join();
+        final var viewBooksRecord = (BookController.ViewBooksRecord) response.getEntity();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Response.Status.OK, response.getStatusInfo()),
+                () -> Assertions.assertEquals(List.of(new Book("123", "Micronaut cookbook")), List.copyOf(viewBooksRecord.getSavedBooks())),
+                () -> Assertions.assertEquals(
+                        List.of(new BookController.ViewBooksRecord.UnsavedBooks(new Book("345", "Angular cookbook"), "Book not found!")),
+                        viewBooksRecord.getUnsavedBooks()
+                ),
+                () -> Assertions.assertEquals(new Book("123", "Micronaut cookbook"), this.bookController.getBook("123").toCompletableFuture().join().getEntity())
+        );
+    }
+
+    @Test
+    public void deleteBooksByIds_with_existing_and_inexisting_ids_expected_existing_deleted() {
+        this.bookController.saveBooks(List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook"))).toCompletableFuture().join();
+
+        final var response = this.bookController.deleteBooksByIds(List.of("123", "345")).toCompletableFuture().join();
+        final var viewBooksDeletionRecord = (BookController.ViewBooksDeletionRecord) response.getEntity();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Response.Status.OK, response.getStatusInfo()),
+                () -> Assertions.assertEquals(List.of(new Book("123", "Quarkus cookbook")), List.copyOf(viewBooksDeletionRecord.getDeletedBooks())),
+                () -> Assertions.assertEquals(
+                        List.of(new BookController.ViewBooksLookupRecord.UnfoundBooks("345", "Book not found")),
+                        viewBooksDeletionRecord.getUndeletedBooks()
+                ),
+                () -> Assertions.assertEquals(1, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size())
+        );
+    }
 }
@@ -0,0 +1,203 @@
+package org.training.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.training.config.BookJsonModule;
+import org.training.model.Book;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+@QuarkusTest
+public class BookControllerWireFormatTest {
+    private final BookController bookController;
+    // Book has no creator Jackson could find on its own, the application reads it through BookJsonModule.
+    private final ObjectMapper smileMapper = new SmileMapper().registerModule(new BookJsonModule());
+
+    public BookControllerWireFormatTest(BookController bookController) {
+        this.bookController = bookController;
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        this.bookController.deleteBooks().toCompletableFuture().join();
+    }
+
+    @Test
+    public void getBooks_accepting_smile_expected_smile_books() throws IOException {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+
+        final var body =
+                undecoded()
+                        .accept(BookController.APPLICATION_SMILE)
+                        .get("/books")
+                        .then()
+                        .statusCode(200)
+                        .contentType(BookController.APPLICATION_SMILE)
+                        .extract()
+                        .asByteArray();
+
+        Assertions.assertEquals(
+                List.of(new Book("123", "Quarkus cookbook")),
+                this.smileMapper.readValue(body, this.smileMapper.getTypeFactory().constructCollectionType(List.class, Book.class))
+        );
+    }
+
+    @Test
+    public void getBooks_with_unparsable_accept_expected_json_books() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+
+        RestAssured
+                .given()
+                .header("Accept", "text/html, image/gif, image/jpeg, *; q=.2, */*; q=.2")
+                .get("/books")
+                .then()
+                .statusCode(200)
+                .contentType("application/json");
+    }
+
+    @Test
+    public void streamBooks_expected_one_json_line_per_book() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+        this.bookController.saveBook(new Book("234", "Java cookbook")).toCompletableFuture().join();
+
+        final var lines =
+                RestAssured
+                        .get("/books/stream")
+                        .then()
+                        .statusCode(200)
+                        .contentType(BookController.APPLICATION_NDJSON)
+                        .extract()
+                        .asString()
+                        .lines()
+                        .collect(Collectors.toList());
+
+        Assertions.assertEquals(
+                List.of("{\"id\":\"123\",\"name\":\"Quarkus cookbook\"}", "{\"id\":\"234\",\"name\":\"Java cookbook\"}"),
+                lines
+        );
+    }
+
+    @Test
+    public void saveBooks_with_smile_body_expected_books_saved() throws IOException {
+        final var books = List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook"));
+
+        final var body =
+                undecoded()
+                        .contentType(BookController.APPLICATION_SMILE)
+                        .accept(BookController.APPLICATION_SMILE)
+                        .body(this.smileMapper.writeValueAsBytes(books))
+                        .post("/books/savebooks")
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .asByteArray();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, this.smileMapper.readTree(body).get("savedBooks").size()),
+                () -> Assertions.assertEquals(2, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size())
+        );
+    }
+
+    @Test
+    public void getBooks_large_body_accepting_gzip_expected_gzipped() throws IOException {
+        this.bookController.saveBooks(
+                IntStream
+                        .range(0, 200)
+                        .mapToObj(it -> new Book("book-" + it, "Book " + it))
+                        .collect(Collectors.toList())
+        ).toCompletableFuture().join();
+
+        final var response =
+                undecoded()
+                        .header("Accept-Encoding", "gzip")
+                        .get("/books")
+                        .then()
+                        .statusCode(200)
+                        .header("Content-Encoding", "gzip")
+                        .extract();
+
+        try (final var body = new GZIPInputStream(new ByteArrayInputStream(response.asByteArray()))) {
+            Assertions.assertEquals(200, new ObjectMapper().readTree(body).size());
+        }
+    }
+
+    @Test
+    public void getBook_small_body_accepting_gzip_expected_not_compressed() {
+        this.bookController.saveBook(new Book("123", "Quarkus cookbook")).toCompletableFuture().join();
+
+        final var response =
+                undecoded()
+                        .header("Accept-Encoding", "gzip")
+                        .get("/books/123")
+                        .then()
+                        .statusCode(200)
+                        .extract();
+
+        Assertions.assertAll(
+                () -> Assertions.assertNull(response.header("Content-Encoding")),
+                () -> Assertions.assertEquals("123", response.jsonPath().getString("id"))
+        );
+    }
+
+    @Test
+    public void saveBooks_body_over_limit_expected_request_entity_too_large() {
+        // Waits for the answer before sending the body, and gives up rather than hangs if the server never reads it.
+        RestAssured
+                .given()
+                .config(RestAssured.config().httpClient(HttpClientConfig.httpClientConfig().setParam("http.socket.timeout", 10_000)))
+                .header("Expect", "100-continue")
+                .contentType("application/json")
+                .body(paddedBooks(11 * 1024 * 1024))
+                .post("/books/savebooks")
+                .then()
+                .statusCode(413);
+
+        Assertions.assertEquals(0, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size());
+    }
+
+    @Test
+    public void saveBooksStreaming_body_over_limit_of_other_endpoints_expected_books_saved() {
+        undecoded()
+                .contentType("application/json")
+                .body(paddedBooks(11 * 1024 * 1024))
+                .post("/books/savebooks/stream")
+                .then()
+                .statusCode(200);
+
+        Assertions.assertEquals(1, this.bookController.getBooks().toCompletableFuture().join().readEntity(Collection.class).size());
+    }
+
+    // One book in a JSON array padded with whitespace to the given size.
+    private static byte[] paddedBooks(final int size) {
+        final var book = "{\"id\":\"123\",\"name\":\"Quarkus cookbook\"}]".getBytes(StandardCharsets.UTF_8);
+        final var body = new byte[size];
+        Arrays.fill(body, (byte) ' ');
+        body[0] = '[';
+        System.arraycopy(book, 0, body, size - book.length, book.length);
+        return body;
+    }
+
+    // Rest Assured would otherwise negotiate and inflate the body itself, hiding what went over the wire.
+    private static RequestSpecification undecoded() {
+        return
+                RestAssured
+                        .given()
+                        .config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()));
+    }
+}
@@ -0,0 +1,131 @@
+package org.training.controller;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+@QuarkusTest
+public class ReactiveBookRoutesTest {
+
+    @BeforeEach
+    public void beforeEach() {
+        RestAssured.delete("/reactive/books/delete").then().statusCode(200);
+    }
+
+    @Test
+    public void saveBook_then_getBook_expected_book_returned() {
+        RestAssured
+                .given()
+                .contentType(ContentType.JSON)
+                .body("{\"id\":\"123\",\"name\":\"Quarkus cookbook\"}")
+                .post("/reactive/books/save")
+                .then()
+                .statusCode(200);
+
+        RestAssured
+                .get("/reactive/books/123")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("id", Matchers.equalTo("123"), "name", Matchers.equalTo("Quarkus cookbook"));
+    }
+
+    @Test
+    public void getBook_not_existing_expected_bad_request_with_error() {
+        RestAssured
+                .get("/reactive/books/123")
+                .then()
+                .statusCode(400)
+                .header("error", Matchers.notNullValue());
+    }
+
+    @Test
+    public void saveBook_malformed_body_expected_bad_request() {
+        RestAssured
+                .given()
+                .contentType(ContentType.JSON)
+                .body("{\"id\":")
+                .post("/reactive/books/save")
+                .then()
+                .statusCode(400)
+                .header("error", "Malformed request body");
+    }
+
+    @Test
+    public void getBooks_with_limit_expected_first_page() {
+        saveBooks();
+
+        RestAssured
+                .given()
+                .queryParam("limit", 2)
+                .get("/reactive/books")
+                .then()
+                .statusCode(200)
+                .body("books.id", Matchers.contains("123", "234"), "nextCursor", Matchers.notNullValue());
+    }
+
+    @Test
+    public void getBooks_with_invalid_limit_expected_bad_request() {
+        RestAssured
+                .given()
+                .queryParam("limit", "many")
+                .get("/reactive/books")
+                .then()
+                .statusCode(400)
+                .header("error", "Limit must be a number");
+    }
+
+    @Test
+    public void streamBooks_expected_one_json_line_per_book() {
+        saveBooks();
+
+        final var lines =
+                RestAssured
+                        .get("/reactive/books/stream")
+                        .then()
+                        .statusCode(200)
+                        .contentType(BookController.APPLICATION_NDJSON)
+                        .extract()
+                        .asString()
+                        .lines()
+                        .toArray();
+
+        Assertions.assertArrayEquals(
+                new Object[]{
+                        "{\"id\":\"123\",\"name\":\"Quarkus cookbook\"}",
+                        "{\"id\":\"234\",\"name\":\"Java cookbook\"}",
+                        "{\"id\":\"345\",\"name\":\"Vert.x in action\"}"
+                },
+                lines
+        );
+    }
+
+    @Test
+    public void deleteBook_expected_book_gone() {
+        saveBooks();
+
+        RestAssured.delete("/reactive/books/delete/123").then().statusCode(200);
+        RestAssured.get("/reactive/books").then().statusCode(200).body("id", Matchers.contains("234", "345"));
+    }
+
+    private static void saveBooks() {
+        RestAssured
+                .given()
+                .contentType(ContentType.JSON)
+                .body(List.of(
+                        Map.of("id", "123", "name", "Quarkus cookbook"),
+                        Map.of("id", "234", "name", "Java cookbook"),
+                        Map.of("id", "345", "name", "Vert.x in action")
+                ))
+                .post("/reactive/books/savebooks")
+                .then()
+                .statusCode(200);
+    }
+}
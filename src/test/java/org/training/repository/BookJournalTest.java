@@ -0,0 +1,175 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.training.model.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+public class BookJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void append_with_torn_write_expected_failed_and_batch_cut_off() throws IOException {
+        final var path = this.directory.resolve("journal");
+        final var channel = new FailingChannel(path);
+        try (final var journal = new BookJournal(channel)) {
+            journal.append(BookMutation.save(new Book("123", "Quarkus cookbook"))).join();
+            channel.failWrites = true;
+            final var failed = journal.append(BookMutation.save(new Book("234", "Java cookbook")));
+            Assertions.assertThrows(CompletionException.class, failed::join);
+
+            channel.failWrites = false;
+            journal.append(BookMutation.delete("123")).join();
+        }
+
+        Assertions.assertEquals(
+                List.of(BookMutation.save(new Book("123", "Quarkus cookbook")), BookMutation.delete("123")),
+                replay(path)
+        );
+    }
+
+    @Test
+    public void append_with_failed_force_and_truncate_expected_every_later_append_failed() throws IOException {
+        final var path = this.directory.resolve("journal");
+        final var channel = new FailingChannel(path);
+        try (final var journal = new BookJournal(channel)) {
+            channel.failForce = true;
+            channel.failTruncate = true;
+            final var failed = journal.append(BookMutation.save(new Book("123", "Quarkus cookbook")));
+            Assertions.assertThrows(CompletionException.class, failed::join);
+
+            channel.failForce = false;
+            channel.failTruncate = false;
+            final var later = journal.append(BookMutation.delete("123"));
+            final var exception = Assertions.assertThrows(CompletionException.class, later::join);
+            Assertions.assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private static List<BookMutation> replay(final Path path) throws IOException {
+        final var mutations = new ArrayList<BookMutation>();
+        BookJournal.replay(path, mutations::add);
+        return mutations;
+    }
+
+    // Writes half of the bytes before failing, like a disk running full in the middle of a batch.
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        private volatile boolean failWrites;
+        private volatile boolean failForce;
+        private volatile boolean failTruncate;
+
+        private FailingChannel(final Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            if (!this.failWrites)
+                return this.channel.write(source);
+            source.limit(source.position() + source.remaining() / 2);
+            this.channel.write(source);
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public void force(final boolean metaData) throws IOException {
+            if (this.failForce)
+                throw new IOException("Input/output error");
+            this.channel.force(metaData);
+        }
+
+        @Override
+        public FileChannel truncate(final long size) throws IOException {
+            if (this.failTruncate)
+                throw new IOException("Input/output error");
+            this.channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            return this.channel.read(destination);
+        }
+
+        @Override
+        public long read(final ByteBuffer[] destinations, final int offset, final int length) throws IOException {
+            return this.channel.read(destinations, offset, length);
+        }
+
+        @Override
+        public long write(final ByteBuffer[] sources, final int offset, final int length) throws IOException {
+            return this.channel.write(sources, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return this.channel.position();
+        }
+
+        @Override
+        public FileChannel position(final long newPosition) throws IOException {
+            this.channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.channel.size();
+        }
+
+        @Override
+        public long transferTo(final long position, final long count, final WritableByteChannel target) throws IOException {
+            return this.channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(final ReadableByteChannel source, final long position, final long count) throws IOException {
+            return this.channel.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(final ByteBuffer destination, final long position) throws IOException {
+            return this.channel.read(destination, position);
+        }
+
+        @Override
+        public int write(final ByteBuffer source, final long position) throws IOException {
+            return this.channel.write(source, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(final MapMode mode, final long position, final long size) throws IOException {
+            return this.channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(final long position, final long size, final boolean shared) throws IOException {
+            return this.channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(final long position, final long size, final boolean shared) throws IOException {
+            return this.channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            this.channel.close();
+        }
+    }
+}
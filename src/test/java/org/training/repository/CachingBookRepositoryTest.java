@@ -0,0 +1,103 @@
+package org.training.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CachingBookRepositoryTest extends InMemoryBookRepositoryTest {
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return new CachingBookRepository(new InMemoryBookRepository(), 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void find_one_by_id_twice_expected_second_lookup_hit() {
+        final var bookRepository = new CachingBookRepository(new InMemoryBookRepository(), 100, new SimpleMeterRegistry());
+        bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        bookRepository.findOneById("123");
+        bookRepository.findOneById("123");
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, bookRepository.stats().hitCount()),
+                () -> Assertions.assertEquals(1, bookRepository.stats().missCount())
+        );
+    }
+
+    @Test
+    public void find_one_by_id_missing_then_saved_expected_negative_entry_invalidated() {
+        final var bookRepository = new CachingBookRepository(new InMemoryBookRepository(), 100, new SimpleMeterRegistry());
+        final var book = new Book("123", "Quarkus cookbook");
+
+        Assertions.assertTrue(bookRepository.findOneById(book.getId()).isEmpty());
+        Assertions.assertTrue(bookRepository.findOneById(book.getId()).isEmpty());
+        bookRepository.saveIfAbsent(book);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(book, bookRepository.findOneById(book.getId()).get()),
+                () -> Assertions.assertEquals(1, bookRepository.stats().hitCount())
+        );
+    }
+
+    @Test
+    public void update_delete_and_delete_all_expected_cached_books_invalidated() {
+        final var bookRepository = new CachingBookRepository(new InMemoryBookRepository(), 100, new SimpleMeterRegistry());
+        bookRepository.saveAll(List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook")));
+        bookRepository.findOneById("123");
+        bookRepository.findOneById("234");
+
+        bookRepository.replaceIfPresent(new Book("123", "Quarkus cookbook, 2nd edition"));
+        Assertions.assertEquals("Quarkus cookbook, 2nd edition", bookRepository.findOneById("123").get().getName());
+
+        bookRepository.deleteOneById("234");
+        Assertions.assertFalse(bookRepository.isExist("234"));
+
+        bookRepository.deleteAll();
+        Assertions.assertTrue(bookRepository.findOneById("123").isEmpty());
+    }
+
+    @Test
+    public void find_all_by_ids_racing_update_expected_updated_book_cached() throws Exception {
+        final var loaded = new CountDownLatch(1);
+        final var updated = new CountDownLatch(1);
+        // Holds the bulk load after it read the backend, until the update went through.
+        final var backend = new InMemoryBookRepository() {
+            @Override
+            public Map<String, Book> findAllByIds(final Collection<String> ids) {
+                final var books = super.findAllByIds(ids);
+                loaded.countDown();
+                await(updated);
+                return books;
+            }
+        };
+        final var bookRepository = new CachingBookRepository(backend, 100, new SimpleMeterRegistry());
+        bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+
+        final var lookup = CompletableFuture.supplyAsync(() -> bookRepository.findAllByIds(List.of("123")));
+        await(loaded);
+        bookRepository.updateOne(new Book("123", "Quarkus cookbook, 2nd edition"));
+        updated.countDown();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("Quarkus cookbook", lookup.get(10, TimeUnit.SECONDS).get("123").getName()),
+                () -> Assertions.assertEquals("Quarkus cookbook, 2nd edition", bookRepository.findOneById("123").get().getName())
+        );
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Assertions.fail("Interrupted while waiting for the lookup");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.util.List;
+
+public class ConcurrentBookRepositoryTest extends InMemoryBookRepositoryTest {
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return new ConcurrentBookRepository();
+    }
+
+    @Test
+    public void deleteAll_expected_catalog_emptied_under_one_version() {
+        final var bookRepository = new ConcurrentBookRepository();
+        bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook"),
+                new Book("345", "Angular cookbook")
+        ));
+        final var initialVersion = bookRepository.catalogVersion();
+
+        bookRepository.deleteAll();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(initialVersion.getVersion() + 1, bookRepository.catalogVersion().getVersion()),
+                () -> Assertions.assertEquals(0, bookRepository.size()),
+                () -> Assertions.assertEquals(List.of(), bookRepository.findPage(null, 10))
+        );
+    }
+}
@@ -5,19 +5,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.training.model.Book;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class InMemoryBookRepositoryTest {
-    private final IBookRepository bookRepository;
+    private IBookRepository bookRepository;
 
-    public InMemoryBookRepositoryTest() {
-        this.bookRepository = new InMemoryBookRepository();
+    // Called once the subclass is constructed, so an override can use its own fields.
+    protected IBookRepository createBookRepository() {
+        return new InMemoryBookRepository();
     }
 
     @BeforeEach
     private void beforeEach() {
-        this.bookRepository.deleteAll();
+        this.bookRepository = createBookRepository();
     }
 
     @Test
@@ -68,6 +73,22 @@ public class InMemoryBookRepositoryTest {
         );
     }
 
+    @Test
+    public void find_all_by_ids_expected_existing_books_keyed_by_id() {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook"),
+                new Book("345", "Angular cookbook")
+        ));
+
+        final var booksFound = this.bookRepository.findAllByIds(List.of("345", "333", "123", "123"));
+
+        Assertions.assertEquals(
+                Map.of("123", new Book("123", "Quarkus cookbook"), "345", new Book("345", "Angular cookbook")),
+                booksFound
+        );
+    }
+
     @Test
     public void find_all_3_books_expected_3_books_found() {
         final var booksToBeSaved = List.of(
@@ -80,6 +101,122 @@ public class InMemoryBookRepositoryTest {
         Assertions.assertEquals(3, this.bookRepository.findAll().size());
     }
 
+    @Test
+    public void size_after_saves_and_deletes_expected_books_stored() {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook"),
+                new Book("345", "Angular cookbook")
+        ));
+        this.bookRepository.saveIfAbsent(new Book("123", "Micronaut cookbook"));
+        this.bookRepository.updateOne(new Book("345", "Angular cookbook, 2nd edition"));
+        this.bookRepository.deleteOneById("234");
+
+        Assertions.assertEquals(2, this.bookRepository.size());
+    }
+
+    @Test
+    public void find_page_of_2_books_expected_first_2_books_by_id() {
+        this.bookRepository.saveAll(List.of(
+                new Book("345", "Angular cookbook"),
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook")
+        ));
+
+        final var page = this.bookRepository.findPage(null, 2);
+
+        Assertions.assertEquals(
+                List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook")),
+                page
+        );
+    }
+
+    @Test
+    public void find_page_after_cursor_expected_remaining_books_by_id() {
+        this.bookRepository.saveAll(List.of(
+                new Book("345", "Angular cookbook"),
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook")
+        ));
+
+        final var page = this.bookRepository.findPage("123", 10);
+
+        Assertions.assertEquals(
+                List.of(new Book("234", "Java cookbook"), new Book("345", "Angular cookbook")),
+                page
+        );
+    }
+
+    @Test
+    public void find_pages_until_end_expected_every_book_once_in_id_order() {
+        final var books = new ArrayList<Book>();
+        for (int i = 999; i >= 0; i--) {
+            books.add(new Book(String.format("%04d", i * 7 % 1000), "Book " + i));
+        }
+        this.bookRepository.saveAll(books);
+
+        final var pagedBooks = new ArrayList<Book>();
+        String cursor = null;
+        List<Book> page;
+        do {
+            page = this.bookRepository.findPage(cursor, 64);
+            pagedBooks.addAll(page);
+            cursor = page.isEmpty() ? cursor : page.get(page.size() - 1).getId();
+        } while (page.size() == 64);
+
+        books.sort(Comparator.comparing(Book::getId));
+        Assertions.assertEquals(books, pagedBooks);
+    }
+
+    @Test
+    public void search_by_words_and_prefix_expected_ranked_matches() {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook, second edition"),
+                new Book("345", "Java cookbooks"),
+                new Book("456", "Angular in action")
+        ));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook, second edition"), new Book("345", "Java cookbooks")),
+                        this.bookRepository.search("COOKBOOK", 10)),
+                () -> Assertions.assertEquals(
+                        List.of(new Book("345", "Java cookbooks"), new Book("234", "Java cookbook, second edition")),
+                        this.bookRepository.search("java cook", 10)),
+                () -> Assertions.assertEquals(List.of(new Book("123", "Quarkus cookbook")), this.bookRepository.search("cook", 1)),
+                () -> Assertions.assertEquals(List.of(), this.bookRepository.search("python", 10))
+        );
+    }
+
+    @Test
+    public void search_after_update_and_delete_expected_current_names_only() {
+        this.bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        this.bookRepository.saveOne(new Book("234", "Java cookbook"));
+        this.bookRepository.replaceIfPresent(new Book("123", "Quarkus in action"));
+        this.bookRepository.deleteOneById("234");
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(), this.bookRepository.search("cookbook", 10)),
+                () -> Assertions.assertEquals(List.of(new Book("123", "Quarkus in action")), this.bookRepository.search("action", 10))
+        );
+    }
+
+    @Test
+    public void catalog_version_expected_advanced_only_by_effective_mutations() {
+        final var initialVersion = this.bookRepository.catalogVersion();
+        this.bookRepository.saveIfAbsent(new Book("123", "Quarkus cookbook"));
+        final var savedVersion = this.bookRepository.catalogVersion();
+        this.bookRepository.saveIfAbsent(new Book("123", "Java cookbook"));
+        this.bookRepository.deleteOneById("345");
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(savedVersion.getVersion() > initialVersion.getVersion()),
+                () -> Assertions.assertNotEquals(initialVersion.tag(), savedVersion.tag()),
+                () -> Assertions.assertEquals(savedVersion, this.bookRepository.catalogVersion())
+        );
+    }
+
     @Test
     public void update_one_valid_book_expected_book_updated() {
         final var bookToBeSaved = new Book("123", "Quarkus cookbook");
@@ -131,6 +268,72 @@ public class InMemoryBookRepositoryTest {
         );
     }
 
+    @Test
+    public void save_all_if_absent_expected_absent_books_saved_and_present_books_kept() {
+        this.bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        final var initialVersion = this.bookRepository.catalogVersion();
+
+        final var savedBooks = this.bookRepository.saveAllIfAbsent(List.of(new Book("123", "Micronaut cookbook"), new Book("234", "Java cookbook")));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Book("234", "Java cookbook")), List.copyOf(savedBooks)),
+                () -> Assertions.assertEquals(new Book("123", "Quarkus cookbook"), this.bookRepository.findOneById("123").get()),
+                () -> Assertions.assertEquals(new Book("234", "Java cookbook"), this.bookRepository.findOneById("234").get()),
+                () -> Assertions.assertEquals(List.of(), List.copyOf(this.bookRepository.saveAllIfAbsent(List.of(new Book("234", "Go cookbook"))))),
+                () -> Assertions.assertNotEquals(initialVersion, this.bookRepository.catalogVersion())
+        );
+    }
+
+    @Test
+    public void update_all_expected_present_books_updated_and_returned() {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook")
+        ));
+        final var initialVersion = this.bookRepository.catalogVersion();
+
+        final var updatedBooks = this.bookRepository.updateAll(List.of(new Book("123", "Micronaut cookbook"), new Book("333", "Go cookbook")));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Book("123", "Micronaut cookbook")), List.copyOf(updatedBooks)),
+                () -> Assertions.assertEquals(new Book("123", "Micronaut cookbook"), this.bookRepository.findOneById("123").get()),
+                () -> Assertions.assertEquals(new Book("234", "Java cookbook"), this.bookRepository.findOneById("234").get()),
+                () -> Assertions.assertFalse(this.bookRepository.isExist("333")),
+                () -> Assertions.assertNotEquals(initialVersion, this.bookRepository.catalogVersion())
+        );
+    }
+
+    @Test
+    public void delete_all_by_ids_expected_present_books_deleted_and_returned() {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook"),
+                new Book("345", "Angular cookbook")
+        ));
+
+        final var deletedBooks = this.bookRepository.deleteAllByIds(List.of("345", "333", "123"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        Set.of(new Book("123", "Quarkus cookbook"), new Book("345", "Angular cookbook")),
+                        Set.copyOf(deletedBooks)
+                ),
+                () -> Assertions.assertEquals(List.of(new Book("234", "Java cookbook")), List.copyOf(this.bookRepository.findAll()))
+        );
+    }
+
+    @Test
+    public void update_and_delete_all_of_unknown_ids_expected_nothing_changed() {
+        this.bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        final var initialVersion = this.bookRepository.catalogVersion();
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(this.bookRepository.updateAll(List.of(new Book("333", "Go cookbook"))).isEmpty()),
+                () -> Assertions.assertTrue(this.bookRepository.deleteAllByIds(List.of("333")).isEmpty()),
+                () -> Assertions.assertEquals(initialVersion, this.bookRepository.catalogVersion())
+        );
+    }
+
     @Test
     public void delete_all_3_books_expected_3_books_deleted() {
         final var booksToBeSaved = List.of(
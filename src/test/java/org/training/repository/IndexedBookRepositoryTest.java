@@ -0,0 +1,81 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class IndexedBookRepositoryTest extends InMemoryBookRepositoryTest {
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return new IndexedBookRepository(new ConcurrentBookRepository());
+    }
+
+    @Test
+    public void search_over_preloaded_repository_expected_existing_books_indexed() {
+        final var preloadedRepository = new ConcurrentBookRepository();
+        preloadedRepository.saveOne(new Book("123", "Quarkus cookbook"));
+
+        final var bookRepository = new IndexedBookRepository(preloadedRepository);
+
+        Assertions.assertEquals(List.of(new Book("123", "Quarkus cookbook")), bookRepository.search("quark", 10));
+    }
+
+    @Test
+    public void search_after_build_and_rename_expected_only_new_name_indexed() throws InterruptedException {
+        final var preloadedRepository = new ConcurrentBookRepository() {
+            @Override
+            public List<Book> search(final String query, final int limit) {
+                throw new UnsupportedOperationException("searches are answered by the index once it is built");
+            }
+        };
+        preloadedRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        final var bookRepository = new IndexedBookRepository(preloadedRepository);
+        while (!bookRepository.isBuilt()) {
+            Thread.sleep(10);
+        }
+
+        bookRepository.updateOne(new Book("123", "Vert.x in action"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(), bookRepository.search("quark", 10)),
+                () -> Assertions.assertEquals(List.of(new Book("123", "Vert.x in action")), bookRepository.search("vert", 10))
+        );
+    }
+
+    @Test
+    public void search_common_exact_term_expected_candidates_resolved_capped() throws InterruptedException {
+        final var resolvedIds = new ArrayList<Integer>();
+        final var preloadedRepository = new ConcurrentBookRepository() {
+            @Override
+            public Map<String, Book> findAllByIds(final Collection<String> ids) {
+                resolvedIds.add(ids.size());
+                return super.findAllByIds(ids);
+            }
+        };
+        preloadedRepository.saveAll(
+                IntStream
+                        .range(0, BookNameIndex.MAX_PREFIX_CANDIDATES + 100)
+                        .mapToObj(it -> new Book("book-" + it, "The cookbook " + it))
+                        .collect(Collectors.toList())
+        );
+        final var bookRepository = new IndexedBookRepository(preloadedRepository);
+        while (!bookRepository.isBuilt()) {
+            Thread.sleep(10);
+        }
+
+        final var books = bookRepository.search("the cook", 10);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(10, books.size()),
+                () -> Assertions.assertEquals(List.of(BookNameIndex.MAX_PREFIX_CANDIDATES), resolvedIds)
+        );
+    }
+}
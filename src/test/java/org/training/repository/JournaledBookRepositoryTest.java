@@ -0,0 +1,90 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.training.model.Book;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+public class JournaledBookRepositoryTest extends InMemoryBookRepositoryTest {
+    @TempDir
+    Path directory;
+    private JournaledBookRepository bookRepository;
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        this.bookRepository = new JournaledBookRepository(this.directory, 100);
+        return this.bookRepository;
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        this.bookRepository.close();
+    }
+
+    @Test
+    public void reopen_after_mutations_expected_books_recovered_from_journal() throws IOException {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook"),
+                new Book("345", "Angular cookbook")
+        ));
+        this.bookRepository.updateOne(new Book("123", "Micronaut cookbook"));
+        this.bookRepository.deleteOneById("234");
+
+        this.bookRepository.close();
+        this.bookRepository = new JournaledBookRepository(this.directory, 100);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, this.bookRepository.findAll().size()),
+                () -> Assertions.assertEquals(new Book("123", "Micronaut cookbook"), this.bookRepository.findOneById("123").get()),
+                () -> Assertions.assertFalse(this.bookRepository.isExist("234"))
+        );
+    }
+
+    @Test
+    public void reopen_after_bulk_update_and_delete_expected_books_recovered_from_journal() throws IOException {
+        this.bookRepository.saveAll(List.of(
+                new Book("123", "Quarkus cookbook"),
+                new Book("234", "Java cookbook"),
+                new Book("345", "Angular cookbook")
+        ));
+        this.bookRepository.updateAll(List.of(new Book("123", "Micronaut cookbook"), new Book("345", "React cookbook")));
+        this.bookRepository.deleteAllByIds(List.of("234", "345"));
+
+        this.bookRepository.close();
+        this.bookRepository = new JournaledBookRepository(this.directory, 100);
+
+        Assertions.assertEquals(List.of(new Book("123", "Micronaut cookbook")), List.copyOf(this.bookRepository.findAll()));
+    }
+
+    @Test
+    public void reopen_after_snapshot_expected_books_recovered_from_snapshot_and_journal() throws IOException {
+        this.bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        this.bookRepository.snapshot();
+        this.bookRepository.saveOne(new Book("234", "Java cookbook"));
+
+        this.bookRepository.close();
+        this.bookRepository = new JournaledBookRepository(this.directory, 100);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, this.bookRepository.findAll().size()),
+                () -> Assertions.assertTrue(this.bookRepository.isExist("123")),
+                () -> Assertions.assertTrue(this.bookRepository.isExist("234"))
+        );
+    }
+
+    @Test
+    public void reopen_after_save_all_if_absent_with_repeated_id_expected_first_book_recovered() throws IOException {
+        this.bookRepository.saveAllIfAbsent(List.of(new Book("123", "Quarkus cookbook"), new Book("123", "Java cookbook")));
+
+        this.bookRepository.close();
+        this.bookRepository = new JournaledBookRepository(this.directory, 100);
+
+        Assertions.assertEquals(new Book("123", "Quarkus cookbook"), this.bookRepository.findOneById("123").get());
+    }
+}
@@ -0,0 +1,71 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+public class MappedCatalogBookRepositoryTest {
+    private final IBookRepository bookRepository;
+
+    public MappedCatalogBookRepositoryTest() throws IOException {
+        final var catalog = Files.createTempFile("books", ".bin");
+        BookCatalogBuilder.build(
+                List.of(
+                        new Book("345", "Angular cookbook"),
+                        new Book("123", "Quarkus cookbook"),
+                        new Book("234", "Java cookbook"),
+                        new Book("123", "Duplicated cookbook")
+                ),
+                catalog
+        );
+        this.bookRepository = new MappedCatalogBookRepository(catalog);
+    }
+
+    @Test
+    public void find_one_by_id_exist_expected_book_found() {
+        Assertions.assertEquals(new Book("234", "Java cookbook"), this.bookRepository.findOneById("234").get());
+    }
+
+    @Test
+    public void find_one_by_id_not_exist_expected_empty() {
+        Assertions.assertTrue(this.bookRepository.findOneById("333").isEmpty());
+    }
+
+    @Test
+    public void find_all_expected_3_unique_books_by_id() {
+        Assertions.assertEquals(
+                List.of(
+                        new Book("123", "Quarkus cookbook"),
+                        new Book("234", "Java cookbook"),
+                        new Book("345", "Angular cookbook")
+                ),
+                this.bookRepository.findAll()
+        );
+    }
+
+    @Test
+    public void find_page_after_cursor_expected_remaining_books_by_id() {
+        Assertions.assertEquals(
+                List.of(new Book("345", "Angular cookbook")),
+                this.bookRepository.findPage("234", 10)
+        );
+    }
+
+    @Test
+    public void existing_ids_expected_only_catalog_ids() {
+        Assertions.assertEquals(Set.of("123", "345"), this.bookRepository.existing(List.of("123", "333", "345")));
+    }
+
+    @Test
+    public void save_one_expected_BookCatalogReadOnlyException() {
+        Assertions.assertThrows(
+                BookCatalogReadOnlyException.class,
+                () -> this.bookRepository.saveOne(new Book("456", "Micronaut cookbook"))
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package org.training.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+public class MeteredBookRepositoryTest extends InMemoryBookRepositoryTest {
+    private static final SimpleMeterRegistry METER_REGISTRY = new SimpleMeterRegistry();
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return new MeteredBookRepository(new InMemoryBookRepository(), METER_REGISTRY);
+    }
+
+    @Test
+    public void find_one_by_id_expected_call_timed_and_catalog_size_published() {
+        final var bookRepository = new MeteredBookRepository(new ConcurrentBookRepository(), METER_REGISTRY);
+        bookRepository.saveOne(new Book("123", "Quarkus cookbook"));
+        bookRepository.findOneById("123");
+        bookRepository.findOneById("345");
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        2,
+                        METER_REGISTRY
+                                .get("book.repository.calls")
+                                .tag("repository", "ConcurrentBookRepository")
+                                .tag("operation", "findOneById")
+                                .timer()
+                                .count()),
+                () -> Assertions.assertEquals(
+                        1.0,
+                        METER_REGISTRY
+                                .get("book.catalog.size")
+                                .tag("repository", "ConcurrentBookRepository")
+                                .gauge()
+                                .value())
+        );
+    }
+}
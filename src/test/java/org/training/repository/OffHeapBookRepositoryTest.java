@@ -0,0 +1,106 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class OffHeapBookRepositoryTest extends InMemoryBookRepositoryTest {
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return new OffHeapBookRepository();
+    }
+
+    @Test
+    public void save_all_across_arenas_expected_books_read_back_and_paged_in_id_order() {
+        final var bookRepository = new OffHeapBookRepository(256);
+        final var books = IntStream
+                .range(0, 5_000)
+                .mapToObj(it -> new Book("book-" + it, it % 10 == 0 ? null : "Book " + it))
+                .collect(Collectors.toList());
+        bookRepository.saveAll(books);
+
+        final var expectedBooks = new ArrayList<>(books);
+        expectedBooks.sort(Comparator.comparing(Book::getId));
+        final var pagedBooks = new ArrayList<Book>();
+        var page = bookRepository.findPage(null, 128);
+        while (!page.isEmpty()) {
+            pagedBooks.addAll(page);
+            page = bookRepository.findPage(page.get(page.size() - 1).getId(), 128);
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(5_000, bookRepository.findAll().size()),
+                () -> Assertions.assertEquals(new Book("book-10", null), bookRepository.findOneById("book-10").get()),
+                () -> Assertions.assertEquals(expectedBooks, pagedBooks)
+        );
+    }
+
+    @Test
+    public void find_page_non_ascii_ids_expected_string_order() {
+        final var bookRepository = new OffHeapBookRepository();
+        final var ids = List.of("\uE000", "\uD83D\uDE00", "\u00E9", "z");
+        ids.forEach(it -> bookRepository.saveOne(new Book(it, "Book " + it)));
+
+        final var expectedIds = new ArrayList<>(ids);
+        expectedIds.sort(Comparator.naturalOrder());
+
+        Assertions.assertEquals(
+                expectedIds,
+                bookRepository.findPage(null, 10).stream().map(Book::getId).collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void save_one_unpaired_surrogate_expected_IllegalArgumentException_and_nothing_stored() {
+        final var bookRepository = new OffHeapBookRepository();
+        bookRepository.saveOne(new Book("?", "Book ?"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> bookRepository.saveOne(new Book("\uD800", "Book"))),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> bookRepository.saveOne(new Book("123", "Book \uDC00"))),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> bookRepository.saveAll(List.of(new Book("456", "Book"), new Book("\uDBFF", "Book")))),
+                () -> Assertions.assertEquals(List.of(new Book("?", "Book ?")), List.copyOf(bookRepository.findAll()))
+        );
+    }
+
+    @Test
+    public void replace_repeatedly_expected_garbage_compacted() {
+        final var bookRepository = new OffHeapBookRepository(4_096);
+        IntStream.range(0, 1_000).forEach(it -> bookRepository.saveOne(new Book("book-" + it, "Book " + it)));
+        final var loadedBytes = bookRepository.allocatedBytes();
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                bookRepository.replaceIfPresent(new Book("book-" + i, "Book " + i + " edition " + round % 10));
+            }
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(bookRepository.allocatedBytes() < loadedBytes * 4, "Arenas kept growing: " + bookRepository.allocatedBytes()),
+                () -> Assertions.assertEquals(new Book("book-999", "Book 999 edition 9"), bookRepository.findOneById("book-999").get()),
+                () -> Assertions.assertEquals(1_000, bookRepository.findAll().size())
+        );
+    }
+
+    @Test
+    public void find_all_then_delete_all_expected_view_unchanged() {
+        final var bookRepository = new OffHeapBookRepository();
+        bookRepository.saveAll(List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook")));
+
+        final var books = bookRepository.findAll();
+        bookRepository.deleteAll();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, books.size()),
+                () -> Assertions.assertTrue(books.contains(new Book("123", "Quarkus cookbook"))),
+                () -> Assertions.assertEquals(0, bookRepository.findAll().size())
+        );
+    }
+}
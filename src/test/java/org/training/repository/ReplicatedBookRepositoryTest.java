@@ -0,0 +1,141 @@
+package org.training.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the repository contract against a leader, then whole clusters of nodes talking over loopback TCP.
+ */
+public class ReplicatedBookRepositoryTest extends InMemoryBookRepositoryTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final List<ReplicatedBookRepository> nodes = new ArrayList<>();
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return leader(1_000);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        this.nodes.forEach(ReplicatedBookRepository::close);
+    }
+
+    @Test
+    public void save_on_leader_expected_replicated_to_followers() {
+        final var leader = leader(1_000);
+        final var follower1 = follower(leader);
+        final var follower2 = follower(leader);
+
+        leader.saveAll(List.of(new Book("123", "Quarkus cookbook"), new Book("234", "Java cookbook")));
+        leader.updateOne(new Book("123", "Micronaut cookbook"));
+        leader.deleteOneById("234");
+
+        awaitUntil(() -> follower1.status().getSequence() == 4 && follower2.status().getSequence() == 4);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Book("123", "Micronaut cookbook")), List.copyOf(follower1.findAll())),
+                () -> Assertions.assertEquals(List.of(new Book("123", "Micronaut cookbook")), List.copyOf(follower2.findAll())),
+                () -> Assertions.assertEquals(2, leader.status().getFollowers())
+        );
+    }
+
+    @Test
+    public void save_on_follower_expected_BookCatalogReadOnlyException() {
+        final var follower = follower(leader(1_000));
+
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(BookCatalogReadOnlyException.class, () -> follower.saveOne(new Book("123", "Quarkus cookbook"))),
+                () -> Assertions.assertThrows(BookCatalogReadOnlyException.class, follower::deleteAll),
+                () -> Assertions.assertEquals(0, follower.findAll().size())
+        );
+    }
+
+    @Test
+    public void follower_behind_retained_log_expected_caught_up_by_snapshot_then_log() {
+        final var leader = leader(4);
+        for (int i = 0; i < 10; i++) {
+            leader.saveOne(new Book("book-" + i, "Book " + i));
+        }
+        final var follower = follower(leader);
+        awaitUntil(() -> follower.status().getSequence() == 10);
+
+        leader.deleteOneById("book-0");
+
+        awaitUntil(() -> follower.status().getSequence() == 11);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(9, follower.findAll().size()),
+                () -> Assertions.assertFalse(follower.isExist("book-0"))
+        );
+    }
+
+    @Test
+    public void leader_lost_expected_promoted_follower_takes_writes_and_other_follower_catches_up() {
+        final var leader = leader(1_000);
+        final var follower1 = follower(leader);
+        final var follower2 = follower(leader);
+        leader.saveOne(new Book("123", "Quarkus cookbook"));
+        awaitUntil(() -> follower1.status().getSequence() == 1 && follower2.status().getSequence() == 1);
+
+        leader.close();
+        follower1.promote();
+        follower2.follow(new InetSocketAddress("localhost", follower1.port()));
+        follower1.saveOne(new Book("234", "Java cookbook"));
+
+        awaitUntil(() -> follower2.status().getSequence() == 2);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(ReplicatedBookRepository.Role.LEADER, follower1.role()),
+                () -> Assertions.assertEquals(2, follower2.findAll().size()),
+                () -> Assertions.assertEquals(0, follower2.status().getLag())
+        );
+    }
+
+    @Test
+    public void follower_expected_lag_and_sequence_published() {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var leader = leader(1_000);
+        final var follower = follower(leader);
+        follower.bindTo(meterRegistry);
+
+        leader.saveOne(new Book("123", "Quarkus cookbook"));
+
+        awaitUntil(() -> meterRegistry.get("book.replication.sequence").gauge().value() == 1.0);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0.0, meterRegistry.get("book.replication.lag").gauge().value()),
+                () -> Assertions.assertEquals(1, leader.status().getSequence())
+        );
+    }
+
+    private ReplicatedBookRepository leader(final int logCapacity) {
+        final var leader = ReplicatedBookRepository.leader(0, logCapacity);
+        this.nodes.add(leader);
+        return leader;
+    }
+
+    private ReplicatedBookRepository follower(final ReplicatedBookRepository leader) {
+        final var follower = ReplicatedBookRepository.follower(0, new InetSocketAddress("localhost", leader.port()), 1_000);
+        this.nodes.add(follower);
+        return follower;
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) {
+        final var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline)
+                Assertions.fail("Replicas did not converge within " + TIMEOUT_MILLIS + " ms");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Assertions.fail("Interrupted while waiting for the replicas");
+            }
+        }
+    }
+}
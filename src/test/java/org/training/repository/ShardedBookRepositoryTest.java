@@ -0,0 +1,51 @@
+package org.training.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ShardedBookRepositoryTest extends InMemoryBookRepositoryTest {
+
+    @Override
+    protected IBookRepository createBookRepository() {
+        return new ShardedBookRepository(4);
+    }
+
+    @Test
+    public void shard_count_not_power_of_two_expected_rounded_up() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, new ShardedBookRepository(1).shardCount()),
+                () -> Assertions.assertEquals(8, new ShardedBookRepository(5).shardCount()),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new ShardedBookRepository(0))
+        );
+    }
+
+    @Test
+    public void save_all_large_batch_expected_pages_merged_in_id_order() {
+        final var bookRepository = new ShardedBookRepository(8);
+        final var books = IntStream
+                .range(0, 5_000)
+                .mapToObj(it -> new Book("book-" + it, "Book " + it))
+                .collect(Collectors.toList());
+        bookRepository.saveAll(books);
+
+        final var expectedBooks = new ArrayList<>(books);
+        expectedBooks.sort(Comparator.comparing(Book::getId));
+        final var pagedBooks = new ArrayList<Book>();
+        var page = bookRepository.findPage(null, 128);
+        while (!page.isEmpty()) {
+            pagedBooks.addAll(page);
+            page = bookRepository.findPage(page.get(page.size() - 1).getId(), 128);
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(5_000, bookRepository.findAll().size()),
+                () -> Assertions.assertEquals(expectedBooks, pagedBooks)
+        );
+    }
+}
@@ -0,0 +1,86 @@
+package org.training.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+import org.training.repository.BookMutation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class BookChangeFeedTest {
+
+    @Test
+    public void changes_after_sequence_expected_following_changes_up_to_max() {
+        final var changeFeed = new BookChangeFeed(8);
+        final var firstSequence = changeFeed.lastSequence();
+        changeFeed.publish(BookMutation.save(new Book("123", "Java CookBook")));
+        changeFeed.publishAll(List.of(BookMutation.delete("123"), BookMutation.deleteAll()));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(firstSequence + 3, changeFeed.lastSequence()),
+                () -> Assertions.assertEquals(
+                        List.of(BookMutation.delete("123"), BookMutation.deleteAll()),
+                        changeFeed.changesAfter(firstSequence + 1, 8).stream().map(BookChange::getMutation).collect(Collectors.toList())),
+                () -> Assertions.assertEquals(
+                        List.of(new BookChange(firstSequence + 1, BookMutation.save(new Book("123", "Java CookBook")))),
+                        changeFeed.changesAfter(firstSequence, 1)),
+                () -> Assertions.assertEquals(List.of(), changeFeed.changesAfter(changeFeed.lastSequence(), 8))
+        );
+    }
+
+    @Test
+    public void changes_after_sequence_not_retained_or_unknown_expected_null() {
+        final var changeFeed = new BookChangeFeed(4);
+        final var firstSequence = changeFeed.lastSequence();
+        for (int i = 0; i < 10; i++) {
+            changeFeed.publish(BookMutation.delete(Integer.toString(i)));
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertNull(changeFeed.changesAfter(firstSequence, 8)),
+                () -> Assertions.assertNull(changeFeed.changesAfter(firstSequence + 5, 8)),
+                () -> Assertions.assertEquals(4, changeFeed.changesAfter(firstSequence + 6, 8).size()),
+                () -> Assertions.assertNull(changeFeed.changesAfter(changeFeed.lastSequence() + 1, 8)),
+                () -> Assertions.assertNull(changeFeed.changesAfter(0, 8)),
+                () -> Assertions.assertNull(BookChangeFeed.disabled().changesAfter(0, 8))
+        );
+    }
+
+    @Test
+    public void concurrent_writes_to_one_id_expected_published_in_applied_order() throws Exception {
+        final var changeFeed = new BookChangeFeed(1 << 16);
+        final var firstSequence = changeFeed.lastSequence();
+        final var applied = new ArrayList<String>();
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int thread = 0; thread < 4; thread++) {
+                final var name = Integer.toString(thread);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        changeFeed.ordered("123", () -> {
+                            applied.add(name);
+                            changeFeed.publish(BookMutation.save(new Book("123", name)));
+                            return null;
+                        });
+                    }
+                }));
+            }
+            for (final var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(
+                applied,
+                changeFeed.changesAfter(firstSequence, 4000).stream().map(it -> it.getMutation().getName()).collect(Collectors.toList())
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package org.training.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+public class BookExecutorTest {
+    private static final Executor WORKER_POOL = Runnable::run;
+
+    @Test
+    public void virtual_mode_with_preview_virtual_threads_expected_worker_pool() {
+        // What JDK 19 and 20 answer when preview features are not enabled.
+        final var bookExecutor =
+                BookExecutor.create("virtual", WORKER_POOL, () -> {
+                    throw new UnsupportedOperationException("Preview Features not enabled, need to run with --enable-preview");
+                });
+
+        Assertions.assertFalse(bookExecutor.isVirtual());
+    }
+
+    @Test
+    public void virtual_mode_expected_calls_run_on_executor() {
+        final var executor = Executors.newSingleThreadExecutor(it -> new Thread(it, "book-virtual"));
+        try (final var bookExecutor = BookExecutor.create("virtual", WORKER_POOL, () -> executor)) {
+            final var threadName = bookExecutor.call(() -> Thread.currentThread().getName()).toCompletableFuture().join();
+
+            Assertions.assertAll(
+                    () -> Assertions.assertTrue(bookExecutor.isVirtual()),
+                    () -> Assertions.assertEquals("book-virtual", threadName)
+            );
+        }
+    }
+
+    @Test
+    public void worker_mode_expected_calls_run_on_calling_thread() {
+        final var bookExecutor = BookExecutor.create("worker", WORKER_POOL, "off");
+
+        final var threadName = bookExecutor.call(() -> Thread.currentThread().getName()).toCompletableFuture().join();
+
+        Assertions.assertEquals(Thread.currentThread().getName(), threadName);
+    }
+
+    @Test
+    public void unknown_mode_expected_IllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BookExecutor.create("carrier", WORKER_POOL, "off"));
+    }
+}
@@ -0,0 +1,97 @@
+package org.training.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.training.model.Book;
+import org.training.repository.ConcurrentBookRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BookIngestServiceTest {
+    private final BookService bookService;
+    private final BookIngestService bookIngestService;
+
+    public BookIngestServiceTest() {
+        this.bookService = new BookService(new ConcurrentBookRepository());
+        this.bookIngestService = new BookIngestService(this.bookService, new ObjectMapper().findAndRegisterModules(), 4, 2, 4);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        this.bookIngestService.close();
+    }
+
+    @Test
+    public void ingest_json_array_expected_valid_books_saved_and_invalid_reported() throws IOException {
+        final var booksIngestRecord = ingest("[" +
+                "{\"id\":\"123\",\"name\":\"Java Cookbook\"}," +
+                "{\"id\":\"\",\"name\":\"Quarkus Cookbook\"}," +
+                "{\"id\":\"234\",\"name\":\"\"}," +
+                "null," +
+                "{\"id\":\"345\",\"name\":\"Kotlin Cookbook\"}" +
+                "]");
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, booksIngestRecord.getSavedCount()),
+                () -> Assertions.assertEquals(3, booksIngestRecord.getUnsavedCount()),
+                () -> Assertions.assertEquals(3, booksIngestRecord.getUnsavedBooks().size()),
+                () -> Assertions.assertEquals(2, this.bookService.findAll().size())
+        );
+    }
+
+    @Test
+    public void ingest_ndjson_with_duplicates_across_chunks_expected_saved_once() throws IOException {
+        this.bookService.saveOne(new Book("000", "Existing Cookbook"));
+        final var booksIngestRecord = ingest(
+                "{\"id\":\"123\",\"name\":\"Java Cookbook\"}\n" +
+                "{\"id\":\"000\",\"name\":\"Java Cookbook\"}\n" +
+                "{\"id\":\"234\",\"name\":\"Quarkus Cookbook\"}\n" +
+                "{\"id\":\"123\",\"name\":\"Kotlin Cookbook\"}\n" +
+                "{\"id\":\"123\",\"name\":\"Scala Cookbook\"}\n");
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, booksIngestRecord.getSavedCount()),
+                () -> Assertions.assertEquals(3, booksIngestRecord.getUnsavedCount()),
+                () -> Assertions.assertEquals(3, this.bookService.findAll().size()),
+                () -> org.hamcrest.MatcherAssert.assertThat(
+                        booksIngestRecord.getUnsavedBooks().iterator().next().getReason(),
+                        org.hamcrest.CoreMatchers.instanceOf(BookService.BookException.BookAlreadyExistException.class)
+                )
+        );
+    }
+
+    @Test
+    public void ingest_many_books_expected_all_saved_and_reported_unsaved_books_capped() throws IOException {
+        final var books = IntStream
+                .range(0, 5_000)
+                .mapToObj(it -> "{\"id\":\"" + it % 2_000 + "\",\"name\":\"Book " + it + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        final var booksIngestRecord = ingest(books);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2_000, booksIngestRecord.getSavedCount()),
+                () -> Assertions.assertEquals(3_000, booksIngestRecord.getUnsavedCount()),
+                () -> Assertions.assertEquals(BookIngestService.MAX_REPORTED_UNSAVED_BOOKS, booksIngestRecord.getUnsavedBooks().size()),
+                () -> Assertions.assertEquals(2_000, this.bookService.findAll().size())
+        );
+    }
+
+    @Test
+    public void ingest_malformed_json_expected_JsonProcessingException() {
+        Assertions.assertThrows(
+                JsonProcessingException.class,
+                () -> ingest("[{\"id\":\"123\",\"name\":\"Java Cookbook\"},{\"id\":")
+        );
+    }
+
+    private BookIngestService.BooksIngestRecord ingest(final String books) throws IOException {
+        return this.bookIngestService.ingest(new ByteArrayInputStream(books.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,161 @@
+package org.training.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.training.config.BeanConfiguration;
+import org.training.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Races writers against each other on every in-process repository type, no write may be lost or applied twice.
+ */
+public class ConcurrentBookServiceTest {
+    private static final int WRITERS = 16;
+    private static final int BOOKS = 1_000;
+    private static final int CHUNK_SIZE = 100;
+
+    private BookService bookService;
+
+    private void useRepository(final String repositoryType) {
+        this.bookService = new BookService(new BeanConfiguration().bookRepository(repositoryType));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"in-memory", "concurrent", "sharded", "off-heap"})
+    public void save_one_same_books_from_16_writers_expected_each_book_saved_once(final String repositoryType) throws Exception {
+        useRepository(repositoryType);
+        final var savedCount = new AtomicInteger();
+        final var rejectedCount = new AtomicInteger();
+
+        runConcurrently(writer -> () -> {
+            IntStream
+                    .range(0, BOOKS)
+                    .mapToObj(it -> new Book(String.valueOf(it), "Book " + writer))
+                    .map(this.bookService::saveOne)
+                    .forEach(it -> {
+                        if (it.isRight()) savedCount.incrementAndGet();
+                        else if (it.getLeft() instanceof BookService.BookException.BookAlreadyExistException) rejectedCount.incrementAndGet();
+                    });
+            return null;
+        });
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(BOOKS, savedCount.get()),
+                () -> Assertions.assertEquals(BOOKS * (WRITERS - 1), rejectedCount.get()),
+                () -> Assertions.assertEquals(BOOKS, this.bookService.findAll().size())
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"in-memory", "concurrent", "sharded", "off-heap"})
+    public void save_one_and_save_all_same_books_from_16_writers_expected_each_book_saved_once_and_kept(final String repositoryType)
+            throws Exception {
+        useRepository(repositoryType);
+        final Map<String, String> savedNames = new ConcurrentHashMap<>();
+        final var savedTwiceCount = new AtomicInteger();
+
+        runConcurrently(writer -> () -> {
+            final var books =
+                    IntStream
+                            .range(0, BOOKS)
+                            .mapToObj(it -> new Book(String.valueOf(it), "Book " + writer))
+                            .collect(Collectors.toUnmodifiableList());
+            final List<Book> savedBooks = new ArrayList<>();
+            if (writer % 2 == 0) {
+                books.forEach(it -> this.bookService.saveOne(it).forEach(savedBooks::add));
+            } else {
+                for (int from = 0; from < BOOKS; from += CHUNK_SIZE) {
+                    savedBooks.addAll(this.bookService.saveAll(books.subList(from, from + CHUNK_SIZE)).getSavedBooks());
+                }
+            }
+            for (final var book : savedBooks) {
+                if (Objects.nonNull(savedNames.putIfAbsent(book.getId(), book.getName())))
+                    savedTwiceCount.incrementAndGet();
+            }
+            return null;
+        });
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0, savedTwiceCount.get()),
+                () -> Assertions.assertEquals(BOOKS, savedNames.size()),
+                () -> Assertions.assertEquals(
+                        savedNames,
+                        this.bookService
+                                .findAll()
+                                .stream()
+                                .collect(Collectors.toMap(Book::getId, Book::getName)))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"in-memory", "concurrent", "sharded", "off-heap"})
+    public void update_one_from_16_writers_expected_book_never_missing(final String repositoryType) throws Exception {
+        useRepository(repositoryType);
+        final var books =
+                IntStream
+                        .range(0, BOOKS)
+                        .mapToObj(it -> new Book(String.valueOf(it), "Book"))
+                        .collect(Collectors.toUnmodifiableList());
+        this.bookService.saveAll(books);
+        final var missingCount = new AtomicInteger();
+
+        runConcurrently(writer -> () -> {
+            for (final var book : books) {
+                if (writer % 2 == 0) {
+                    if (this.bookService.updateOne(new Book(book.getId(), "Book " + writer)).isLeft())
+                        missingCount.incrementAndGet();
+                } else if (this.bookService.findOneById(book.getId()).isLeft()) {
+                    missingCount.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0, missingCount.get()),
+                () -> Assertions.assertEquals(BOOKS, this.bookService.findAll().size())
+        );
+    }
+
+    private void runConcurrently(final WriterTask writerTask) throws InterruptedException, ExecutionException {
+        final var executor = Executors.newFixedThreadPool(WRITERS);
+        final var startGate = new CountDownLatch(1);
+        try {
+            final var futures = new ArrayList<Future<Void>>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                final var task = writerTask.create(writer);
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            for (final var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WriterTask {
+        Callable<Void> create(final int writer);
+    }
+}
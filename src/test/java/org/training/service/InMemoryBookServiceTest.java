@@ -1,14 +1,17 @@
 package org.training.service;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.training.model.Book;
+import org.training.repository.BookMutation;
 import org.training.repository.IBookRepository;
 import org.training.repository.InMemoryBookRepository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -178,6 +181,41 @@ public class InMemoryBookServiceTest {
         );
     }
 
+    @Test
+    public void save_all_2_books_with_same_id_expected_1_book_saved_and_BookAlreadyExistException() {
+        final var booksToBeSave = List.of(
+                new Book("123", "Java Cookbook"),
+                new Book("123", "Quarkus Cookbook")
+        );
+        final var savedBooks = this.bookService.saveAll(booksToBeSave);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, this.bookService.findAll().size()),
+                () -> Assertions.assertEquals(List.of(booksToBeSave.get(0)), savedBooks.getSavedBooks()),
+                () -> Assertions.assertEquals(1, savedBooks.getUnsavedBooks().size()),
+                () -> org.hamcrest.MatcherAssert.assertThat(
+                        savedBooks.getUnsavedBooks().iterator().next().getReason(),
+                        org.hamcrest.CoreMatchers.instanceOf(BookService.BookException.BookAlreadyExistException.class)
+                )
+        );
+    }
+
+    @Test
+    public void save_all_existed_book_expected_BookAlreadyExistException() {
+        final var bookToBeSave = new Book("123", "Java Cookbook");
+        this.bookService.saveOne(bookToBeSave);
+        final var savedBooks = this.bookService.saveAll(List.of(bookToBeSave, new Book("234", "Quarkus Cookbook")));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, this.bookService.findAll().size()),
+                () -> Assertions.assertEquals(1, savedBooks.getSavedBooks().size()),
+                () -> org.hamcrest.MatcherAssert.assertThat(
+                        savedBooks.getUnsavedBooks().iterator().next().getReason(),
+                        org.hamcrest.CoreMatchers.instanceOf(BookService.BookException.BookAlreadyExistException.class)
+                )
+        );
+    }
+
     @Test
     public void save_all_one_null_book_expected_BookNullException() {
         final var booksToBeSave = new ArrayList<Book>();
@@ -217,6 +255,18 @@ public class InMemoryBookServiceTest {
         );
     }
 
+    @Test
+    public void findOneById_inexisted_book_twice_expected_same_stackless_BookNotFoundException() {
+        final var firstResult = this.bookService.findOneById("234");
+        final var secondResult = this.bookService.findOneById("345");
+
+        Assertions.assertAll(
+                () -> Assertions.assertSame(firstResult.getLeft(), secondResult.getLeft()),
+                () -> Assertions.assertEquals(0, firstResult.getLeft().getStackTrace().length),
+                () -> Assertions.assertEquals("Book not found!", firstResult.getLeft().getMessage())
+        );
+    }
+
     @Test
     public void findOneById_book_with_null_id_expected_BookIdNullOrEmptyException() {
         final var bookToBeSave = new Book("123", "Java CookBook");
@@ -243,6 +293,80 @@ public class InMemoryBookServiceTest {
         );
     }
 
+    @Test
+    public void findAllByIds_found_missing_and_blank_ids_expected_books_and_reasons() {
+        this.bookService.saveAll(List.of(new Book("123", "Java CookBook"), new Book("234", "Quarkus CookBook")));
+
+        final var booksLookupRecord = this.bookService.findAllByIds(Arrays.asList("234", "456", null, "123", "234", ""));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        List.of(new Book("234", "Quarkus CookBook"), new Book("123", "Java CookBook")),
+                        booksLookupRecord.getFoundBooks()
+                ),
+                () -> Assertions.assertEquals(
+                        Arrays.asList(null, "", "456"),
+                        booksLookupRecord.getUnfoundBooks().stream().map(BookService.BooksLookupRecord.UnfoundBooks::getId).collect(Collectors.toList())
+                ),
+                () -> Assertions.assertEquals(
+                        List.of("Book id is empty or null", "Book id is empty or null", "Book not found!"),
+                        booksLookupRecord.getUnfoundBooks().stream().map(it -> it.getReason().getMessage()).collect(Collectors.toList())
+                )
+        );
+    }
+
+    @Test
+    public void findAllByIds_null_ids_expected_empty_record() {
+        final var booksLookupRecord = this.bookService.findAllByIds(null);
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(booksLookupRecord.getFoundBooks().isEmpty()),
+                () -> Assertions.assertTrue(booksLookupRecord.getUnfoundBooks().isEmpty())
+        );
+    }
+
+    @Test
+    public void updateAll_valid_missing_invalid_and_repeated_books_expected_partial_update_with_reasons() {
+        this.bookService.saveAll(List.of(new Book("123", "Java CookBook"), new Book("234", "Quarkus CookBook")));
+
+        final var booksRecord = this.bookService.updateAll(List.of(
+                new Book("123", "Micronaut CookBook"),
+                new Book("456", "Go CookBook"),
+                new Book("234", ""),
+                new Book("123", "Spring CookBook")
+        ));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Book("123", "Micronaut CookBook")), List.copyOf(booksRecord.getSavedBooks())),
+                () -> Assertions.assertEquals(
+                        List.of("Book name is empty or null", "Book id is repeated in the batch", "Book not found!"),
+                        booksRecord.getUnsavedBooks().stream().map(it -> it.getReason().getMessage()).collect(Collectors.toList())
+                ),
+                () -> Assertions.assertEquals(new Book("123", "Micronaut CookBook"), this.bookService.findOneById("123").get()),
+                () -> Assertions.assertEquals(new Book("234", "Quarkus CookBook"), this.bookService.findOneById("234").get())
+        );
+    }
+
+    @Test
+    public void deleteAll_by_ids_found_missing_and_blank_ids_expected_partial_delete_with_reasons() {
+        this.bookService.saveAll(List.of(new Book("123", "Java CookBook"), new Book("234", "Quarkus CookBook")));
+
+        final var booksDeletionRecord = this.bookService.deleteAll(Arrays.asList("123", "456", "", "123"));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(List.of(new Book("123", "Java CookBook")), List.copyOf(booksDeletionRecord.getDeletedBooks())),
+                () -> Assertions.assertEquals(
+                        List.of("", "456"),
+                        booksDeletionRecord.getUndeletedBooks().stream().map(BookService.BooksLookupRecord.UnfoundBooks::getId).collect(Collectors.toList())
+                ),
+                () -> Assertions.assertEquals(
+                        List.of("Book id is unvalid", "Book not found"),
+                        booksDeletionRecord.getUndeletedBooks().stream().map(it -> it.getReason().getMessage()).collect(Collectors.toList())
+                ),
+                () -> Assertions.assertEquals(List.of(new Book("234", "Quarkus CookBook")), List.copyOf(this.bookService.findAll()))
+        );
+    }
+
     @Test
     public void findAll_3_books_expected_3_books_returned() {
         final var booksToBeSave = List.of(
@@ -255,6 +379,57 @@ public class InMemoryBookServiceTest {
         Assertions.assertEquals(3, this.bookService.findAll().size());
     }
 
+    @Test
+    public void findPage_3_books_with_limit_2_expected_2_books_and_next_cursor() {
+        this.bookService.saveAll(List.of(
+                new Book("123", "Java Cookbook"),
+                new Book("234", "Quarkus Cookbook"),
+                new Book("456", "Micronaut Cookbook")
+        ));
+
+        final var firstPage = this.bookService.findPage(null, 2).get();
+        final var lastPage = this.bookService.findPage(firstPage.getNextCursor(), 2).get();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, firstPage.getBooks().size()),
+                () -> Assertions.assertEquals("234", firstPage.getNextCursor()),
+                () -> Assertions.assertEquals(List.of(new Book("456", "Micronaut Cookbook")), lastPage.getBooks()),
+                () -> Assertions.assertNull(lastPage.getNextCursor())
+        );
+    }
+
+    @Test
+    public void findPage_with_limit_0_expected_BookPageLimitInvalidException() {
+        final var page = this.bookService.findPage(null, 0);
+
+        org.hamcrest.MatcherAssert.assertThat(
+                page.getLeft(),
+                org.hamcrest.CoreMatchers.instanceOf(BookService.BookException.BookPageLimitInvalidException.class)
+        );
+    }
+
+    @Test
+    public void search_with_prefix_expected_matching_books() {
+        this.bookService.saveAll(List.of(
+                new Book("123", "Java Cookbook"),
+                new Book("234", "Quarkus Cookbook"),
+                new Book("456", "Micronaut in action")
+        ));
+
+        final var books = this.bookService.search("quar", 10).get();
+        Assertions.assertEquals(List.of(new Book("234", "Quarkus Cookbook")), books);
+    }
+
+    @Test
+    public void search_with_blank_query_expected_BookSearchQueryEmptyException() {
+        final var books = this.bookService.search(" ", 10);
+
+        org.hamcrest.MatcherAssert.assertThat(
+                books.getLeft(),
+                org.hamcrest.CoreMatchers.instanceOf(BookService.BookException.BookSearchQueryEmptyException.class)
+        );
+    }
+
     @Test
     public void updateOne_book_with_id_existed_expected_one_book_updated() {
         final var bookToBeSave = new Book("123", "Java CookBook");
@@ -460,4 +635,64 @@ public class InMemoryBookServiceTest {
         final var isBookExist = this.bookService.isExist("234");
         Assertions.assertFalse(isBookExist);
     }
+
+    @Test
+    public void metered_service_expected_calls_failures_and_batch_size_recorded() {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var meteredBookService = new BookService(new InMemoryBookRepository(), meterRegistry);
+        meteredBookService.saveOne(new Book("123", "Java CookBook"));
+        meteredBookService.saveOne(new Book("123", "Java CookBook"));
+        meteredBookService.saveAll(List.of(new Book("234", "Quarkus Cookbook"), new Book("", "Micronaut Cookbook")));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, meterRegistry.get("book.service.calls").tag("operation", "saveOne").timer().count()),
+                () -> Assertions.assertEquals(
+                        1.0,
+                        meterRegistry
+                                .get("book.service.failures")
+                                .tag("operation", "saveOne")
+                                .tag("exception", "BookAlreadyExistException")
+                                .counter()
+                                .count()),
+                () -> Assertions.assertEquals(
+                        1.0,
+                        meterRegistry
+                                .get("book.service.failures")
+                                .tag("operation", "saveAll")
+                                .tag("exception", "BookIdEmptyOrNullException")
+                                .counter()
+                                .count()),
+                () -> Assertions.assertEquals(2.0, meterRegistry.get("book.service.saveall.last.batch.size").gauge().value())
+        );
+    }
+
+    @Test
+    public void writes_with_change_feed_expected_effective_writes_published_in_order() {
+        final var changeFeed = new BookChangeFeed(16);
+        final var followedBookService = new BookService(new InMemoryBookRepository(), new SimpleMeterRegistry(), changeFeed);
+        final var firstSequence = changeFeed.lastSequence();
+        followedBookService.saveOne(new Book("123", "Java CookBook"));
+        followedBookService.saveOne(new Book("123", "Java CookBook"));
+        followedBookService.saveAll(List.of(new Book("234", "Quarkus Cookbook"), new Book("", "Micronaut Cookbook")));
+        followedBookService.updateOne(new Book("123", "Java CookBook, 2nd edition"));
+        followedBookService.updateOne(new Book("345", "Angular Cookbook"));
+        followedBookService.deleteOneById("234");
+        followedBookService.deleteAll();
+
+        final var changes = changeFeed.changesAfter(firstSequence, 16);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        List.of(
+                                BookMutation.save(new Book("123", "Java CookBook")),
+                                BookMutation.save(new Book("234", "Quarkus Cookbook")),
+                                BookMutation.save(new Book("123", "Java CookBook, 2nd edition")),
+                                BookMutation.delete("234"),
+                                BookMutation.deleteAll()
+                        ),
+                        changes.stream().map(BookChange::getMutation).collect(Collectors.toList())),
+                () -> Assertions.assertEquals(
+                        List.of(firstSequence + 1, firstSequence + 2, firstSequence + 3, firstSequence + 4, firstSequence + 5),
+                        changes.stream().map(BookChange::getSequence).collect(Collectors.toList()))
+        );
+    }
 }